@@ -9,6 +9,8 @@ package com.flop.resttester;
 
 import com.flop.resttester.auth.AuthenticationWindow;
 import com.flop.resttester.enviroment.EnvironmentSelector;
+import com.flop.resttester.request.RequestExecutor;
+import com.flop.resttester.response.ResponseBodySink;
 import com.flop.resttester.settings.SettingsWindow;
 import com.flop.resttester.variables.VariablesWindow;
 import com.intellij.openapi.project.Project;
@@ -29,6 +31,9 @@ public class RestTesterFactory implements ToolWindowFactory {
     public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
         ContentFactory contentFactory = ContentFactory.getInstance();
 
+        // response bodies of previous sessions which spilled to disk
+        RequestExecutor.getInstance().execute(ResponseBodySink::deleteStaleFiles);
+
         AuthenticationWindow authWindow = new AuthenticationWindow(project);
         Content authContent = contentFactory.createContent(authWindow.getContent(), "Authentication", false);
 
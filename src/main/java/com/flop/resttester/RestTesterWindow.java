@@ -8,16 +8,35 @@
 package com.flop.resttester;
 
 import com.flop.resttester.auth.AuthenticationData;
+import com.flop.resttester.auth.AuthenticationNode;
 import com.flop.resttester.auth.AuthenticationWindow;
+import com.flop.resttester.components.keyvaluelist.KeyValuePair;
+import com.flop.resttester.loadtest.LoadTestDialog;
+import com.flop.resttester.loadtest.LoadTestTask;
+import com.flop.resttester.history.ResponseHistory;
+import com.flop.resttester.history.ResponseHistoryStore;
+import com.flop.resttester.request.ConnectionWarmer;
+import com.flop.resttester.request.InFlightRequest;
+import com.flop.resttester.request.InFlightRequestListener;
+import com.flop.resttester.request.InFlightRequestsPanel;
 import com.flop.resttester.request.RequestData;
+import com.flop.resttester.request.RequestExecutor;
 import com.flop.resttester.request.RequestThread;
 import com.flop.resttester.request.RequestWindow;
 import com.flop.resttester.request.RequestWindowListener;
+import com.flop.resttester.request.RetryPolicy;
+import com.flop.resttester.request.RetrySettingsDialog;
+import com.flop.resttester.requesttree.RequestTreeNode;
 import com.flop.resttester.requesttree.RequestTreeNodeData;
 import com.flop.resttester.requesttree.RequestTreeWindow;
+import com.flop.resttester.response.ResponseChunk;
+import com.flop.resttester.response.ResponseRecord;
 import com.flop.resttester.response.ResponseWindow;
+import com.flop.resttester.runner.CollectionRunConfigDialog;
+import com.flop.resttester.runner.CollectionRunWindow;
 import com.flop.resttester.state.RestTesterState;
 import com.flop.resttester.state.RestTesterStateService;
+import com.flop.resttester.utils.UiUpdateCoalescer;
 import com.flop.resttester.variables.VariablesWindow;
 import com.intellij.openapi.project.Project;
 import com.intellij.ui.JBColor;
@@ -26,9 +45,11 @@ import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import javax.swing.plaf.basic.BasicSplitPaneUI;
+import javax.swing.tree.TreeNode;
+import java.awt.BorderLayout;
 import java.util.ArrayList;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Enumeration;
+import java.util.List;
 
 public class RestTesterWindow {
     // main ui
@@ -41,16 +62,47 @@ public class RestTesterWindow {
 
     // IntelliJ vars
     private final Project project;
+
     private final RestTesterStateService state;
+    private final VariablesWindow variablesWindow;
 
     // others
     private RequestTreeNodeData selection = null;
-    private RequestThread requestThread;
-    private Timer loadingTimer = new Timer();
+    /**
+     * All running requests, only accessed on the EDT.
+     * <p>
+     * Responses are routed to the history of the node which sent the request instead of separate result tabs.
+     * The response window shows the history of the selected node, so a result stays with its request and is shown
+     * again when the node or the entry in the in-flight list is selected.
+     */
+    private final List<InFlightRequest> inFlightRequests = new ArrayList<>();
+    // responses and chunks of streams are shown at most once per frame instead of once per line
+    private final UiUpdateCoalescer uiUpdates = new UiUpdateCoalescer();
+    private final InFlightRequestsPanel inFlightPanel = new InFlightRequestsPanel(new InFlightRequestListener() {
+        @Override
+        public void onShowRequest(InFlightRequest request) {
+            RestTesterWindow.this.requestTreeWindow.selectRequest(request.getNodeData());
+        }
+
+        @Override
+        public void onCancelRequest(InFlightRequest request) {
+            RestTesterWindow.this.cancelRequest(request);
+        }
+    });
+    // runs on the EDT, so the loading ticker does not need its own thread
+    private final Timer loadingTimer = new Timer(100, (e) -> {
+        this.inFlightPanel.refresh();
+
+        InFlightRequest request = this.getInFlightRequest(this.selection);
+        if (request != null) {
+            this.responseWindow.setLoading(request.getElapsedTime(), request.isQueued(), request.getUploadProgress());
+        }
+    });
 
     public RestTesterWindow(Project project, AuthenticationWindow authWindow, VariablesWindow varWindow) {
         this.project = project;
         this.state = RestTesterStateService.getInstance();
+        this.variablesWindow = varWindow;
 
         this.requestTreeWindow.setProject(project, this);
         this.requestTreeWindow.addSelectionListener(this::updateInputs);
@@ -71,6 +123,11 @@ public class RestTesterWindow {
                 RestTesterWindow.this.requestTreeWindow.updateTree();
                 RestTesterWindow.this.requestTreeWindow.saveTree();
             }
+
+            @Override
+            public void onUrlChange() {
+                RestTesterWindow.this.warmUpConnection(ConnectionWarmer.URL_STABLE_DELAY);
+            }
         });
 
         this.responseWindow.setProject(project);
@@ -88,12 +145,19 @@ public class RestTesterWindow {
         ((BasicSplitPaneUI) this.splitPaneRight.getUI()).getDivider().setBorder(BorderFactory.createLineBorder(JBColor.border()));
 
         this.mainPanel.setBorder(BorderFactory.createEmptyBorder());
+
+        // the running requests are listed below the request tree
+        JPanel leftPanel = new JPanel(new BorderLayout());
+        leftPanel.add(this.requestTreeWindow.getContent(), BorderLayout.CENTER);
+        leftPanel.add(this.inFlightPanel, BorderLayout.SOUTH);
+        this.splitPaneLeft.setLeftComponent(leftPanel);
     }
 
     private void updateInputs(@Nullable RequestTreeNodeData data) {
         if (data == null) {
             this.selection = null;
             this.requestWindow.setRequestData(null);
+            ConnectionWarmer.getInstance().cancel();
             return;
         }
 
@@ -101,14 +165,79 @@ public class RestTesterWindow {
             return;
         }
 
-        if (this.requestThread != null) {
-            // cancel running request
-            this.cancelRequest();
-        }
-
         this.selection = data;
         this.requestWindow.setRequestData(data);
-        this.responseWindow.loadResult(data.getResponseCache());
+
+        // requests keep running in the background, switching back shows their current state
+        InFlightRequest running = this.getInFlightRequest(data);
+        this.requestWindow.setRequestStarted(running != null);
+
+        ResponseHistory history = data.getResponseHistory();
+        if (history.isEmpty() && running == null) {
+            this.restoreResponse(data, history);
+        }
+        this.responseWindow.setHistory(history);
+
+        if (running == null) {
+            this.responseWindow.loadResult(history.getLatest());
+        } else {
+            this.responseWindow.setLoadingStart();
+
+            if (running.getPartialResponse() != null) {
+                // chunks which arrived while another request was shown are part of the final response
+                this.responseWindow.setResult(running.getPartialResponse());
+                this.responseWindow.resumeChunks(running.getNextChunkSequence());
+            }
+        }
+
+        this.warmUpConnection(0);
+    }
+
+    /**
+     * Reads the last persisted response of the request in the background, e.g. after a restart of the IDE.
+     * Only this single response is decompressed. It is dropped if the request got a new response in the meantime.
+     */
+    private void restoreResponse(RequestTreeNodeData data, ResponseHistory history) {
+        String path = this.requestTreeWindow.getRequestPath(data);
+        if (path == null) {
+            return;
+        }
+
+        ResponseHistoryStore store = this.getHistoryStore();
+        RequestExecutor.getInstance().execute(() -> {
+            ResponseRecord latest = store.getLatest(path);
+            if (latest == null) {
+                return;
+            }
+
+            SwingUtilities.invokeLater(() -> {
+                if (!history.isEmpty() || this.getInFlightRequest(data) != null) {
+                    return;
+                }
+                history.add(latest);
+
+                if (this.selection == data) {
+                    this.responseWindow.loadResult(latest);
+                }
+            });
+        });
+    }
+
+    /**
+     * Persisted responses of the current environment.
+     */
+    private ResponseHistoryStore getHistoryStore() {
+        return ResponseHistoryStore.getInstance(this.project, this.state.getEnvironment().id);
+    }
+
+    /**
+     * Opens a connection to the host of the selected request in the background, so sending it is faster.
+     */
+    private void warmUpConnection(long delayMillis) {
+        if (this.selection == null || !this.state.getWarmUpConnections()) {
+            return;
+        }
+        ConnectionWarmer.getInstance().schedule(this.getRequestData(), delayMillis);
     }
 
     public JPanel getContent() {
@@ -116,44 +245,82 @@ public class RestTesterWindow {
     }
 
     private void sendRequest() {
-        if (this.requestThread != null) {
-            // old request is still running, cancel it
-            this.responseWindow.setCanceled(this.requestThread.getElapsedTime());
-            this.cancelRequest();
+        if (this.selection == null) {
+            this.requestWindow.setRequestStarted(false);
             return;
         }
 
-        this.responseWindow.setLoadingStart();
+        InFlightRequest running = this.getInFlightRequest(this.selection);
+        if (running != null) {
+            // the request of the selection is still running, the send button cancels it
+            this.responseWindow.setCanceled(running.getElapsedTime());
+            this.cancelRequest(running);
+            return;
+        }
 
-        this.loadingTimer = new Timer();
-        this.loadingTimer.schedule(
-                new TimerTask() {
-                    @Override
-                    public void run() {
-                        SwingUtilities.invokeLater(() -> {
-                            if (RestTesterWindow.this.requestThread != null) {
-                                RestTesterWindow.this.responseWindow.setLoading(RestTesterWindow.this.requestThread.getElapsedTime());
-                            }
-                        });
-                    }
-                }, 0, 100
-        );
+        this.responseWindow.setLoadingStart();
 
         RequestData data = this.getRequestData();
+        InFlightRequest inFlight = new InFlightRequest(this.selection);
+
+        String path = this.requestTreeWindow.getRequestPath(this.selection);
+        if (path != null) {
+            inFlight.setHistoryStore(this.getHistoryStore(), path);
+        }
 
-        this.requestThread = new RequestThread(
+        // responses are recorded in the history of the node which sent the request and are only displayed while it is selected
+        RequestThread request = new RequestThread(
                 this.project,
                 data,
-                (response) -> SwingUtilities.invokeLater(() -> {
-                    this.responseWindow.setResult(response);
-
-                    if (this.selection != null) {
-                        this.selection.setResponseCache(response);
-                    }
-                }),
-                this::cancelRequest
+                (response) -> {
+                    // only a detached record is kept, so the http objects of the response can be collected
+                    ResponseRecord record = ResponseRecord.of(response, inFlight.getStartedAt());
+                    this.uiUpdates.post(inFlight, "response", () -> this.showResponse(inFlight, record));
+                },
+                (chunk) -> {
+                    inFlight.addPendingChunk(chunk);
+                    this.uiUpdates.post(inFlight, "chunks", () -> this.showChunks(inFlight));
+                },
+                () -> this.finishRequest(inFlight)
         );
-        this.requestThread.start();
+        inFlight.setHandle(RequestExecutor.getInstance().submit(request));
+
+        this.inFlightRequests.add(inFlight);
+        this.inFlightPanel.setRequests(this.inFlightRequests);
+        this.loadingTimer.start();
+    }
+
+    private void showResponse(InFlightRequest request, ResponseRecord record) {
+        request.setPartialResponse(record);
+        request.getNodeData().getResponseHistory().add(record);
+
+        if (this.selection == request.getNodeData()) {
+            this.responseWindow.setResult(record);
+        }
+    }
+
+    /**
+     * Shows all chunks which arrived since the last frame with a single update of the response window.
+     */
+    private void showChunks(InFlightRequest request) {
+        List<ResponseChunk> chunks = request.takePendingChunks();
+        if (chunks.isEmpty()) {
+            return;
+        }
+        request.setNextChunkSequence(chunks.getLast().sequence() + 1);
+
+        if (this.selection == request.getNodeData()) {
+            this.responseWindow.appendChunks(chunks);
+        }
+    }
+
+    private @Nullable InFlightRequest getInFlightRequest(@Nullable RequestTreeNodeData nodeData) {
+        for (InFlightRequest request : this.inFlightRequests) {
+            if (request.getNodeData() == nodeData) {
+                return request;
+            }
+        }
+        return null;
     }
 
     private @NotNull RequestData getRequestData() {
@@ -172,22 +339,153 @@ public class RestTesterWindow {
                 nodeData.getParams(),
                 nodeData.getHeaders(),
                 this.state.getValidateSSL(),
-                this.state.getAllowRedirects()
+                this.state.getAllowRedirects(),
+                this.state.getBodyMemoryLimit(),
+                this.state.getAcceptCompression(),
+                this.resolveRetryPolicy(this.selection),
+                environment.hostLimit,
+                this.resolveCacheScope()
         );
     }
 
-    private void cancelRequest() {
-        if (this.requestThread != null) {
-            SwingUtilities.invokeLater(() -> {
-                // set canceled state
-                this.requestWindow.setRequestStarted(false);
-                this.loadingTimer.cancel();
-                // clean up thread
-                var thread = this.requestThread;
-                this.requestThread = null;
-                thread.stopRequest();
-                thread.interrupt();
-            });
+    /**
+     * Creates the request data of the given tree node with all variables replaced.
+     * In contrast to {@link #getRequestData()} this does not depend on the current selection.
+     */
+    public @NotNull RequestData resolveRequestData(RequestTreeNodeData nodeData) {
+        RestTesterState environment = this.state.getEnvironment();
+
+        return new RequestData(
+                this.variablesWindow.replaceVariables(nodeData.getUrl()),
+                environment.baseUrl,
+                nodeData.getType(),
+                this.resolveAuthData(nodeData.getAuthenticationDataKey()),
+                nodeData.getBody(),
+                nodeData.getBodyType(),
+                this.replaceVariables(nodeData.getParams()),
+                this.replaceVariables(nodeData.getHeaders()),
+                this.state.getValidateSSL(),
+                this.state.getAllowRedirects(),
+                this.state.getBodyMemoryLimit(),
+                this.state.getAcceptCompression(),
+                this.resolveRetryPolicy(nodeData),
+                environment.hostLimit,
+                this.resolveCacheScope()
+        );
+    }
+
+    /**
+     * Returns the retry policy of the request or the policy of the environment if the request has none.
+     */
+    private RetryPolicy resolveRetryPolicy(@Nullable RequestTreeNodeData nodeData) {
+        if (nodeData != null && nodeData.getRetryPolicy() != null) {
+            return nodeData.getRetryPolicy();
         }
+        return this.state.getEnvironment().retryPolicy;
+    }
+
+    /**
+     * Responses are cached per environment, if the environment enabled the response cache.
+     */
+    private @Nullable String resolveCacheScope() {
+        RestTesterState environment = this.state.getEnvironment();
+        return environment.useResponseCache ? String.valueOf(environment.id) : null;
+    }
+
+    public void editRetrySettings(RequestTreeNodeData nodeData) {
+        RetrySettingsDialog dialog = new RetrySettingsDialog(
+                nodeData.getName(),
+                nodeData.getRetryPolicy(),
+                this.state.getEnvironment().retryPolicy
+        );
+
+        if (dialog.showAndGet()) {
+            nodeData.setRetryPolicy(dialog.getPolicy());
+            this.requestTreeWindow.saveTree();
+        }
+    }
+
+    private List<KeyValuePair> replaceVariables(List<KeyValuePair> pairs) {
+        return pairs.stream().filter(pair -> pair.enabled).map(pair -> {
+            String key = this.variablesWindow.replaceVariables(pair.key);
+            String value = this.variablesWindow.replaceVariables(pair.value);
+            return new KeyValuePair(key, value, pair.enabled);
+        }).toList();
+    }
+
+    private AuthenticationData resolveAuthData(String key) {
+        AuthenticationNode authState = this.state.getAuthState();
+
+        for (int i = 0; i < authState.getChildCount(); i++) {
+            AuthenticationData authData = ((AuthenticationNode) authState.getChildAt(i)).getAuthData();
+
+            if (authData.getName().equals(key)) {
+                return authData.createReplacedClone(this.variablesWindow);
+            }
+        }
+        return new AuthenticationData();
+    }
+
+    public void startLoadTest(RequestTreeNodeData nodeData) {
+        LoadTestDialog dialog = new LoadTestDialog(nodeData.getName());
+
+        if (dialog.showAndGet()) {
+            RequestData data = this.resolveRequestData(nodeData);
+            new LoadTestTask(this.project, nodeData.getName(), data, dialog.getConfig()).queue();
+        }
+    }
+
+    /**
+     * Runs all requests below the given folder, independent of the current selection.
+     */
+    public void runFolder(RequestTreeNode folder) {
+        List<RequestTreeNodeData> nodes = new ArrayList<>();
+        Enumeration<TreeNode> children = folder.preorderEnumeration();
+
+        while (children.hasMoreElements()) {
+            RequestTreeNode node = (RequestTreeNode) children.nextElement();
+
+            if (!node.isFolder()) {
+                nodes.add(node.getRequestData());
+            }
+        }
+
+        String name = folder.getRequestData().getName();
+        CollectionRunConfigDialog dialog = new CollectionRunConfigDialog(name, nodes.size());
+
+        if (nodes.isEmpty() || !dialog.showAndGet()) {
+            return;
+        }
+
+        List<RequestData> requests = nodes.stream().map(this::resolveRequestData).toList();
+        new CollectionRunWindow(this.project, name, nodes, requests, dialog.getConfig()).run();
+    }
+
+    private void cancelRequest(InFlightRequest request) {
+        request.cancel();
+        this.finishRequest(request);
+    }
+
+    /**
+     * Removes the request from the running requests, called from the request thread when it finished.
+     * Runs in the same frame queue as the responses, so the final response is shown before.
+     */
+    private void finishRequest(InFlightRequest request) {
+        this.uiUpdates.post(request, "finish", () -> {
+            if (!this.inFlightRequests.remove(request)) {
+                return;
+            }
+            request.storeResponse();
+
+            if (this.selection == request.getNodeData()) {
+                this.requestWindow.setRequestStarted(false);
+                this.responseWindow.setLoadingFinished();
+            }
+
+            this.inFlightPanel.setRequests(this.inFlightRequests);
+            if (this.inFlightRequests.isEmpty()) {
+                this.loadingTimer.stop();
+            }
+        });
     }
 }
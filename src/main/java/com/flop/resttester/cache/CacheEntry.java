@@ -0,0 +1,125 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.cache;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Metadata of a cached response. The body is stored in a separate file next to the metadata.
+ *
+ * @param id              file name of the entry, derived from scope and key
+ * @param scope           environment the response belongs to
+ * @param key             request the response belongs to
+ * @param headers         response headers without the headers which set cookies
+ * @param varyHeaders     hashes of the values of the request headers named by the Vary header when the response was stored
+ * @param storedAt        time the response was stored or revalidated in milliseconds since epoch
+ * @param freshnessMillis time after storing in which the response can be used without revalidation
+ * @param size            size of the body in bytes
+ */
+public record CacheEntry(
+        String id,
+        String scope,
+        String key,
+        int status,
+        Map<String, List<String>> headers,
+        Map<String, String> varyHeaders,
+        long storedAt,
+        long freshnessMillis,
+        long size
+) {
+    public boolean isFresh(long now) {
+        return now - this.storedAt < this.freshnessMillis;
+    }
+
+    public boolean hasValidators() {
+        return this.getHeader("ETag") != null || this.getHeader("Last-Modified") != null;
+    }
+
+    /**
+     * Returns the first value of the given header, ignoring the case of the header name.
+     */
+    public @Nullable String getHeader(String name) {
+        for (var entry : this.headers.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(name) && !entry.getValue().isEmpty()) {
+                return entry.getValue().getFirst();
+            }
+        }
+        return null;
+    }
+
+    public CacheEntry withRevalidation(Map<String, List<String>> headers, long storedAt, long freshnessMillis) {
+        return new CacheEntry(this.id, this.scope, this.key, this.status, headers, this.varyHeaders, storedAt, freshnessMillis, this.size);
+    }
+
+    public JsonObject getAsJson() {
+        JsonObject jObj = new JsonObject();
+        jObj.addProperty("id", this.id);
+        jObj.addProperty("scope", this.scope);
+        jObj.addProperty("key", this.key);
+        jObj.addProperty("status", this.status);
+
+        JsonObject headers = new JsonObject();
+        for (var header : this.headers.entrySet()) {
+            JsonArray values = new JsonArray();
+            header.getValue().forEach(values::add);
+            headers.add(header.getKey(), values);
+        }
+        jObj.add("headers", headers);
+
+        JsonObject vary = new JsonObject();
+        this.varyHeaders.forEach(vary::addProperty);
+        jObj.add("vary", vary);
+
+        jObj.addProperty("storedAt", this.storedAt);
+        jObj.addProperty("freshness", this.freshnessMillis);
+        jObj.addProperty("size", this.size);
+        return jObj;
+    }
+
+    public static CacheEntry createFromJson(JsonObject jObj) {
+        if (!jObj.has("id") || !jObj.has("key") || !jObj.has("headers") || !jObj.has("size")) {
+            throw new RuntimeException("Invalid cache entry object.");
+        }
+
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (var header : jObj.getAsJsonObject("headers").entrySet()) {
+            List<String> values = new ArrayList<>();
+            for (JsonElement value : header.getValue().getAsJsonArray()) {
+                values.add(value.getAsString());
+            }
+            headers.put(header.getKey(), values);
+        }
+
+        Map<String, String> vary = new LinkedHashMap<>();
+        if (jObj.has("vary")) {
+            for (var header : jObj.getAsJsonObject("vary").entrySet()) {
+                vary.put(header.getKey(), header.getValue().getAsString());
+            }
+        }
+
+        return new CacheEntry(
+                jObj.get("id").getAsString(),
+                jObj.get("scope").getAsString(),
+                jObj.get("key").getAsString(),
+                jObj.get("status").getAsInt(),
+                headers,
+                vary,
+                jObj.get("storedAt").getAsLong(),
+                jObj.get("freshness").getAsLong(),
+                jObj.get("size").getAsLong()
+        );
+    }
+}
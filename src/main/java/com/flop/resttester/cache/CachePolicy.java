@@ -0,0 +1,157 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.cache;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.net.http.HttpHeaders;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Evaluates the caching headers of requests and responses (Cache-Control, Expires, Last-Modified, Age).
+ * The cache is private to the user, so private responses are cached as well.
+ */
+public class CachePolicy {
+    /**
+     * Upper bound of the heuristic freshness of responses which only contain Last-Modified.
+     */
+    static final long MAX_HEURISTIC_FRESHNESS = 24 * 60 * 60 * 1000;
+
+    private CachePolicy() {
+    }
+
+    /**
+     * Parses the directives of all Cache-Control headers. Directives without value are mapped to an empty string.
+     */
+    public static Map<String, String> parseCacheControl(HttpHeaders headers) {
+        Map<String, String> directives = new HashMap<>();
+
+        for (String value : headers.allValues("Cache-Control")) {
+            for (String directive : value.split(",")) {
+                String trimmed = directive.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+
+                int separator = trimmed.indexOf('=');
+                if (separator == -1) {
+                    directives.put(trimmed.toLowerCase(), "");
+                } else {
+                    String name = trimmed.substring(0, separator).trim().toLowerCase();
+                    String argument = trimmed.substring(separator + 1).trim().replace("\"", "");
+                    directives.put(name, argument);
+                }
+            }
+        }
+        return directives;
+    }
+
+    /**
+     * @return whether the request allows to use or store cached responses at all
+     */
+    public static boolean isCacheAllowed(HttpHeaders requestHeaders) {
+        return !CachePolicy.parseCacheControl(requestHeaders).containsKey("no-store");
+    }
+
+    /**
+     * @return whether the request asks to validate cached responses even if they are fresh
+     */
+    public static boolean requiresValidation(HttpHeaders requestHeaders) {
+        Map<String, String> directives = CachePolicy.parseCacheControl(requestHeaders);
+
+        if (directives.containsKey("no-cache") || "0".equals(directives.get("max-age"))) {
+            return true;
+        }
+        return requestHeaders.allValues("Pragma").stream().anyMatch(value -> value.toLowerCase().contains("no-cache"));
+    }
+
+    /**
+     * Only successful responses are stored. They need either a freshness lifetime or a validator, otherwise
+     * they could never be used again.
+     */
+    public static boolean isStorable(int status, HttpHeaders responseHeaders) {
+        if (status != 200) {
+            return false;
+        }
+
+        Map<String, String> directives = CachePolicy.parseCacheControl(responseHeaders);
+        if (directives.containsKey("no-store")) {
+            return false;
+        }
+
+        if (responseHeaders.allValues("Vary").stream().anyMatch(value -> value.contains("*"))) {
+            return false;
+        }
+
+        boolean hasValidator = responseHeaders.firstValue("ETag").isPresent() || responseHeaders.firstValue("Last-Modified").isPresent();
+        return hasValidator || CachePolicy.getFreshnessMillis(responseHeaders, System.currentTimeMillis()) > 0;
+    }
+
+    /**
+     * Returns the remaining time in which the response can be used without validation.
+     * The lifetime is taken from max-age, Expires or as heuristic 10% of the time since the last modification.
+     */
+    public static long getFreshnessMillis(HttpHeaders responseHeaders, long now) {
+        Map<String, String> directives = CachePolicy.parseCacheControl(responseHeaders);
+
+        if (directives.containsKey("no-cache")) {
+            return 0;
+        }
+
+        long lifetime;
+        Long maxAge = CachePolicy.parseSeconds(directives.get("max-age"));
+        Long expires = CachePolicy.parseDate(responseHeaders.firstValue("Expires").orElse(null));
+        Long lastModified = CachePolicy.parseDate(responseHeaders.firstValue("Last-Modified").orElse(null));
+        Long date = CachePolicy.parseDate(responseHeaders.firstValue("Date").orElse(null));
+        long responseDate = date != null ? date : now;
+
+        if (maxAge != null) {
+            lifetime = maxAge * 1000;
+        } else if (expires != null) {
+            lifetime = expires - responseDate;
+        } else if (lastModified != null) {
+            lifetime = Math.min(MAX_HEURISTIC_FRESHNESS, (responseDate - lastModified) / 10);
+        } else {
+            lifetime = 0;
+        }
+
+        Long age = CachePolicy.parseSeconds(responseHeaders.firstValue("Age").orElse(null));
+        if (age != null) {
+            lifetime -= age * 1000;
+        }
+        return Math.max(0, lifetime);
+    }
+
+    private static @Nullable Long parseSeconds(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return Math.max(0, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static @Nullable Long parseDate(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.cache;
+
+import javax.net.ssl.SSLSession;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Optional;
+
+/**
+ * Response answered from the {@link HttpResponseCache}. Only status and headers are provided,
+ * the body is read from the cache directly.
+ */
+public class CachedHttpResponse implements HttpResponse<InputStream> {
+    private final HttpRequest request;
+    private final CacheEntry entry;
+    private final HttpHeaders headers;
+
+    public CachedHttpResponse(HttpRequest request, CacheEntry entry) {
+        this.request = request;
+        this.entry = entry;
+        this.headers = HttpHeaders.of(entry.headers(), (name, value) -> true);
+    }
+
+    @Override
+    public int statusCode() {
+        return this.entry.status();
+    }
+
+    @Override
+    public HttpRequest request() {
+        return this.request;
+    }
+
+    @Override
+    public Optional<HttpResponse<InputStream>> previousResponse() {
+        return Optional.empty();
+    }
+
+    @Override
+    public HttpHeaders headers() {
+        return this.headers;
+    }
+
+    @Override
+    public InputStream body() {
+        return InputStream.nullInputStream();
+    }
+
+    @Override
+    public Optional<SSLSession> sslSession() {
+        return Optional.empty();
+    }
+
+    @Override
+    public URI uri() {
+        return this.request.uri();
+    }
+
+    @Override
+    public HttpClient.Version version() {
+        return this.request.version().orElse(HttpClient.Version.HTTP_1_1);
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.cache;
+
+import com.flop.resttester.response.ResponseBody;
+import com.flop.resttester.utils.CredentialHeaders;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Application wide cache of GET responses, stored on disk below the system directory of the IDE.
+ * Responses are cached per environment (scope) and per authorization, so responses of different users are kept apart.
+ * The cache is bounded by entry count and total body size, the least recently used entries are removed first.
+ * <p>
+ * No credentials are written to disk: request headers are only stored as hashes and response headers which set
+ * cookies are not stored.
+ */
+public class HttpResponseCache {
+    public static final int MAX_ENTRIES = 1000;
+    public static final long MAX_SIZE = 256L * 1024 * 1024;
+
+    private static final String META_SUFFIX = ".json";
+    private static final String BODY_SUFFIX = ".body";
+
+    private final Path directory;
+    private final int maxEntries;
+    private final long maxSize;
+
+    /**
+     * Entries in access order, the first entry is the least recently used one.
+     */
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size = 0;
+    private boolean loaded = false;
+
+    public HttpResponseCache() {
+        this(Path.of(PathManager.getSystemPath(), "rest-tester", "http-cache"), MAX_ENTRIES, MAX_SIZE);
+    }
+
+    public HttpResponseCache(Path directory, int maxEntries, long maxSize) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        this.maxSize = maxSize;
+    }
+
+    public static HttpResponseCache getInstance() {
+        return ApplicationManager.getApplication().getService(HttpResponseCache.class);
+    }
+
+    /**
+     * Returns the entry stored for the request, regardless if it is still fresh.
+     *
+     * @return the entry or null if nothing is cached or the request differs in a header named by Vary
+     */
+    public synchronized @Nullable CacheEntry lookup(String scope, HttpRequest request) {
+        this.load();
+
+        CacheEntry entry = this.entries.get(HttpResponseCache.getId(scope, request));
+        if (entry == null) {
+            return null;
+        }
+
+        for (var vary : entry.varyHeaders().entrySet()) {
+            if (!vary.getValue().equals(HttpResponseCache.getVaryValue(request.headers(), vary.getKey()))) {
+                return null;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Stores the response if its status and caching headers allow it. Bodies larger than an eighth of the
+     * cache size are not stored, so a single response can not flush the whole cache.
+     */
+    public synchronized void store(String scope, HttpRequest request, HttpResponse<?> response, ResponseBody body) {
+        if (!"GET".equals(request.method()) || !CachePolicy.isCacheAllowed(request.headers())) {
+            return;
+        }
+
+        if (!CachePolicy.isStorable(response.statusCode(), response.headers()) || body.size() > this.maxSize / 8) {
+            return;
+        }
+
+        this.load();
+
+        Map<String, String> vary = new LinkedHashMap<>();
+        for (String value : response.headers().allValues("Vary")) {
+            for (String name : value.split(",")) {
+                if (!name.isBlank()) {
+                    vary.put(name.trim().toLowerCase(), HttpResponseCache.getVaryValue(request.headers(), name.trim()));
+                }
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        CacheEntry entry = new CacheEntry(
+                HttpResponseCache.getId(scope, request),
+                scope,
+                HttpResponseCache.getKey(request),
+                response.statusCode(),
+                CredentialHeaders.remove(response.headers().map()),
+                vary,
+                now,
+                CachePolicy.getFreshnessMillis(response.headers(), now),
+                body.size()
+        );
+
+        try {
+            Files.createDirectories(this.directory);
+
+            Path temp = Files.createTempFile(this.directory, entry.id(), ".tmp");
+            try (InputStream in = body.openStream()) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(temp, this.getBodyPath(entry), StandardCopyOption.REPLACE_EXISTING);
+            this.writeMeta(entry);
+        } catch (IOException e) {
+            this.remove(entry.id());
+            return;
+        }
+
+        CacheEntry previous = this.entries.put(entry.id(), entry);
+        if (previous != null) {
+            this.size -= previous.size();
+        }
+        this.size += entry.size();
+        this.evict();
+    }
+
+    /**
+     * Updates the entry with the headers of a 304 Not Modified response and restarts its freshness lifetime.
+     *
+     * @return the updated entry or null if the entry was removed in the meantime
+     */
+    public synchronized @Nullable CacheEntry revalidate(CacheEntry entry, HttpResponse<?> notModified) {
+        if (!this.entries.containsKey(entry.id())) {
+            return null;
+        }
+
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(entry.headers());
+        notModified.headers().map().forEach((name, values) -> {
+            // the 304 response has no body, its length does not describe the stored one
+            if (!name.equalsIgnoreCase("Content-Length")) {
+                headers.put(name, values);
+            }
+        });
+
+        long now = System.currentTimeMillis();
+        HttpHeaders merged = HttpHeaders.of(headers, (name, value) -> true);
+        CacheEntry updated = entry.withRevalidation(CredentialHeaders.remove(headers), now, CachePolicy.getFreshnessMillis(merged, now));
+
+        try {
+            this.writeMeta(updated);
+        } catch (IOException ignore) {
+            // the entry is still valid in memory
+        }
+        this.entries.put(updated.id(), updated);
+        return updated;
+    }
+
+    /**
+     * Copies the stored body of the entry, so the caller owns a copy which is not affected by eviction.
+     */
+    public synchronized void copyBody(CacheEntry entry, OutputStream out) throws IOException {
+        Files.copy(this.getBodyPath(entry), out);
+    }
+
+    public synchronized void clear() {
+        this.load();
+
+        for (String id : new ArrayList<>(this.entries.keySet())) {
+            this.remove(id);
+        }
+    }
+
+    public synchronized int getEntryCount() {
+        this.load();
+        return this.entries.size();
+    }
+
+    public synchronized long getSize() {
+        this.load();
+        return this.size;
+    }
+
+    /**
+     * Reads the metadata of all stored entries on first use.
+     * Incomplete entries and entries of older versions which contain credentials are deleted.
+     */
+    private void load() {
+        if (this.loaded) {
+            return;
+        }
+        this.loaded = true;
+
+        if (!Files.isDirectory(this.directory)) {
+            return;
+        }
+
+        List<CacheEntry> found = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                if (!name.endsWith(META_SUFFIX)) {
+                    continue;
+                }
+
+                try {
+                    JsonObject jObj = JsonParser.parseString(Files.readString(file, StandardCharsets.UTF_8)).getAsJsonObject();
+                    CacheEntry entry = CacheEntry.createFromJson(jObj);
+
+                    if (Files.size(this.getBodyPath(entry)) == entry.size() && HttpResponseCache.isWithoutCredentials(entry)) {
+                        found.add(entry);
+                        continue;
+                    }
+                } catch (Exception ignore) {
+                }
+
+                String id = name.substring(0, name.length() - META_SUFFIX.length());
+                Files.deleteIfExists(file);
+                Files.deleteIfExists(this.directory.resolve(id + BODY_SUFFIX));
+            }
+        } catch (IOException ignore) {
+        }
+
+        // the access order is not persisted, older entries are assumed to be used less recently
+        found.sort(Comparator.comparingLong(CacheEntry::storedAt));
+        for (CacheEntry entry : found) {
+            this.entries.put(entry.id(), entry);
+            this.size += entry.size();
+        }
+        this.evict();
+    }
+
+    private void evict() {
+        Iterator<CacheEntry> iterator = this.entries.values().iterator();
+
+        while (iterator.hasNext() && (this.entries.size() > this.maxEntries || this.size > this.maxSize)) {
+            CacheEntry entry = iterator.next();
+            iterator.remove();
+            this.size -= entry.size();
+            this.deleteFiles(entry.id());
+        }
+    }
+
+    private void remove(String id) {
+        CacheEntry entry = this.entries.remove(id);
+        if (entry != null) {
+            this.size -= entry.size();
+        }
+        this.deleteFiles(id);
+    }
+
+    private void deleteFiles(String id) {
+        try {
+            Files.deleteIfExists(this.directory.resolve(id + META_SUFFIX));
+            Files.deleteIfExists(this.directory.resolve(id + BODY_SUFFIX));
+        } catch (IOException ignore) {
+        }
+    }
+
+    private void writeMeta(CacheEntry entry) throws IOException {
+        Path temp = Files.createTempFile(this.directory, entry.id(), ".tmp");
+        Files.writeString(temp, entry.getAsJson().toString(), StandardCharsets.UTF_8);
+        Files.move(temp, this.directory.resolve(entry.id() + META_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path getBodyPath(CacheEntry entry) {
+        return this.directory.resolve(entry.id() + BODY_SUFFIX);
+    }
+
+    /**
+     * The authorization is part of the key but only as hash, so no credentials are written to disk.
+     */
+    private static String getKey(HttpRequest request) {
+        String authorization = request.headers().firstValue("Authorization").orElse("");
+        return request.uri().toString() + " " + DigestUtils.sha256Hex(authorization);
+    }
+
+    private static String getId(String scope, HttpRequest request) {
+        return DigestUtils.sha256Hex(scope + "\n" + HttpResponseCache.getKey(request));
+    }
+
+    /**
+     * Entries of older versions stored the vary values and cookies in plain text.
+     */
+    private static boolean isWithoutCredentials(CacheEntry entry) {
+        return entry.varyHeaders().values().stream().allMatch(value -> value.length() == 64)
+                && entry.headers().keySet().stream().noneMatch(CredentialHeaders::isCredential);
+    }
+
+    /**
+     * Vary may name headers with credentials, e.g. Authorization or Cookie, so only the hash of their values is stored.
+     */
+    private static String getVaryValue(HttpHeaders headers, String name) {
+        return DigestUtils.sha256Hex(String.join(",", headers.allValues(name)));
+    }
+}
@@ -7,58 +7,161 @@
 
 package com.flop.resttester.components;
 
-import javax.imageio.ImageIO;
+import com.flop.resttester.request.RequestExecutor;
+import com.flop.resttester.response.ImageDecoder;
+import com.flop.resttester.response.ResponseBody;
+import com.intellij.ui.JBColor;
+import com.intellij.util.ui.UIUtil;
+import org.jetbrains.annotations.Nullable;
+
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 
+/**
+ * Shows an image response scaled to the size of the panel.
+ * The image is decoded in the background with only as many pixels as the panel shows, it is decoded again
+ * if the panel grows beyond the decoded resolution. The scaled image is cached until the size of the panel changes.
+ */
 public class ImagePanel extends JPanel {
+    /**
+     * Size used for decoding while the panel is not laid out yet.
+     */
+    private static final int DEFAULT_SIZE = 1024;
+    private static final int RESIZE_DELAY = 200;
+
+    private ResponseBody body;
+    private ImageDecoder.ImageInfo info;
 
+    /**
+     * Decoded image, possibly with fewer pixels than the original.
+     */
     private BufferedImage image;
+    private BufferedImage scaled;
+
+    /**
+     * Incremented for every decoding, results of an older decoding are dropped.
+     */
+    private long generation = 0;
+    private final Timer resizeTimer = new Timer(RESIZE_DELAY, e -> this.onResized());
+
+    public ImagePanel() {
+        this.resizeTimer.setRepeats(false);
+        this.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                ImagePanel.this.scaled = null;
+                ImagePanel.this.resizeTimer.restart();
+            }
+        });
+    }
+
+    /**
+     * @param body image body or null to clear the panel
+     * @param info format and size read from the header of the image or null if it is no supported image
+     */
+    public void setImage(@Nullable ResponseBody body, @Nullable ImageDecoder.ImageInfo info) {
+        this.body = body;
+        this.info = info;
+        this.image = null;
+        this.scaled = null;
+        this.decode();
+        this.repaint();
+    }
 
-    public void setImage(byte[] data) {
-        ByteArrayInputStream bis = new ByteArrayInputStream(data);
-        try {
-            this.image = ImageIO.read(bis);
-        } catch (IOException e) {
-            // Do nothing
+    private void decode() {
+        long generation = ++this.generation;
+        ResponseBody body = this.body;
+
+        if (body == null || this.info == null) {
+            return;
         }
+
+        int width = this.getWidth() > 0 ? this.getWidth() : DEFAULT_SIZE;
+        int height = this.getHeight() > 0 ? this.getHeight() : DEFAULT_SIZE;
+
+        RequestExecutor.getInstance().execute(() -> {
+            BufferedImage decoded = ImageDecoder.decode(body, width, height);
+
+            SwingUtilities.invokeLater(() -> {
+                if (generation == this.generation) {
+                    this.image = decoded;
+                    this.scaled = null;
+                    this.repaint();
+                }
+            });
+        });
+    }
+
+    /**
+     * Decodes the image again if it was subsampled and the panel now shows more pixels than were decoded.
+     */
+    private void onResized() {
+        if (this.image == null || this.info == null || this.image.getWidth() >= this.info.width()) {
+            return;
+        }
+
+        Dimension size = this.getDrawSize();
+        if (size.width > this.image.getWidth() || size.height > this.image.getHeight()) {
+            this.decode();
+        }
+    }
+
+    /**
+     * Returns the size of the image fitted into the panel, images are not scaled up.
+     */
+    private Dimension getDrawSize() {
+        double imgWidth = this.info.width();
+        double imgHeight = this.info.height();
+        double scale = Math.min(1, Math.min(this.getWidth() / imgWidth, this.getHeight() / imgHeight));
+
+        return new Dimension(Math.max(1, (int) (imgWidth * scale)), Math.max(1, (int) (imgHeight * scale)));
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
 
-        if (this.image != null) {
-            int width = Math.min(this.getWidth(), this.image.getWidth());
-            int height = Math.min(this.getHeight(), this.image.getHeight());
+        if (this.body == null) {
+            return;
+        }
 
-            double imgWidth = this.image.getWidth();
-            double imgHeight = this.image.getHeight();
-            double scaleX = (imgWidth - (imgWidth - width)) / imgWidth;
-            double scaleY = (imgHeight - (imgHeight - height)) / imgHeight;
+        if (this.info == null) {
+            this.paintCaption(g, "The image could not be decoded.");
+            return;
+        }
 
-            if (scaleX == 0) {
-                scaleX = 1;
-            }
+        if (this.image != null) {
+            Dimension size = this.getDrawSize();
 
-            if (scaleY == 0) {
-                scaleY = 1;
+            if (this.scaled == null || this.scaled.getWidth() != size.width || this.scaled.getHeight() != size.height) {
+                this.scaled = ImagePanel.scale(this.image, size);
             }
 
-            if (scaleX < scaleY) {
-                height = (int) (imgHeight * scaleX);
-            } else {
-                width = (int) (imgWidth * scaleY);
-            }
+            int x = (this.getWidth() - size.width) / 2;
+            int y = (this.getHeight() - size.height) / 2;
+            g.drawImage(this.scaled, x, y, this);
+        }
+
+        this.paintCaption(g, this.info.getText());
+    }
+
+    private void paintCaption(Graphics g, String text) {
+        g.setFont(UIUtil.getLabelFont(UIUtil.FontSize.SMALL));
+        g.setColor(JBColor.GRAY);
+        g.drawString(text, 6, this.getHeight() - g.getFontMetrics().getDescent() - 4);
+    }
 
-            int x = (this.getWidth() - width) / 2;
-            int y = (this.getHeight() - height) / 2;
+    private static BufferedImage scale(BufferedImage image, Dimension size) {
+        BufferedImage scaled = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaled.createGraphics();
 
-            g.drawImage(this.image, x, y, width, height, this);
-        }
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(image, 0, 0, size.width, size.height, null);
+        g.dispose();
+        return scaled;
     }
 
     @Override
@@ -69,4 +172,4 @@ public class ImagePanel extends JPanel {
     public void setCustomBackground(Color color) {
         super.setBackground(color);
     }
-}
\ No newline at end of file
+}
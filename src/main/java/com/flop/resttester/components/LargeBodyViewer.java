@@ -0,0 +1,149 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.components;
+
+import com.flop.resttester.response.FileResponseBody;
+import com.flop.resttester.response.ResponseBody;
+import com.intellij.lang.Language;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileTypes.LanguageFileType;
+import com.intellij.openapi.fileTypes.PlainTextFileType;
+import com.intellij.openapi.fileTypes.PlainTextLanguage;
+import com.intellij.openapi.project.Project;
+import com.intellij.ui.JBColor;
+import com.intellij.ui.LanguageTextField;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.UIUtil;
+import net.miginfocom.swing.MigLayout;
+import org.apache.commons.io.FileUtils;
+
+import javax.swing.*;
+
+/**
+ * Shows a window of a large response body instead of the whole body, so the editor only highlights the loaded part.
+ * The window starts at a byte offset and can be extended page by page up to {@link #MAX_LOADED} bytes.
+ * <p>
+ * Pages are cut at byte offsets, a multibyte character at the border of a page may be shown as replacement character.
+ */
+public class LargeBodyViewer extends JPanel {
+    public static final int PAGE_SIZE = 256 * 1024;
+    public static final int MAX_LOADED = 4 * 1024 * 1024;
+
+    private final CustomLanguageTextField textField;
+    private final JBTextField offsetField = new JBTextField();
+    private final JButton goButton = new JButton("Go");
+    private final JButton loadMoreButton = new JButton("Load More");
+    private final JBLabel rangeLabel = new JBLabel("", UIUtil.ComponentStyle.SMALL, UIUtil.FontColor.BRIGHTER);
+
+    private Project project;
+    private ResponseBody body = ResponseBody.EMPTY;
+    private Language language = PlainTextLanguage.INSTANCE;
+
+    /**
+     * Loaded range of the body in bytes, the end is exclusive.
+     */
+    private long start = 0;
+    private long end = 0;
+
+    public LargeBodyViewer() {
+        super(new MigLayout("ins 0, fill", "[]8[]4[]12[]push[]", "[]4[grow]"));
+
+        this.textField = new CustomLanguageTextField(PlainTextLanguage.INSTANCE, null, "");
+        this.textField.setCustomBackground(JBColor.border());
+        this.textField.setOneLineMode(false);
+        this.textField.setViewer(true);
+        this.textField.setBorder(BorderFactory.createEmptyBorder());
+
+        this.offsetField.setToolTipText("Byte offset to show, decimal or hexadecimal with 0x");
+        this.goButton.addActionListener(e -> this.jumpToOffset());
+        this.offsetField.addActionListener(e -> this.jumpToOffset());
+        this.loadMoreButton.addActionListener(e -> this.loadMore());
+
+        this.add(new JLabel("Offset:"));
+        this.add(this.offsetField, "w 120!");
+        this.add(this.goButton);
+        this.add(this.loadMoreButton);
+        this.add(this.rangeLabel, "wrap");
+        this.add(this.textField, "span, grow");
+    }
+
+    public void setProject(Project project) {
+        this.project = project;
+    }
+
+    /**
+     * Shows the first page of the body, highlighted with the given language.
+     */
+    public void setBody(ResponseBody body, Language language) {
+        this.body = body;
+        this.language = language;
+        this.showFrom(0);
+    }
+
+    private void jumpToOffset() {
+        long offset;
+        try {
+            offset = Long.decode(this.offsetField.getText().trim());
+        } catch (NumberFormatException e) {
+            this.rangeLabel.setText(" Invalid offset");
+            return;
+        }
+        this.showFrom(Math.max(0, Math.min(offset, this.body.size())));
+    }
+
+    private void showFrom(long offset) {
+        this.start = offset;
+        this.end = Math.min(this.body.size(), offset + PAGE_SIZE);
+
+        String text = this.body.getText(this.start, (int) (this.end - this.start));
+        LanguageTextField.SimpleDocumentCreator creator = new LanguageTextField.SimpleDocumentCreator();
+        Document document = LanguageTextField.createDocument(text, this.language, this.project, creator);
+
+        this.textField.setDocument(document);
+        this.textField.setFileType(this.language.getAssociatedFileType() instanceof LanguageFileType fileType
+                ? fileType
+                : PlainTextFileType.INSTANCE);
+        this.offsetField.setText(String.valueOf(this.start));
+        this.updateRange();
+    }
+
+    /**
+     * Appends the next page to the loaded window.
+     */
+    private void loadMore() {
+        if (this.end >= this.body.size() || this.end - this.start >= MAX_LOADED) {
+            return;
+        }
+
+        long next = Math.min(this.body.size(), this.end + PAGE_SIZE);
+        String text = this.body.getText(this.end, (int) (next - this.end));
+        this.end = next;
+
+        Document document = this.textField.getDocument();
+        ApplicationManager.getApplication().runWriteAction(
+                () -> document.insertString(document.getTextLength(), text)
+        );
+        this.updateRange();
+    }
+
+    private void updateRange() {
+        String range = " Showing " + FileUtils.byteCountToDisplaySize(this.start) + " - "
+                + FileUtils.byteCountToDisplaySize(this.end) + " of " + FileUtils.byteCountToDisplaySize(this.body.size());
+
+        if (this.body instanceof FileResponseBody fileBody) {
+            this.rangeLabel.setToolTipText("The full response body is stored in " + fileBody.path());
+        } else {
+            this.rangeLabel.setToolTipText(null);
+        }
+
+        this.rangeLabel.setText(range);
+        this.loadMoreButton.setEnabled(this.end < this.body.size() && this.end - this.start < MAX_LOADED);
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.components;
+
+import com.flop.resttester.response.JsonFormatter;
+import com.flop.resttester.response.ResponseBody;
+import com.flop.resttester.response.SseEvent;
+import com.flop.resttester.response.SseEventBuffer;
+import com.intellij.ui.ColoredListCellRenderer;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.UIUtil;
+import net.miginfocom.swing.MigLayout;
+import org.apache.commons.io.FileUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Shows the events of an event stream as a list with a detail pane for the selected event.
+ * Only the last events are retained, so a stream which runs for hours keeps a constant memory.
+ * The list only renders the visible rows, events are not copied for the list model.
+ */
+public class SseEventPanel extends JPanel {
+    private static final String ALL_TYPES = "All types";
+    private static final int PREVIEW_LENGTH = 200;
+    private static final int DETAIL_LIMIT = 1024 * 1024;
+
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+    private final EventListModel model = new EventListModel();
+    private final JBList<SseEvent> list = new JBList<>(this.model);
+    private final JComboBox<String> typeBox = new JComboBox<>();
+    private final JBLabel statsLabel = new JBLabel("", UIUtil.ComponentStyle.SMALL, UIUtil.FontColor.BRIGHTER);
+    private final JTextArea detailArea = new JTextArea();
+
+    // the rates are measured once per second while the stream is running
+    private final Timer rateTimer = new Timer(1000, (e) -> this.updateRates());
+    private long rateEvents = 0;
+    private long rateBytes = 0;
+    private long rateTime = 0;
+    private String rateText = "";
+    private int reconnects = 0;
+    private long gapMillis = 0;
+
+    private boolean updatingTypes = false;
+
+    public SseEventPanel() {
+        super(new MigLayout("ins 0, fill", "[]4[]12[]push", "[]4[grow]"));
+
+        this.typeBox.addItem(ALL_TYPES);
+        this.typeBox.addActionListener((e) -> {
+            if (!this.updatingTypes) {
+                String type = (String) this.typeBox.getSelectedItem();
+                this.model.setFilter(ALL_TYPES.equals(type) ? null : type);
+            }
+        });
+
+        this.list.setFixedCellHeight(JBUI.scale(22));
+        this.list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        this.list.setCellRenderer(new ColoredListCellRenderer<>() {
+            @Override
+            protected void customizeCellRenderer(@NotNull JList<? extends SseEvent> list, SseEvent value, int index, boolean selected, boolean hasFocus) {
+                this.append(SseEventPanel.this.formatTime(value) + "  ", SimpleTextAttributes.GRAYED_ATTRIBUTES);
+                this.append(value.type(), SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES);
+
+                if (value.id() != null) {
+                    this.append("  #" + value.id(), SimpleTextAttributes.GRAYED_ATTRIBUTES);
+                }
+                this.append("  " + FileUtils.byteCountToDisplaySize(value.size()) + "  ", SimpleTextAttributes.GRAYED_ATTRIBUTES);
+                this.append(SseEventPanel.getPreview(value.data()));
+            }
+        });
+        this.list.addListSelectionListener((e) -> {
+            if (!e.getValueIsAdjusting()) {
+                this.showDetail(this.list.getSelectedValue());
+            }
+        });
+
+        this.detailArea.setEditable(false);
+        this.detailArea.setFont(JBUI.Fonts.create(Font.MONOSPACED, UIUtil.getLabelFont().getSize()));
+        this.detailArea.setBorder(JBUI.Borders.empty(4));
+
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JBScrollPane(this.list), new JBScrollPane(this.detailArea));
+        splitPane.setResizeWeight(0.7);
+        splitPane.setBorder(BorderFactory.createEmptyBorder());
+
+        this.add(new JLabel("Type:"));
+        this.add(this.typeBox);
+        this.add(this.statsLabel, "wrap");
+        this.add(splitPane, "span, grow");
+    }
+
+    /**
+     * Replaces the shown events, e.g. with the events of a response from the history.
+     *
+     * @param capacity number of events which are retained
+     */
+    public void setEvents(List<SseEvent> events, int capacity) {
+        this.model.setBuffer(new SseEventBuffer(capacity));
+        this.rateText = "";
+        this.reconnects = 0;
+        this.gapMillis = 0;
+        this.detailArea.setText("");
+        this.updateTypes();
+        this.addEvents(events);
+    }
+
+    /**
+     * Appends events of the running stream, the list follows the newest event while it is scrolled to the end.
+     */
+    public void addEvents(List<SseEvent> events) {
+        if (events.isEmpty()) {
+            this.updateStats();
+            return;
+        }
+
+        int last = this.model.getSize() - 1;
+        boolean follow = last < 0 || this.list.getLastVisibleIndex() >= last;
+
+        int typeCount = this.model.getBuffer().getTypes().size();
+        this.model.addEvents(events);
+
+        if (typeCount != this.model.getBuffer().getTypes().size()) {
+            this.updateTypes();
+        }
+        if (follow && this.model.getSize() > 0) {
+            this.list.ensureIndexIsVisible(this.model.getSize() - 1);
+        }
+        this.updateStats();
+    }
+
+    /**
+     * @param reconnects number of times the stream was reconnected
+     * @param gapMillis  total time in which the stream was not connected
+     */
+    public void setConnectionStats(int reconnects, long gapMillis) {
+        this.reconnects = reconnects;
+        this.gapMillis = gapMillis;
+    }
+
+    /**
+     * Starts or stops measuring the events and bytes per second.
+     */
+    public void setLive(boolean live) {
+        if (live == this.rateTimer.isRunning()) {
+            return;
+        }
+
+        if (live) {
+            this.rateEvents = this.model.getBuffer().getTotalEvents();
+            this.rateBytes = this.model.getBuffer().getTotalBytes();
+            this.rateTime = System.nanoTime();
+            this.rateTimer.start();
+        } else {
+            this.rateTimer.stop();
+            this.rateText = "";
+        }
+        this.updateStats();
+    }
+
+    private void updateRates() {
+        SseEventBuffer buffer = this.model.getBuffer();
+        long now = System.nanoTime();
+        double seconds = (now - this.rateTime) / 1_000_000_000.0;
+
+        if (seconds <= 0) {
+            return;
+        }
+
+        double events = (buffer.getTotalEvents() - this.rateEvents) / seconds;
+        double bytes = (buffer.getTotalBytes() - this.rateBytes) / seconds;
+
+        this.rateEvents = buffer.getTotalEvents();
+        this.rateBytes = buffer.getTotalBytes();
+        this.rateTime = now;
+        this.rateText = String.format(", %.1f events/s, %s/s", events, FileUtils.byteCountToDisplaySize((long) bytes));
+        this.updateStats();
+    }
+
+    private void updateStats() {
+        SseEventBuffer buffer = this.model.getBuffer();
+        String text = " " + buffer.getTotalEvents() + " events, " + FileUtils.byteCountToDisplaySize(buffer.getTotalBytes());
+
+        long dropped = buffer.getTotalEvents() - buffer.size();
+        if (dropped > 0) {
+            text += " (" + dropped + " oldest dropped)";
+        }
+        if (this.reconnects > 0) {
+            text += ", " + this.reconnects + (this.reconnects == 1 ? " reconnect" : " reconnects")
+                    + String.format(" (%.1f s disconnected)", this.gapMillis / 1000.0);
+        }
+        this.statsLabel.setText(text + this.rateText);
+    }
+
+    private void updateTypes() {
+        Object selected = this.typeBox.getSelectedItem();
+
+        this.updatingTypes = true;
+        this.typeBox.removeAllItems();
+        this.typeBox.addItem(ALL_TYPES);
+        for (String type : this.model.getBuffer().getTypes()) {
+            this.typeBox.addItem(type);
+        }
+        this.typeBox.setSelectedItem(selected);
+        this.updatingTypes = false;
+
+        if (this.typeBox.getSelectedItem() == null || !this.typeBox.getSelectedItem().equals(selected)) {
+            this.typeBox.setSelectedItem(ALL_TYPES);
+            this.model.setFilter(null);
+        }
+    }
+
+    private void showDetail(@Nullable SseEvent event) {
+        if (event == null) {
+            this.detailArea.setText("");
+            return;
+        }
+
+        StringBuilder text = new StringBuilder();
+        text.append("event: ").append(event.type()).append('\n');
+        if (event.id() != null) {
+            text.append("id: ").append(event.id()).append('\n');
+        }
+        if (event.receivedAt() != 0) {
+            text.append("received: ").append(this.formatTime(event)).append('\n');
+        }
+
+        // json data is pretty printed, any other data is shown as is
+        JsonFormatter.Result result = JsonFormatter.format(ResponseBody.of(event.data().getBytes(StandardCharsets.UTF_8)), DETAIL_LIMIT);
+        text.append('\n').append(result.text());
+
+        this.detailArea.setText(text.toString());
+        this.detailArea.setCaretPosition(0);
+    }
+
+    private String formatTime(SseEvent event) {
+        return event.receivedAt() == 0 ? "-" : this.timeFormat.format(new Date(event.receivedAt()));
+    }
+
+    private static String getPreview(String data) {
+        String preview = data.length() > PREVIEW_LENGTH ? data.substring(0, PREVIEW_LENGTH) + "..." : data;
+        return preview.replace('\n', ' ');
+    }
+
+    /**
+     * List model on top of the event buffer. Without a filter, rows are mapped directly to the retained events,
+     * with a filter only the stream indices of the matching events are kept.
+     */
+    private static class EventListModel extends AbstractListModel<SseEvent> {
+        private SseEventBuffer buffer = new SseEventBuffer(1);
+        private String filter = null;
+
+        // stream indices of the matching events, the valid entries are between start and end
+        private long[] matches = new long[16];
+        private int matchStart = 0;
+        private int matchEnd = 0;
+
+        SseEventBuffer getBuffer() {
+            return this.buffer;
+        }
+
+        void setBuffer(SseEventBuffer buffer) {
+            int size = this.getSize();
+            this.buffer = buffer;
+            this.matchStart = 0;
+            this.matchEnd = 0;
+
+            if (size > 0) {
+                this.fireIntervalRemoved(this, 0, size - 1);
+            }
+        }
+
+        void setFilter(@Nullable String filter) {
+            int size = this.getSize();
+            this.filter = filter;
+            this.matchStart = 0;
+            this.matchEnd = 0;
+
+            if (filter != null) {
+                for (long i = this.buffer.getFirstIndex(); i < this.buffer.getTotalEvents(); i++) {
+                    if (filter.equals(this.buffer.get(i).type())) {
+                        this.addMatch(i);
+                    }
+                }
+            }
+
+            if (size > 0) {
+                this.fireIntervalRemoved(this, 0, size - 1);
+            }
+            if (this.getSize() > 0) {
+                this.fireIntervalAdded(this, 0, this.getSize() - 1);
+            }
+        }
+
+        void addEvents(List<SseEvent> events) {
+            int oldSize = this.getSize();
+            long oldFirst = this.buffer.getFirstIndex();
+
+            for (SseEvent event : events) {
+                if (this.filter != null && this.filter.equals(event.type())) {
+                    this.addMatch(this.buffer.getTotalEvents());
+                }
+                this.buffer.add(event);
+            }
+
+            // rows of dropped events are removed at the top
+            int removed;
+            if (this.filter == null) {
+                removed = (int) Math.min(oldSize, this.buffer.getFirstIndex() - oldFirst);
+            } else {
+                removed = 0;
+                while (this.matchStart < this.matchEnd && this.matches[this.matchStart] < this.buffer.getFirstIndex()) {
+                    this.matchStart++;
+                    removed++;
+                }
+                removed = Math.min(oldSize, removed);
+            }
+
+            if (removed > 0) {
+                this.fireIntervalRemoved(this, 0, removed - 1);
+            }
+
+            int kept = oldSize - removed;
+            if (this.getSize() > kept) {
+                this.fireIntervalAdded(this, kept, this.getSize() - 1);
+            }
+        }
+
+        private void addMatch(long index) {
+            if (this.matchEnd == this.matches.length) {
+                int size = this.matchEnd - this.matchStart;
+
+                // the space of dropped matches is reused before the array grows
+                long[] target = size * 2 > this.matches.length ? new long[this.matches.length * 2] : this.matches;
+                System.arraycopy(this.matches, this.matchStart, target, 0, size);
+                this.matches = target;
+                this.matchStart = 0;
+                this.matchEnd = size;
+            }
+            this.matches[this.matchEnd++] = index;
+        }
+
+        @Override
+        public int getSize() {
+            return this.filter == null ? this.buffer.size() : this.matchEnd - this.matchStart;
+        }
+
+        @Override
+        public SseEvent getElementAt(int index) {
+            if (this.filter == null) {
+                return this.buffer.get(this.buffer.getFirstIndex() + index);
+            }
+            return this.buffer.get(this.matches[this.matchStart + index]);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.components;
+
+import com.flop.resttester.response.ResponseTiming;
+import com.intellij.ui.JBColor;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.UIUtil;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Shows the phases of a request as horizontal bars, each one starting where the previous phase ended.
+ * The queue wait is shown in front of the request, the total bar only covers the request itself.
+ */
+public class TimingWaterfallPanel extends JPanel {
+    private static final String[] LABELS = {"Queue wait", "Name resolution", "Connect & wait (TTFB)", "Download", "Total"};
+    private static final Color[] COLORS = {
+            new JBColor(new Color(0x888A85), new Color(0x6B6F73)),
+            new JBColor(new Color(0x4E9A06), new Color(0x73C936)),
+            new JBColor(new Color(0xC4A000), new Color(0xE5C07B)),
+            new JBColor(new Color(0x3465A4), new Color(0x61AFEF)),
+            JBColor.GRAY
+    };
+
+    private ResponseTiming timing = ResponseTiming.EMPTY;
+
+    public void setTiming(ResponseTiming timing) {
+        this.timing = timing;
+        this.repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+
+        if (this.timing.totalNanos() <= 0) {
+            return;
+        }
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setFont(UIUtil.getLabelFont());
+        FontMetrics metrics = g2.getFontMetrics();
+
+        long[] durations = {
+                this.timing.queueNanos(),
+                this.timing.resolveNanos(),
+                this.timing.firstByteNanos(),
+                this.timing.downloadNanos(),
+                this.timing.totalNanos()
+        };
+
+        int padding = JBUI.scale(10);
+        int rowHeight = metrics.getHeight() + JBUI.scale(8);
+        int labelWidth = metrics.stringWidth(this.getLabel(2)) + padding;
+        int valueWidth = metrics.stringWidth("00000.0 ms") + padding;
+        int barWidth = Math.max(1, this.getWidth() - labelWidth - valueWidth - 2 * padding);
+        double scale = barWidth / (double) (this.timing.queueNanos() + this.timing.totalNanos());
+
+        long offset = 0;
+        for (int i = 0; i < durations.length; i++) {
+            int y = padding + i * rowHeight;
+            int textY = y + (rowHeight + metrics.getAscent() - metrics.getDescent()) / 2;
+
+            g2.setColor(JBColor.foreground());
+            g2.drawString(this.getLabel(i), padding, textY);
+
+            // the total bar starts after the queue wait
+            long start = i == durations.length - 1 ? this.timing.queueNanos() : offset;
+            int x = padding + labelWidth + (int) (start * scale);
+            int width = Math.max(1, (int) (durations[i] * scale));
+
+            g2.setColor(COLORS[i]);
+            g2.fillRect(x, y + JBUI.scale(4), width, rowHeight - JBUI.scale(8));
+
+            g2.setColor(JBColor.foreground());
+            g2.drawString(ResponseTiming.formatMillis(durations[i]), padding + labelWidth + barWidth + padding, textY);
+
+            offset += durations[i];
+        }
+        g2.dispose();
+    }
+
+    private String getLabel(int index) {
+        if (index == 2 && this.timing.connectionReused()) {
+            return "Wait (TTFB), connection reused";
+        }
+        return LABELS[index];
+    }
+}
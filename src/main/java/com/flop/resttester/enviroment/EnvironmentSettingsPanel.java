@@ -10,6 +10,8 @@ package com.flop.resttester.enviroment;
 import com.flop.resttester.auth.AuthenticationData;
 import com.flop.resttester.auth.AuthenticationNode;
 import com.flop.resttester.components.CustomTextField;
+import com.flop.resttester.request.HostLimitPanel;
+import com.flop.resttester.request.RetryPolicyPanel;
 import com.flop.resttester.state.RestTesterState;
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.ui.ComboBox;
@@ -34,6 +36,9 @@ public class EnvironmentSettingsPanel extends JPanel {
     private RestTesterState restTesterState;
 
     private ComboBox<AuthenticationData> authComboBox;
+    private RetryPolicyPanel retryPolicyPanel;
+    private HostLimitPanel hostLimitPanel;
+    private JCheckBox responseCacheBox;
 
     public EnvironmentSettingsPanel(Disposable parentDisposable, EnvironmentChangeListener changeListener) {
         this.changeListener = changeListener;
@@ -41,7 +46,7 @@ public class EnvironmentSettingsPanel extends JPanel {
     }
 
     private void setupUI(Disposable parentDisposable) {
-        this.setLayout(new MigLayout("ins 16", "[]12[]", "[]12[]4[]20[]20[]8[]4[]"));
+        this.setLayout(new MigLayout("ins 16", "[]12[]", "[]12[]4[]20[]20[]8[]4[]12[]4[]12[]4[]12[]4[]"));
         this.removeAll();
 
         var nameLabel = new JLabel("Name:");
@@ -107,6 +112,48 @@ public class EnvironmentSettingsPanel extends JPanel {
 
         var authInfo = new JBLabel(" Default authentication when creating new requests.", UIUtil.ComponentStyle.SMALL, UIUtil.FontColor.BRIGHTER);
         this.add(authInfo, "cell 1 6");
+
+        var retryLabel = new JLabel("Retries:");
+        this.add(retryLabel, "cell 0 7, aligny top");
+
+        this.retryPolicyPanel = new RetryPolicyPanel();
+        this.retryPolicyPanel.addChangeListener((e) -> {
+            if (this.restTesterState != null) {
+                this.restTesterState.retryPolicy = this.retryPolicyPanel.getPolicy();
+            }
+        });
+        this.add(this.retryPolicyPanel, "cell 1 7");
+
+        var retryInfo = new JBLabel(" Used by requests without own retry settings.", UIUtil.ComponentStyle.SMALL, UIUtil.FontColor.BRIGHTER);
+        this.add(retryInfo, "cell 1 8");
+
+        var limitLabel = new JLabel("Host limits:");
+        this.add(limitLabel, "cell 0 9, aligny top");
+
+        this.hostLimitPanel = new HostLimitPanel();
+        this.hostLimitPanel.addChangeListener((e) -> {
+            if (this.restTesterState != null) {
+                this.restTesterState.hostLimit = this.hostLimitPanel.getLimit();
+            }
+        });
+        this.add(this.hostLimitPanel, "cell 1 9");
+
+        var limitInfo = new JBLabel(" Applies per host to all requests, collection runs and load tests.", UIUtil.ComponentStyle.SMALL, UIUtil.FontColor.BRIGHTER);
+        this.add(limitInfo, "cell 1 10");
+
+        var cacheLabel = new JLabel("Response cache:");
+        this.add(cacheLabel, "cell 0 11");
+
+        this.responseCacheBox = new JCheckBox("Cache GET responses");
+        this.responseCacheBox.addActionListener((e) -> {
+            if (this.restTesterState != null) {
+                this.restTesterState.useResponseCache = this.responseCacheBox.isSelected();
+            }
+        });
+        this.add(this.responseCacheBox, "cell 1 11");
+
+        var cacheInfo = new JBLabel(" Reuses responses as allowed by Cache-Control, ETag and Last-Modified.", UIUtil.ComponentStyle.SMALL, UIUtil.FontColor.BRIGHTER);
+        this.add(cacheInfo, "cell 1 12");
     }
 
     public void updateAuthBox(AuthenticationNode node, String defaultKey) {
@@ -133,6 +180,9 @@ public class EnvironmentSettingsPanel extends JPanel {
         this.name.setText(state.name);
         this.url.setText(state.baseUrl);
         this.updateAuthBox(state.authState, state.defaultAuthKey);
+        this.retryPolicyPanel.setPolicy(state.retryPolicy);
+        this.hostLimitPanel.setLimit(state.hostLimit);
+        this.responseCacheBox.setSelected(state.useResponseCache);
     }
 
     public boolean inputValid() {
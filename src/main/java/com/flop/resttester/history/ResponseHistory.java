@@ -0,0 +1,142 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.history;
+
+import com.flop.resttester.response.ResponseDisplayModel;
+import com.flop.resttester.response.ResponseRecord;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Responses of the last runs of a single request, the newest run first.
+ * The history holds at most {@link #MAX_RUNS} records, older runs are dropped. Additionally, records can be evicted
+ * by the {@link ResponseHistoryBudget} if the histories of all requests use too much memory.
+ * <p>
+ * The formatted display model of a record is cached with it, so a response is only formatted again
+ * when a new response of the same run replaces it.
+ */
+public class ResponseHistory {
+    public static final int MAX_RUNS = 10;
+
+    private final ResponseHistoryBudget budget;
+    private final int capacity;
+    private final ArrayDeque<ResponseRecord> records = new ArrayDeque<>();
+    private final Map<ResponseRecord, ResponseDisplayModel> displayModels = new HashMap<>();
+
+    public ResponseHistory(ResponseHistoryBudget budget) {
+        this(budget, MAX_RUNS);
+    }
+
+    public ResponseHistory(ResponseHistoryBudget budget, int capacity) {
+        this.budget = budget;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds the response of a run. A record of the same run (e.g. the headers of a stream) is replaced.
+     */
+    public void add(ResponseRecord record) {
+        synchronized (this.budget) {
+            ResponseRecord latest = this.records.peekFirst();
+
+            if (latest != null && latest.startedAt() == record.startedAt()) {
+                this.records.removeFirst();
+                this.displayModels.remove(latest);
+                this.budget.replace(latest, record, this);
+            } else {
+                this.budget.add(record, this);
+            }
+            this.records.addFirst(record);
+
+            while (this.records.size() > this.capacity) {
+                ResponseRecord removed = this.records.removeLast();
+                this.displayModels.remove(removed);
+                this.budget.remove(removed);
+            }
+            this.budget.evict();
+        }
+    }
+
+    /**
+     * @return the response of the last run or null if there is none
+     */
+    public @Nullable ResponseRecord getLatest() {
+        synchronized (this.budget) {
+            return this.records.peekFirst();
+        }
+    }
+
+    /**
+     * @return the recorded responses, the newest first
+     */
+    public List<ResponseRecord> getRecords() {
+        synchronized (this.budget) {
+            return new ArrayList<>(this.records);
+        }
+    }
+
+    /**
+     * @return the cached display model of the record or null if it was not formatted yet
+     */
+    public @Nullable ResponseDisplayModel getDisplayModel(ResponseRecord record) {
+        synchronized (this.budget) {
+            return this.displayModels.get(record);
+        }
+    }
+
+    /**
+     * Caches the display model of a record of this history, records which are not part of the history are ignored.
+     */
+    public void setDisplayModel(ResponseRecord record, ResponseDisplayModel model) {
+        synchronized (this.budget) {
+            if (!this.records.contains(record) || this.displayModels.containsKey(record)) {
+                return;
+            }
+
+            this.displayModels.put(record, model);
+            this.budget.addModelSize(record, model.getMemorySize());
+            this.budget.evict();
+        }
+    }
+
+    /**
+     * Marks the record as recently used, e.g. because it is displayed, so it is evicted last.
+     */
+    public void touch(ResponseRecord record) {
+        this.budget.touch(record);
+    }
+
+    public void clear() {
+        synchronized (this.budget) {
+            for (ResponseRecord record : this.records) {
+                this.budget.remove(record);
+            }
+            this.records.clear();
+            this.displayModels.clear();
+        }
+    }
+
+    public boolean isEmpty() {
+        synchronized (this.budget) {
+            return this.records.isEmpty();
+        }
+    }
+
+    /**
+     * Removes a record which was evicted by the budget.
+     */
+    void evicted(ResponseRecord record) {
+        this.records.remove(record);
+        this.displayModels.remove(record);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.history;
+
+import com.flop.resttester.response.FileResponseBody;
+import com.flop.resttester.response.ResponseRecord;
+import com.intellij.openapi.application.ApplicationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Application wide memory budget of the response histories of all requests.
+ * If the recorded responses use more memory than allowed, the least recently used records are evicted,
+ * regardless of the request they belong to. The most recently used record is never evicted.
+ */
+public class ResponseHistoryBudget {
+    public static final long MAX_MEMORY = 64L * 1024 * 1024;
+
+    private final long maxMemory;
+
+    /**
+     * Records in access order with the history they belong to, the first record is the least recently used one.
+     */
+    private final LinkedHashMap<ResponseRecord, Entry> records = new LinkedHashMap<>(16, 0.75f, true);
+    private long memorySize = 0;
+
+    private static class Entry {
+        private final ResponseHistory history;
+        // memory of the record and its cached display model
+        private long size;
+
+        Entry(ResponseHistory history, long size) {
+            this.history = history;
+            this.size = size;
+        }
+    }
+
+    public ResponseHistoryBudget() {
+        this(MAX_MEMORY);
+    }
+
+    public ResponseHistoryBudget(long maxMemory) {
+        this.maxMemory = maxMemory;
+    }
+
+    public static ResponseHistoryBudget getInstance() {
+        return ApplicationManager.getApplication().getService(ResponseHistoryBudget.class);
+    }
+
+    public synchronized long getMemorySize() {
+        return this.memorySize;
+    }
+
+    public synchronized int getRecordCount() {
+        return this.records.size();
+    }
+
+    synchronized void touch(ResponseRecord record) {
+        this.records.get(record);
+    }
+
+    synchronized void add(ResponseRecord record, ResponseHistory history) {
+        long size = record.getMemorySize();
+        this.records.put(record, new Entry(history, size));
+        this.memorySize += size;
+    }
+
+    /**
+     * Adds the memory of the cached display model of a record, which is released together with the record.
+     */
+    synchronized void addModelSize(ResponseRecord record, long size) {
+        Entry entry = this.records.get(record);
+
+        if (entry != null) {
+            entry.size += size;
+            this.memorySize += size;
+        }
+    }
+
+    /**
+     * Replaces a record by a newer one of the same run. Both can share the body, so no file is deleted.
+     */
+    synchronized void replace(ResponseRecord previous, ResponseRecord record, ResponseHistory history) {
+        Entry entry = this.records.remove(previous);
+        if (entry != null) {
+            this.memorySize -= entry.size;
+        }
+        this.add(record, history);
+    }
+
+    synchronized void remove(ResponseRecord record) {
+        Entry entry = this.records.remove(record);
+        if (entry != null) {
+            this.memorySize -= entry.size;
+        }
+        ResponseHistoryBudget.release(record);
+    }
+
+    synchronized void evict() {
+        Iterator<Map.Entry<ResponseRecord, Entry>> iterator = this.records.entrySet().iterator();
+
+        while (iterator.hasNext() && this.memorySize > this.maxMemory && this.records.size() > 1) {
+            Map.Entry<ResponseRecord, Entry> entry = iterator.next();
+            iterator.remove();
+
+            this.memorySize -= entry.getValue().size;
+            entry.getValue().history.evicted(entry.getKey());
+            ResponseHistoryBudget.release(entry.getKey());
+        }
+    }
+
+    /**
+     * Deletes the temporary file of a large body, which is not reachable anymore.
+     */
+    private static void release(ResponseRecord record) {
+        if (record.content() instanceof FileResponseBody fileBody) {
+            try {
+                Files.deleteIfExists(fileBody.path());
+            } catch (IOException ignore) {
+                // the file is deleted on exit
+            }
+        }
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.history;
+
+import com.flop.resttester.response.ResponseBody;
+import com.flop.resttester.response.ResponseRecord;
+import com.flop.resttester.utils.CredentialHeaders;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.project.Project;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Response history of the requests of an environment, stored on disk so it survives restarts of the IDE.
+ * <p>
+ * Records are compressed and appended to a log file, an append only index maps each request to the position of its
+ * records in the log. Only the index is read on first use, records are decompressed when they are requested.
+ * The log is compacted on first use if most of it belongs to records which were dropped from the index.
+ * Values of headers with credentials are replaced before they are stored, so no credentials are written to disk.
+ */
+public class ResponseHistoryStore {
+    /**
+     * Bodies are stored up to this size, larger bodies are truncated.
+     */
+    public static final int MAX_BODY_SIZE = 1024 * 1024;
+    public static final String REDACTED = "<redacted>";
+
+    private static final String LOG_FILE = "responses.log";
+    private static final String INDEX_FILE = "responses.index";
+    private static final long COMPACT_MIN_SIZE = 4L * 1024 * 1024;
+
+    private record Position(long startedAt, long offset, int length) {
+    }
+
+    /**
+     * Open stores by directory. There is only one store per directory, so appends of running requests and the
+     * compaction of a newly selected environment synchronize on the same store.
+     */
+    private static final Map<Path, ResponseHistoryStore> STORES = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final int maxRuns;
+
+    /**
+     * Positions of the stored records by the hash of the request key, the oldest record first.
+     */
+    private final Map<String, List<Position>> index = new HashMap<>();
+    private boolean loaded = false;
+
+    public ResponseHistoryStore(Path directory) {
+        this(directory, ResponseHistory.MAX_RUNS);
+    }
+
+    public ResponseHistoryStore(Path directory, int maxRuns) {
+        this.directory = directory;
+        this.maxRuns = maxRuns;
+    }
+
+    /**
+     * Returns the store of the environment of the project, the store is created on first use.
+     */
+    public static ResponseHistoryStore getInstance(Project project, Integer environmentId) {
+        return STORES.computeIfAbsent(Path.of(
+                PathManager.getSystemPath(),
+                "rest-tester",
+                "history",
+                project.getLocationHash(),
+                String.valueOf(environmentId)
+        ), ResponseHistoryStore::new);
+    }
+
+    /**
+     * Appends the final response of a run of the request with the given key.
+     */
+    public synchronized void append(String requestKey, ResponseRecord record) {
+        this.load();
+
+        try {
+            Files.createDirectories(this.directory);
+            byte[] entry = ResponseHistoryStore.compress(record);
+
+            long offset;
+            try (FileChannel log = FileChannel.open(this.getLogPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                offset = log.size();
+                log.write(ByteBuffer.wrap(entry));
+            }
+
+            String hash = DigestUtils.sha256Hex(requestKey);
+            Position position = new Position(record.startedAt(), offset, entry.length);
+            Files.writeString(
+                    this.getIndexPath(),
+                    ResponseHistoryStore.getIndexLine(hash, position),
+                    StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND
+            );
+            this.addPosition(hash, position);
+        } catch (IOException ignore) {
+            // the response is still available in memory
+        }
+    }
+
+    /**
+     * Reads the last stored response of the request with the given key.
+     *
+     * @return the response or null if none is stored
+     */
+    public synchronized @Nullable ResponseRecord getLatest(String requestKey) {
+        this.load();
+
+        List<Position> positions = this.index.get(DigestUtils.sha256Hex(requestKey));
+        if (positions == null || positions.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return this.read(positions.getLast());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return number of stored responses of the request with the given key
+     */
+    public synchronized int getRunCount(String requestKey) {
+        this.load();
+
+        List<Position> positions = this.index.get(DigestUtils.sha256Hex(requestKey));
+        return positions == null ? 0 : positions.size();
+    }
+
+    public synchronized void clear() {
+        this.index.clear();
+        this.loaded = true;
+
+        try {
+            Files.deleteIfExists(this.getLogPath());
+            Files.deleteIfExists(this.getIndexPath());
+        } catch (IOException ignore) {
+        }
+    }
+
+    /**
+     * Reads the index on first use. Entries pointing behind the end of the log, e.g. after a crash while writing, are ignored.
+     */
+    private void load() {
+        if (this.loaded) {
+            return;
+        }
+        this.loaded = true;
+
+        if (!Files.isRegularFile(this.getIndexPath()) || !Files.isRegularFile(this.getLogPath())) {
+            return;
+        }
+
+        try {
+            long logSize = Files.size(this.getLogPath());
+
+            for (String line : Files.readAllLines(this.getIndexPath(), StandardCharsets.UTF_8)) {
+                String[] parts = line.split(" ");
+                if (parts.length != 4) {
+                    continue;
+                }
+
+                try {
+                    Position position = new Position(Long.parseLong(parts[1]), Long.parseLong(parts[2]), Integer.parseInt(parts[3]));
+                    if (position.offset() + position.length() <= logSize) {
+                        this.addPosition(parts[0], position);
+                    }
+                } catch (NumberFormatException ignore) {
+                }
+            }
+
+            long liveSize = this.index.values().stream().flatMap(List::stream).mapToLong(Position::length).sum();
+            if (logSize > COMPACT_MIN_SIZE && logSize > liveSize * 2) {
+                this.compact();
+            }
+        } catch (IOException ignore) {
+            this.index.clear();
+        }
+    }
+
+    /**
+     * Rewrites the log with the records of the index only.
+     */
+    private void compact() throws IOException {
+        Path log = Files.createTempFile(this.directory, LOG_FILE, ".tmp");
+        Path index = Files.createTempFile(this.directory, INDEX_FILE, ".tmp");
+        Map<String, List<Position>> compacted = new HashMap<>();
+
+        try (FileChannel source = FileChannel.open(this.getLogPath(), StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(log, StandardOpenOption.WRITE);
+             Writer indexWriter = Files.newBufferedWriter(index, StandardCharsets.UTF_8)) {
+
+            for (var entry : this.index.entrySet()) {
+                for (Position position : entry.getValue()) {
+                    long offset = target.position();
+                    source.transferTo(position.offset(), position.length(), target);
+
+                    Position moved = new Position(position.startedAt(), offset, position.length());
+                    compacted.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).add(moved);
+                    indexWriter.write(ResponseHistoryStore.getIndexLine(entry.getKey(), moved));
+                }
+            }
+        }
+
+        Files.move(log, this.getLogPath(), StandardCopyOption.REPLACE_EXISTING);
+        Files.move(index, this.getIndexPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        this.index.clear();
+        this.index.putAll(compacted);
+    }
+
+    private void addPosition(String hash, Position position) {
+        List<Position> positions = this.index.computeIfAbsent(hash, key -> new ArrayList<>());
+        positions.add(position);
+
+        while (positions.size() > this.maxRuns) {
+            positions.removeFirst();
+        }
+    }
+
+    private ResponseRecord read(Position position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(position.length());
+
+        try (FileChannel log = FileChannel.open(this.getLogPath(), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (log.read(buffer, position.offset() + buffer.position()) < 0) {
+                    throw new EOFException();
+                }
+            }
+        }
+
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(buffer.array())))) {
+            byte[] json = new byte[in.readInt()];
+            in.readFully(json);
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+
+            JsonObject jObj = JsonParser.parseString(new String(json, StandardCharsets.UTF_8)).getAsJsonObject();
+            return ResponseRecord.createFromJson(jObj, ResponseBody.of(body));
+        }
+    }
+
+    /**
+     * Compresses the record and its body, a body larger than {@link #MAX_BODY_SIZE} is truncated
+     * and the record notes this in its error.
+     */
+    private static byte[] compress(ResponseRecord record) throws IOException {
+        ResponseBody content = record.content();
+        int bodySize = (int) Math.min(content.size(), MAX_BODY_SIZE);
+
+        JsonObject jObj = record.getAsJson();
+        ResponseHistoryStore.redact(jObj.getAsJsonObject("requestHeaders"));
+        ResponseHistoryStore.redact(jObj.getAsJsonObject("responseHeaders"));
+        jObj.getAsJsonArray("redirects").forEach(redirect -> ResponseHistoryStore.redact(redirect.getAsJsonObject()));
+
+        if (content.size() > MAX_BODY_SIZE) {
+            String error = new String(record.error(), StandardCharsets.UTF_8);
+            if (!error.isEmpty()) {
+                error += "\n";
+            }
+            jObj.addProperty("error", error + "The stored response body was truncated to its first "
+                    + (MAX_BODY_SIZE / 1024) + " KB.");
+        }
+        byte[] json = jObj.toString().getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeInt(json.length);
+            out.write(json);
+            out.writeInt(bodySize);
+
+            try (InputStream body = content.openStream()) {
+                out.write(body.readNBytes(bodySize));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Replaces every value of the credential headers, the headers themselves are kept.
+     */
+    private static void redact(@Nullable JsonObject headers) {
+        if (headers == null) {
+            return;
+        }
+
+        for (Map.Entry<String, JsonElement> header : headers.entrySet()) {
+            if (!CredentialHeaders.isCredential(header.getKey())) {
+                continue;
+            }
+
+            JsonArray values = new JsonArray();
+            header.getValue().getAsJsonArray().forEach(value -> values.add(REDACTED));
+            header.setValue(values);
+        }
+    }
+
+    private static String getIndexLine(String hash, Position position) {
+        return hash + " " + position.startedAt() + " " + position.offset() + " " + position.length() + "\n";
+    }
+
+    private Path getLogPath() {
+        return this.directory.resolve(LOG_FILE);
+    }
+
+    private Path getIndexPath() {
+        return this.directory.resolve(INDEX_FILE);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe latency histogram with constant memory usage.
+ * Values are recorded in microseconds into log-linear buckets (64 sub buckets per power of two),
+ * which keeps the relative error of the reported percentiles below 1.6%.
+ */
+public class LatencyHistogram {
+    private static final int LINEAR_BUCKETS = 128;
+    private static final int SUB_BUCKETS = 64;
+    private static final int SUB_BUCKET_BITS = 6;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(LINEAR_BUCKETS + (64 - 7) * SUB_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+
+        this.buckets.incrementAndGet(LatencyHistogram.getIndex(micros));
+        this.count.incrementAndGet();
+        this.sum.addAndGet(micros);
+        this.min.accumulateAndGet(micros, Math::min);
+        this.max.accumulateAndGet(micros, Math::max);
+    }
+
+    public long getCount() {
+        return this.count.get();
+    }
+
+    public long getMinMicros() {
+        return this.getCount() == 0 ? 0 : this.min.get();
+    }
+
+    public long getMaxMicros() {
+        return this.max.get();
+    }
+
+    public double getMeanMicros() {
+        long count = this.getCount();
+        return count == 0 ? 0 : (double) this.sum.get() / count;
+    }
+
+    /**
+     * @param percentile value between 0 and 100
+     * @return the latency in microseconds below which the given percentage of all recorded values fall
+     */
+    public long getPercentileMicros(double percentile) {
+        long count = this.getCount();
+
+        if (count == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+
+        for (int i = 0; i < this.buckets.length(); i++) {
+            seen += this.buckets.get(i);
+
+            if (seen >= target) {
+                // never report more than the actual maximum
+                return Math.min(LatencyHistogram.getUpperBound(i), this.getMaxMicros());
+            }
+        }
+        return this.getMaxMicros();
+    }
+
+    static int getIndex(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) micros;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = msb - SUB_BUCKET_BITS;
+        int subBucket = (int) (micros >>> shift) - SUB_BUCKETS;
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long getUpperBound(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int shift = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        long subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
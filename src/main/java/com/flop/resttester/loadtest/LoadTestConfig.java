@@ -0,0 +1,22 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.loadtest;
+
+/**
+ * @param concurrency       number of requests which are in flight at the same time
+ * @param totalRequests     number of requests to send, 0 if the test is limited by its duration
+ * @param durationSeconds   duration of the test, 0 if the test is limited by the total request count
+ * @param requestsPerSecond target throughput, 0 to send as fast as possible
+ */
+public record LoadTestConfig(
+        int concurrency,
+        long totalRequests,
+        long durationSeconds,
+        int requestsPerSecond
+) {
+}
@@ -0,0 +1,81 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.loadtest;
+
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.util.ui.UIUtil;
+import net.miginfocom.swing.MigLayout;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+
+public class LoadTestDialog extends DialogWrapper {
+    private JSpinner concurrency;
+    private JRadioButton countMode;
+    private JSpinner totalRequests;
+    private JSpinner duration;
+    private JSpinner requestsPerSecond;
+
+    public LoadTestDialog(String requestName) {
+        super(true);
+        setTitle("Load Test: " + requestName);
+        setOKButtonText("Start");
+        init();
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        JPanel dialogPanel = new JPanel(new MigLayout("ins 8", "[]12[]", "[]8[]8[]8[]4[]"));
+
+        dialogPanel.add(new JLabel("Concurrency:"));
+        this.concurrency = new JSpinner(new SpinnerNumberModel(10, 1, 1000, 1));
+        dialogPanel.add(this.concurrency, "growx, wrap");
+
+        this.countMode = new JRadioButton("Total requests:", true);
+        JRadioButton durationMode = new JRadioButton("Duration (s):");
+        ButtonGroup modeGroup = new ButtonGroup();
+        modeGroup.add(this.countMode);
+        modeGroup.add(durationMode);
+
+        dialogPanel.add(this.countMode);
+        this.totalRequests = new JSpinner(new SpinnerNumberModel(1000, 1, 10_000_000, 100));
+        dialogPanel.add(this.totalRequests, "growx, wrap");
+
+        dialogPanel.add(durationMode);
+        this.duration = new JSpinner(new SpinnerNumberModel(30, 1, 86_400, 10));
+        this.duration.setEnabled(false);
+        dialogPanel.add(this.duration, "growx, wrap");
+
+        this.countMode.addChangeListener((e) -> {
+            this.totalRequests.setEnabled(this.countMode.isSelected());
+            this.duration.setEnabled(!this.countMode.isSelected());
+        });
+
+        dialogPanel.add(new JLabel("Requests per second:"));
+        this.requestsPerSecond = new JSpinner(new SpinnerNumberModel(0, 0, 1_000_000, 10));
+        dialogPanel.add(this.requestsPerSecond, "growx, wrap");
+
+        var rateInfo = new JBLabel(" 0 sends as fast as possible.", UIUtil.ComponentStyle.SMALL, UIUtil.FontColor.BRIGHTER);
+        dialogPanel.add(rateInfo, "cell 1 4");
+
+        return dialogPanel;
+    }
+
+    public LoadTestConfig getConfig() {
+        boolean limitByCount = this.countMode.isSelected();
+
+        return new LoadTestConfig(
+                ((Number) this.concurrency.getValue()).intValue(),
+                limitByCount ? ((Number) this.totalRequests.getValue()).longValue() : 0,
+                limitByCount ? 0 : ((Number) this.duration.getValue()).longValue(),
+                ((Number) this.requestsPerSecond.getValue()).intValue()
+        );
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.loadtest;
+
+import java.util.Map;
+
+/**
+ * @param requestCount number of finished requests including failed ones
+ * @param errorCount   number of requests which failed or returned a status code >= 400
+ * @param elapsedNanos wall time of the whole test
+ * @param queueNanos   sum of the time all requests waited for the host limits, not part of the latencies
+ * @param statusCodes  number of responses per status code, -1 for requests without response
+ */
+public record LoadTestResult(
+        long requestCount,
+        long errorCount,
+        long elapsedNanos,
+        long queueNanos,
+        LatencyHistogram latencies,
+        Map<Integer, Long> statusCodes,
+        boolean canceled
+) {
+    public double getThroughput() {
+        if (this.elapsedNanos == 0) {
+            return 0;
+        }
+        return this.requestCount / (this.elapsedNanos / 1_000_000_000d);
+    }
+
+    public double getMeanQueueNanos() {
+        if (this.requestCount == 0) {
+            return 0;
+        }
+        return (double) this.queueNanos / this.requestCount;
+    }
+
+    public double getErrorRate() {
+        if (this.requestCount == 0) {
+            return 0;
+        }
+        return (double) this.errorCount / this.requestCount;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.loadtest;
+
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBScrollPane;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Map;
+
+public class LoadTestResultDialog extends DialogWrapper {
+    private final LoadTestResult result;
+
+    public LoadTestResultDialog(String requestName, LoadTestResult result) {
+        super(true);
+        this.result = result;
+        setTitle("Load Test Result: " + requestName);
+        init();
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        JTextArea report = new JTextArea(LoadTestResultDialog.createReport(this.result));
+        report.setEditable(false);
+        report.setFont(new Font(Font.MONOSPACED, Font.PLAIN, report.getFont().getSize()));
+
+        JBScrollPane scrollPane = new JBScrollPane(report);
+        scrollPane.setPreferredSize(new Dimension(420, 320));
+        return scrollPane;
+    }
+
+    @Override
+    protected Action @NotNull [] createActions() {
+        return new Action[]{this.getOKAction()};
+    }
+
+    public static String createReport(LoadTestResult result) {
+        LatencyHistogram latencies = result.latencies();
+        StringBuilder report = new StringBuilder();
+
+        if (result.canceled()) {
+            report.append(" Test was canceled, results are partial.\n\n");
+        }
+
+        report.append(" ================ Summary ================ \n");
+        report.append(String.format("  Requests:    %d%n", result.requestCount()));
+        report.append(String.format("  Errors:      %d (%.2f %%)%n", result.errorCount(), result.getErrorRate() * 100));
+        report.append(String.format("  Duration:    %.2f s%n", result.elapsedNanos() / 1_000_000_000d));
+        report.append(String.format("  Throughput:  %.1f req/s%n", result.getThroughput()));
+
+        if (result.queueNanos() > 0) {
+            report.append(String.format("  Queue wait:  %.2f ms mean (host limits)%n", result.getMeanQueueNanos() / 1_000_000d));
+        }
+
+        report.append("\n ================ Latency ================ \n");
+        report.append("  min:    ").append(LoadTestResultDialog.formatMicros(latencies.getMinMicros())).append('\n');
+        report.append("  mean:   ").append(LoadTestResultDialog.formatMicros((long) latencies.getMeanMicros())).append('\n');
+        report.append("  p50:    ").append(LoadTestResultDialog.formatMicros(latencies.getPercentileMicros(50))).append('\n');
+        report.append("  p90:    ").append(LoadTestResultDialog.formatMicros(latencies.getPercentileMicros(90))).append('\n');
+        report.append("  p99:    ").append(LoadTestResultDialog.formatMicros(latencies.getPercentileMicros(99))).append('\n');
+        report.append("  p99.9:  ").append(LoadTestResultDialog.formatMicros(latencies.getPercentileMicros(99.9))).append('\n');
+        report.append("  max:    ").append(LoadTestResultDialog.formatMicros(latencies.getMaxMicros())).append('\n');
+
+        report.append("\n ============== Status Codes ============= \n");
+        for (Map.Entry<Integer, Long> entry : result.statusCodes().entrySet()) {
+            String code = entry.getKey() == -1 ? "Failed" : entry.getKey().toString();
+            report.append("  ").append(code).append(": ").append(entry.getValue()).append('\n');
+        }
+
+        return report.toString();
+    }
+
+    private static String formatMicros(long micros) {
+        if (micros >= 1_000_000) {
+            return String.format("%.2f s", micros / 1_000_000d);
+        }
+        return String.format("%.2f ms", micros / 1000d);
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.loadtest;
+
+import com.flop.resttester.request.*;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a single request with a fixed number of concurrent workers.
+ * Every worker runs on its own virtual thread and shares the pooled http client of the request settings.
+ * <p>
+ * If a target throughput is set, requests are sent on a fixed schedule and their latency is measured from the
+ * scheduled start. Otherwise, a slow server would delay the following sends and hide its own latency.
+ */
+public class LoadTestRunner {
+    private final Project project;
+    private final RequestData data;
+    private final LoadTestConfig config;
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final Map<Integer, AtomicLong> statusCodes = new ConcurrentHashMap<>();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong finished = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong queueNanos = new AtomicLong();
+    private final AtomicLong nextSlot = new AtomicLong();
+    private final List<Future<?>> workers = new ArrayList<>();
+
+    private volatile boolean canceled = false;
+    private HttpClient httpClient;
+    private long startTime;
+    private long deadline;
+    private long interval;
+
+    public LoadTestRunner(@Nullable Project project, RequestData data, LoadTestConfig config) {
+        this.project = project;
+        this.data = data;
+        this.config = config;
+    }
+
+    /**
+     * Starts all workers and returns immediately.
+     *
+     * @throws URISyntaxException if the request url is invalid
+     */
+    public void start() throws URISyntaxException, IOException {
+        URI uri = new URI(UrlTemplate.compile(this.data).render());
+        HttpRequest request = RequestThread.createRequestBuilder(this.project, this.data, uri).build();
+
+        this.httpClient = HttpClientRegistry.getInstance().borrow(HttpClientProfile.of(this.data));
+        this.startTime = System.nanoTime();
+        this.nextSlot.set(this.startTime);
+
+        if (this.config.durationSeconds() > 0) {
+            this.deadline = this.startTime + this.config.durationSeconds() * 1_000_000_000L;
+        }
+
+        if (this.config.requestsPerSecond() > 0) {
+            this.interval = 1_000_000_000L / this.config.requestsPerSecond();
+        }
+
+        RequestExecutor executor = RequestExecutor.getInstance();
+
+        for (int i = 0; i < Math.max(1, this.config.concurrency()); i++) {
+            this.workers.add(executor.execute(() -> this.work(request)));
+        }
+    }
+
+    private void work(HttpRequest request) {
+        while (!this.canceled) {
+            long index = this.started.getAndIncrement();
+
+            if (this.config.totalRequests() > 0 && index >= this.config.totalRequests()) {
+                return;
+            }
+
+            long scheduled = System.nanoTime();
+
+            if (this.interval > 0) {
+                scheduled = this.nextSlot.getAndAdd(this.interval);
+                long wait = scheduled - System.nanoTime();
+
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+
+            if (this.canceled || (this.deadline > 0 && System.nanoTime() >= this.deadline)) {
+                return;
+            }
+
+            // the wait for the host limits is reported separately, it is not caused by the server
+            try (HostLimiter.Permit permit = HostLimiter.getInstance().acquire(request.uri().getHost(), this.data.hostLimit())) {
+                this.queueNanos.addAndGet(permit.getWaitNanos());
+
+                HttpResponse<Void> response = this.httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                this.latencies.recordNanos(System.nanoTime() - scheduled - permit.getWaitNanos());
+                this.countStatus(response.statusCode());
+
+                if (response.statusCode() >= 400) {
+                    this.errors.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                this.countStatus(-1);
+                this.errors.incrementAndGet();
+            }
+            this.finished.incrementAndGet();
+        }
+    }
+
+    private void countStatus(int code) {
+        this.statusCodes.computeIfAbsent(code, (k) -> new AtomicLong()).incrementAndGet();
+    }
+
+    public void cancel() {
+        this.canceled = true;
+
+        for (Future<?> worker : this.workers) {
+            worker.cancel(true);
+        }
+    }
+
+    public boolean isDone() {
+        return this.workers.stream().allMatch(Future::isDone);
+    }
+
+    public long getFinishedCount() {
+        return this.finished.get();
+    }
+
+    public long getErrorCount() {
+        return this.errors.get();
+    }
+
+    /**
+     * @return progress between 0 and 1
+     */
+    public double getProgress() {
+        if (this.config.totalRequests() > 0) {
+            return Math.min(1, (double) this.finished.get() / this.config.totalRequests());
+        }
+        if (this.deadline > 0) {
+            return Math.min(1, (double) (System.nanoTime() - this.startTime) / (this.deadline - this.startTime));
+        }
+        return 0;
+    }
+
+    /**
+     * Waits for all workers to finish and returns the collected statistics.
+     */
+    public LoadTestResult awaitResult() {
+        for (Future<?> worker : this.workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.cancel();
+                break;
+            } catch (ExecutionException | CancellationException ignore) {
+            }
+        }
+
+        long elapsed = System.nanoTime() - this.startTime;
+
+        if (this.httpClient != null) {
+            HttpClientRegistry.getInstance().release(this.httpClient);
+            this.httpClient = null;
+        }
+
+        Map<Integer, Long> codes = new TreeMap<>();
+        this.statusCodes.forEach((code, count) -> codes.put(code, count.get()));
+
+        return new LoadTestResult(this.finished.get(), this.errors.get(), elapsed, this.queueNanos.get(), this.latencies, codes, this.canceled);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.loadtest;
+
+import com.flop.resttester.RestTesterNotifier;
+import com.flop.resttester.request.RequestData;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Runs a load test in the background and shows the progress in the IDE status bar.
+ */
+public class LoadTestTask extends Task.Backgroundable {
+    private final String requestName;
+    private final LoadTestRunner runner;
+    private LoadTestResult result;
+
+    public LoadTestTask(Project project, String requestName, RequestData data, LoadTestConfig config) {
+        super(project, "Load testing " + requestName, true);
+        this.requestName = requestName;
+        this.runner = new LoadTestRunner(project, data, config);
+    }
+
+    @Override
+    public void run(@NotNull ProgressIndicator indicator) {
+        try {
+            this.runner.start();
+        } catch (Exception e) {
+            RestTesterNotifier.notifyError(this.getProject(), "Rest Tester: Could not start load test. " + e.getMessage());
+            return;
+        }
+
+        indicator.setIndeterminate(false);
+
+        while (!this.runner.isDone()) {
+            if (indicator.isCanceled()) {
+                this.runner.cancel();
+                break;
+            }
+
+            indicator.setFraction(this.runner.getProgress());
+            indicator.setText2(this.runner.getFinishedCount() + " requests, " + this.runner.getErrorCount() + " errors");
+
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                this.runner.cancel();
+                break;
+            }
+        }
+
+        this.result = this.runner.awaitResult();
+    }
+
+    @Override
+    public void onFinished() {
+        if (this.result != null) {
+            new LoadTestResultDialog(this.requestName, this.result).show();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * Opens a connection to the host of a request before it is sent, e.g. when the request is selected.
+ * The host is resolved and a HEAD request is sent to its root, which leaves a connection (including the tls handshake)
+ * in the pool of the shared http client. Sending the request afterward only pays the request latency.
+ * <p>
+ * Only the latest warm-up is pending, scheduling a new one cancels it. There is at most one warm-up per host at a time
+ * and none if the client already has a connection to the host.
+ * <p>
+ * The HEAD request is sent without the headers of the request and counts against the limits of the
+ * {@link HostLimiter}. Since it contacts hosts the user only selected or typed, warm-up is disabled by default.
+ */
+public class ConnectionWarmer implements Disposable {
+    /**
+     * Delay after the last change of an url before its host is warmed up.
+     */
+    public static final long URL_STABLE_DELAY = 800;
+    private static final Duration WARM_UP_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Set<String> warming = ConcurrentHashMap.newKeySet();
+    private Future<?> pending;
+    private String pendingKey;
+
+    public static ConnectionWarmer getInstance() {
+        return ApplicationManager.getApplication().getService(ConnectionWarmer.class);
+    }
+
+    /**
+     * Warms up a connection to the host of the request after the given delay.
+     * Requests to hosts which can not be resolved yet, e.g. because of unknown variables, are ignored.
+     */
+    public synchronized void schedule(RequestData data, long delayMillis) {
+        URI origin = ConnectionWarmer.getOriginUri(data);
+        if (origin == null) {
+            this.cancel();
+            return;
+        }
+
+        HttpClientProfile profile = HttpClientProfile.of(data);
+        String key = profile + " " + origin;
+
+        if (this.pending != null && !this.pending.isDone() && Objects.equals(this.pendingKey, key)) {
+            return;
+        }
+
+        this.cancel();
+        this.pendingKey = key;
+        this.pending = RequestExecutor.getInstance().execute(() -> {
+            try {
+                Thread.sleep(delayMillis);
+                this.warmUp(origin, profile, data.hostLimit());
+            } catch (InterruptedException ignore) {
+            }
+        });
+    }
+
+    public synchronized void cancel() {
+        if (this.pending != null) {
+            this.pending.cancel(true);
+            this.pending = null;
+            this.pendingKey = null;
+        }
+    }
+
+    private void warmUp(URI origin, HttpClientProfile profile, HostLimit limit) throws InterruptedException {
+        HttpClientRegistry registry = HttpClientRegistry.getInstance();
+        String host = HttpClientRegistry.getOrigin(origin);
+
+        if (registry.isConnected(profile, origin) || !this.warming.add(host)) {
+            return;
+        }
+
+        HttpClient client = registry.borrow(profile);
+        try (HostLimiter.Permit permit = HostLimiter.getInstance().acquire(origin.getHost(), limit)) {
+            // the resolved addresses are cached by the jvm and reused by the request
+            InetAddress.getAllByName(origin.getHost());
+
+            HttpRequest request = HttpRequest.newBuilder(origin)
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .timeout(WARM_UP_TIMEOUT)
+                    .build();
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+            registry.markConnected(client, origin);
+        } catch (IOException ignore) {
+            // the request reports connection problems itself
+        } finally {
+            this.warming.remove(host);
+            registry.release(client);
+        }
+    }
+
+    /**
+     * Returns the root of the host of the request, which is used for the warm-up instead of the endpoint of the request.
+     *
+     * @return the uri or null if the url is incomplete or not http
+     */
+    static @Nullable URI getOriginUri(RequestData data) {
+        try {
+            URI uri = new URI(UrlTemplate.compile(data).render());
+            String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase();
+
+            if (uri.getHost() == null || !(scheme.equals("http") || scheme.equals("https"))) {
+                return null;
+            }
+            return new URI(scheme, null, uri.getHost(), uri.getPort(), "/", null, null);
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        this.cancel();
+    }
+}
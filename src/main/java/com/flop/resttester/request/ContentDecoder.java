@@ -0,0 +1,148 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decodes compressed response bodies while they are read, so the compressed body is never held in memory.
+ * The decoders are created on the first read, so wrapping the stream never waits for the body,
+ * e.g. of an event stream whose server is idle.
+ */
+public class ContentDecoder {
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private ContentDecoder() {
+    }
+
+    /**
+     * Wraps the stream with decoders for all supported encodings of the given Content-Encoding header values.
+     * The stream is returned unchanged if one of the encodings is unknown. An empty body, e.g. of 204 and 304 responses
+     * which still carry the Content-Encoding header, is read as empty.
+     */
+    public static InputStream decode(InputStream stream, List<String> contentEncoding) {
+        List<String> encodings = new ArrayList<>();
+        for (String value : contentEncoding) {
+            Arrays.stream(value.split(","))
+                    .map(encoding -> encoding.trim().toLowerCase())
+                    .filter(encoding -> !encoding.isEmpty() && !encoding.equals("identity"))
+                    .forEach(encodings::add);
+        }
+
+        if (encodings.isEmpty() || !encodings.stream().allMatch(ContentDecoder::isSupported)) {
+            return stream;
+        }
+
+        // encodings are listed in the order they were applied
+        Collections.reverse(encodings);
+        return new LazyDecoder(stream, encodings);
+    }
+
+    private static InputStream createDecoders(InputStream stream, List<String> encodings) throws IOException {
+        // the decoders read the header of the encoding when they are created and fail on an empty body
+        PushbackInputStream peek = new PushbackInputStream(stream, 1);
+        int first = peek.read();
+        if (first == -1) {
+            return peek;
+        }
+        peek.unread(first);
+        stream = peek;
+
+        for (String encoding : encodings) {
+            if (encoding.equals("gzip") || encoding.equals("x-gzip")) {
+                stream = new GZIPInputStream(stream, 8192);
+            } else {
+                stream = ContentDecoder.inflate(stream);
+            }
+        }
+        return stream;
+    }
+
+    /**
+     * Creates the decoders on the first read, since they read the header of the encoding when they are created.
+     */
+    private static class LazyDecoder extends InputStream {
+        private final InputStream source;
+        private final List<String> encodings;
+        private InputStream decoded;
+
+        LazyDecoder(InputStream source, List<String> encodings) {
+            this.source = source;
+            this.encodings = encodings;
+        }
+
+        private InputStream getDecoded() throws IOException {
+            if (this.decoded == null) {
+                this.decoded = ContentDecoder.createDecoders(this.source, this.encodings);
+            }
+            return this.decoded;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return this.getDecoded().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return this.getDecoded().read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return this.decoded == null ? 0 : this.decoded.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.decoded != null) {
+                this.decoded.close();
+            } else {
+                this.source.close();
+            }
+        }
+    }
+
+    private static boolean isSupported(String encoding) {
+        return encoding.equals("gzip") || encoding.equals("x-gzip") || encoding.equals("deflate");
+    }
+
+    /**
+     * Http "deflate" should be zlib wrapped, but some servers send a raw deflate stream.
+     * The zlib header is detected from the first two bytes.
+     */
+    private static InputStream inflate(InputStream stream) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(stream, 8192);
+        buffered.mark(2);
+        int cmf = buffered.read();
+        int flg = buffered.read();
+        buffered.reset();
+
+        boolean zlib = cmf != -1 && flg != -1 && (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+        Inflater inflater = new Inflater(!zlib);
+
+        return new InflaterInputStream(buffered, inflater, 8192) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                // inflaters passed to the stream are not released on close
+                inflater.end();
+            }
+        };
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+
+/**
+ * Counts the body bytes handed to the http client, used to display the upload progress of large bodies.
+ */
+class CountingBodyPublisher implements HttpRequest.BodyPublisher {
+    private final HttpRequest.BodyPublisher delegate;
+    private volatile long count = 0;
+    private volatile long startTime = 0;
+
+    CountingBodyPublisher(HttpRequest.BodyPublisher delegate) {
+        this.delegate = delegate;
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * @return average upload rate since the body was subscribed or 0 if the upload did not start yet
+     */
+    public double getBytesPerSecond() {
+        long startTime = this.startTime;
+        if (startTime == 0) {
+            return 0;
+        }
+
+        double seconds = (System.nanoTime() - startTime) / 1_000_000_000d;
+        return seconds > 0 ? this.count / seconds : 0;
+    }
+
+    @Override
+    public long contentLength() {
+        return this.delegate.contentLength();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        // the client subscribes again if the body has to be resent, e.g. after a redirect
+        this.count = 0;
+        this.startTime = System.nanoTime();
+
+        this.delegate.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscriber.onSubscribe(subscription);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                CountingBodyPublisher.this.count += item.remaining();
+                subscriber.onNext(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                subscriber.onError(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                subscriber.onComplete();
+            }
+        });
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Client side limits of the requests sent to a single host, enforced by the {@link HostLimiter}.
+ *
+ * @param requestsPerSecond rate at which new requests may start, 0 disables the rate limit
+ * @param burst             number of requests which may start at once after an idle period
+ * @param maxConcurrent     number of requests to the host which may run at the same time, 0 for no limit
+ */
+public record HostLimit(
+        int requestsPerSecond,
+        int burst,
+        int maxConcurrent
+) {
+    public static final HostLimit NONE = new HostLimit(0, 1, 0);
+
+    public boolean isRateLimited() {
+        return this.requestsPerSecond > 0;
+    }
+
+    public boolean isConcurrencyLimited() {
+        return this.maxConcurrent > 0;
+    }
+
+    public boolean isLimited() {
+        return this.isRateLimited() || this.isConcurrencyLimited();
+    }
+
+    public JsonObject getAsJson() {
+        JsonObject jObj = new JsonObject();
+        jObj.addProperty("requestsPerSecond", this.requestsPerSecond);
+        jObj.addProperty("burst", this.burst);
+        jObj.addProperty("maxConcurrent", this.maxConcurrent);
+        return jObj;
+    }
+
+    public static HostLimit createFromJson(JsonObject jObj) {
+        if (!jObj.has("requestsPerSecond") || !jObj.has("burst") || !jObj.has("maxConcurrent")) {
+            throw new RuntimeException("Invalid host limit object.");
+        }
+
+        return new HostLimit(
+                jObj.get("requestsPerSecond").getAsInt(),
+                jObj.get("burst").getAsInt(),
+                jObj.get("maxConcurrent").getAsInt()
+        );
+    }
+}
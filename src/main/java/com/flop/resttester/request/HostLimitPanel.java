@@ -0,0 +1,59 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import net.miginfocom.swing.MigLayout;
+
+import javax.swing.*;
+import javax.swing.event.ChangeListener;
+
+/**
+ * Inputs of a {@link HostLimit}, used by the environment settings.
+ */
+public class HostLimitPanel extends JPanel {
+    private final JSpinner requestsPerSecond = new JSpinner(new SpinnerNumberModel(0, 0, 10_000, 1));
+    private final JSpinner burst = new JSpinner(new SpinnerNumberModel(1, 1, 10_000, 1));
+    private final JSpinner maxConcurrent = new JSpinner(new SpinnerNumberModel(0, 0, 1_000, 1));
+
+    public HostLimitPanel() {
+        super(new MigLayout("ins 0", "[]12[]", "[]4[]4[]"));
+
+        this.add(new JLabel("Requests per second:"));
+        this.add(this.requestsPerSecond, "w 80!, wrap");
+
+        this.add(new JLabel("Burst:"));
+        this.add(this.burst, "w 80!, wrap");
+
+        this.add(new JLabel("Max. concurrent:"));
+        this.add(this.maxConcurrent, "w 80!, wrap");
+
+        this.requestsPerSecond.setToolTipText("Rate at which requests to the same host may start, 0 disables the rate limit");
+        this.burst.setToolTipText("Number of requests which may start at once after the host was idle");
+        this.maxConcurrent.setToolTipText("Number of requests to the same host which may run at the same time, 0 for no limit");
+    }
+
+    public void setLimit(HostLimit limit) {
+        this.requestsPerSecond.setValue(limit.requestsPerSecond());
+        this.burst.setValue(limit.burst());
+        this.maxConcurrent.setValue(limit.maxConcurrent());
+    }
+
+    public HostLimit getLimit() {
+        return new HostLimit(
+                ((Number) this.requestsPerSecond.getValue()).intValue(),
+                ((Number) this.burst.getValue()).intValue(),
+                ((Number) this.maxConcurrent.getValue()).intValue()
+        );
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        this.requestsPerSecond.addChangeListener(listener);
+        this.burst.addChangeListener(listener);
+        this.maxConcurrent.addChangeListener(listener);
+    }
+}
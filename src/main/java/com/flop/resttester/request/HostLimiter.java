@@ -0,0 +1,152 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import com.intellij.openapi.application.ApplicationManager;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Application wide limiter of the requests sent to a single host, shared by single requests, collection runs and load tests.
+ * Every host has a token bucket for the request rate and a counter of running requests for the concurrency cap.
+ * Requests which exceed a limit wait in the order they arrived. Waiting is cheap since requests run on virtual threads.
+ */
+public class HostLimiter {
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    public static HostLimiter getInstance() {
+        return ApplicationManager.getApplication().getService(HostLimiter.class);
+    }
+
+    /**
+     * Waits until the limits allow another request to the host.
+     * The returned permit must be closed once the request finished, so waiting requests can start.
+     *
+     * @throws InterruptedException if the request was canceled while it was waiting
+     */
+    public Permit acquire(@Nullable String host, HostLimit limit) throws InterruptedException {
+        if (host == null || !limit.isLimited()) {
+            return Permit.NONE;
+        }
+
+        long start = System.nanoTime();
+        Host state = this.hosts.computeIfAbsent(host.toLowerCase(), (key) -> new Host());
+        state.acquire(limit);
+        return new Permit(state, System.nanoTime() - start);
+    }
+
+    /**
+     * @return number of requests to the host which currently hold a permit
+     */
+    public int getActiveCount(String host) {
+        Host state = this.hosts.get(host.toLowerCase());
+        return state == null ? 0 : state.getActive();
+    }
+
+    public static class Permit implements AutoCloseable {
+        static final Permit NONE = new Permit(null, 0);
+
+        private final @Nullable Host host;
+        private final long waitNanos;
+        private boolean closed = false;
+
+        private Permit(@Nullable Host host, long waitNanos) {
+            this.host = host;
+            this.waitNanos = waitNanos;
+        }
+
+        /**
+         * @return time the request waited for the permit
+         */
+        public long getWaitNanos() {
+            return this.waitNanos;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (this.host != null && !this.closed) {
+                this.closed = true;
+                this.host.release();
+            }
+        }
+    }
+
+    private static class Host {
+        // fair, so waiting requests start in the order they arrived
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private final Condition changed = this.lock.newCondition();
+        private double tokens = -1;
+        private long lastRefill;
+        private int active = 0;
+
+        private void acquire(HostLimit limit) throws InterruptedException {
+            this.lock.lockInterruptibly();
+            try {
+                while (true) {
+                    if (limit.isConcurrencyLimited() && this.active >= limit.maxConcurrent()) {
+                        this.changed.await();
+                        continue;
+                    }
+
+                    if (limit.isRateLimited()) {
+                        this.refill(limit);
+
+                        if (this.tokens < 1) {
+                            long wait = (long) ((1 - this.tokens) * TimeUnit.SECONDS.toNanos(1) / limit.requestsPerSecond());
+                            this.changed.awaitNanos(Math.max(1, wait));
+                            continue;
+                        }
+                        this.tokens -= 1;
+                    }
+
+                    this.active++;
+                    return;
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private void refill(HostLimit limit) {
+            long now = System.nanoTime();
+            int burst = Math.max(1, limit.burst());
+
+            if (this.tokens < 0) {
+                this.tokens = burst;
+            } else {
+                double added = (now - this.lastRefill) * limit.requestsPerSecond() / (double) TimeUnit.SECONDS.toNanos(1);
+                this.tokens = Math.min(burst, this.tokens + added);
+            }
+            this.lastRefill = now;
+        }
+
+        private void release() {
+            this.lock.lock();
+            try {
+                this.active--;
+                this.changed.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private int getActive() {
+            this.lock.lock();
+            try {
+                return this.active;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+/**
+ * Settings which influence how a http client is created.
+ * Requests with an equal profile can share the same client and therefore its open connections.
+ */
+public record HttpClientProfile(
+        boolean validateSSL,
+        boolean allowRedirect
+) {
+    public static HttpClientProfile of(RequestData data) {
+        return new HttpClientProfile(data.validateSSL(), data.allowRedirect());
+    }
+}
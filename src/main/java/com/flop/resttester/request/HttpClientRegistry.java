@@ -0,0 +1,236 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * Application wide registry of http clients.
+ * Requests borrow a client matching their settings profile, so that consecutive requests can reuse
+ * already open (keep-alive / HTTP/2) connections instead of paying dns, tcp and tls setup for every send.
+ * Clients which were not used for {@link #IDLE_TIMEOUT} milliseconds are shut down automatically.
+ * <p>
+ * The http client does not expose its connection pool, therefore the registry remembers which origins
+ * a client talked to recently. A connection to such an origin is most likely still open and reused.
+ */
+public class HttpClientRegistry implements Disposable {
+    public static final long IDLE_TIMEOUT = 5 * 60_000;
+    private static final long EVICTION_INTERVAL = 30_000;
+    /**
+     * Time the http client keeps idle connections open, see the jdk.httpclient.keepalive.timeout property.
+     */
+    private static final long KEEP_ALIVE = Long.getLong("jdk.httpclient.keepalive.timeout", 30) * 1000;
+
+    private final Map<HttpClientProfile, Entry> clients = new HashMap<>();
+    private final Timer evictionTimer = new Timer("Rest Tester Client Eviction", true);
+
+    public HttpClientRegistry() {
+        this.evictionTimer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                HttpClientRegistry.this.evictIdleClients();
+            }
+        }, EVICTION_INTERVAL, EVICTION_INTERVAL);
+    }
+
+    public static HttpClientRegistry getInstance() {
+        return ApplicationManager.getApplication().getService(HttpClientRegistry.class);
+    }
+
+    /**
+     * Returns the shared client of the given profile and marks it as in use.
+     * Every call must be followed by a call to {@link #release(HttpClient)} once the request finished.
+     */
+    public synchronized HttpClient borrow(HttpClientProfile profile) {
+        Entry entry = this.clients.get(profile);
+
+        if (entry == null) {
+            entry = new Entry(HttpClientRegistry.createClient(profile));
+            this.clients.put(profile, entry);
+        }
+
+        entry.borrowed++;
+        entry.lastUsed = System.currentTimeMillis();
+        return entry.client;
+    }
+
+    public synchronized void release(HttpClient client) {
+        for (Entry entry : this.clients.values()) {
+            if (entry.client == client) {
+                entry.borrowed--;
+                entry.lastUsed = System.currentTimeMillis();
+                return;
+            }
+        }
+
+        // client was flushed while it was still in use
+        client.shutdown();
+    }
+
+    /**
+     * Closes all pooled connections. Clients which are still in use are shut down as soon as they are released.
+     */
+    public synchronized void flush() {
+        for (Entry entry : this.clients.values()) {
+            if (entry.borrowed <= 0) {
+                entry.client.shutdown();
+            }
+        }
+        this.clients.clear();
+    }
+
+    /**
+     * Remembers that the client has an open connection to the origin of the uri, e.g. after it received a response.
+     */
+    public synchronized void markConnected(HttpClient client, URI uri) {
+        for (Entry entry : this.clients.values()) {
+            if (entry.client == client) {
+                entry.connectedOrigins.put(HttpClientRegistry.getOrigin(uri), System.currentTimeMillis());
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return whether the client of the profile most likely has an idle connection to the origin of the uri
+     */
+    public synchronized boolean isConnected(HttpClientProfile profile, URI uri) {
+        Entry entry = this.clients.get(profile);
+        if (entry == null) {
+            return false;
+        }
+
+        Long lastUsed = entry.connectedOrigins.get(HttpClientRegistry.getOrigin(uri));
+        return lastUsed != null && System.currentTimeMillis() - lastUsed < KEEP_ALIVE;
+    }
+
+    /**
+     * Returns scheme, host and port of the uri, which identify the connections a request can use.
+     */
+    public static String getOrigin(URI uri) {
+        String scheme = uri.getScheme() == null ? "https" : uri.getScheme().toLowerCase();
+        int port = uri.getPort();
+
+        if (port == -1) {
+            port = scheme.equals("http") ? 80 : 443;
+        }
+        return scheme + "://" + String.valueOf(uri.getHost()).toLowerCase() + ":" + port;
+    }
+
+    public synchronized int getClientCount() {
+        return this.clients.size();
+    }
+
+    private synchronized void evictIdleClients() {
+        long now = System.currentTimeMillis();
+
+        this.clients.values().removeIf(entry -> {
+            if (entry.borrowed > 0 || now - entry.lastUsed < IDLE_TIMEOUT) {
+                return false;
+            }
+            entry.client.shutdown();
+            return true;
+        });
+    }
+
+    @Override
+    public void dispose() {
+        this.evictionTimer.cancel();
+
+        synchronized (this) {
+            for (Entry entry : this.clients.values()) {
+                entry.client.shutdownNow();
+            }
+            this.clients.clear();
+        }
+    }
+
+    private static HttpClient createClient(HttpClientProfile profile) {
+        HttpClient.Builder clientBuilder = HttpClient.newBuilder();
+
+        if (!profile.validateSSL()) {
+            TrustManager DUMMY_TRUST_MANAGER = HttpClientRegistry.getFakeTrustManager();
+            SSLContext sslContext;
+            try {
+                sslContext = SSLContext.getInstance("TLSv1.2");
+                sslContext.init(null, new TrustManager[]{DUMMY_TRUST_MANAGER}, new SecureRandom());
+                clientBuilder.sslContext(sslContext);
+            } catch (NoSuchAlgorithmException | KeyManagementException e) {
+                // ignore
+            }
+        }
+
+        if (profile.allowRedirect()) {
+            clientBuilder = clientBuilder.followRedirects(HttpClient.Redirect.NORMAL);
+        }
+
+        return clientBuilder.build();
+    }
+
+    private static X509ExtendedTrustManager getFakeTrustManager() {
+        return new X509ExtendedTrustManager() {
+            @Override
+            public java.security.cert.X509Certificate[] getAcceptedIssuers() {
+                return new java.security.cert.X509Certificate[0];
+            }
+
+            @Override
+            public void checkServerTrusted(java.security.cert.X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public void checkClientTrusted(java.security.cert.X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) {
+            }
+
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+            }
+
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) {
+            }
+        };
+    }
+
+    private static class Entry {
+        private final HttpClient client;
+        private final Map<String, Long> connectedOrigins = new HashMap<>();
+        private int borrowed = 0;
+        private long lastUsed;
+
+        private Entry(HttpClient client) {
+            this.client = client;
+            this.lastUsed = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import com.flop.resttester.history.ResponseHistoryStore;
+import com.flop.resttester.requesttree.RequestTreeNodeData;
+import com.flop.resttester.response.ResponseChunk;
+import com.flop.resttester.response.ResponseRecord;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A request which was sent and did not finish yet. Responses and chunks are routed to the node which sent the request,
+ * independent of the current selection.
+ */
+public class InFlightRequest {
+    private final RequestTreeNodeData nodeData;
+    private final String name;
+    private final long startedAt = System.currentTimeMillis();
+    private RequestHandle handle;
+    private ResponseRecord partialResponse;
+    private long nextChunkSequence = 0;
+    // chunks received by the request thread which were not shown yet, guarded by itself
+    private final List<ResponseChunk> pendingChunks = new ArrayList<>();
+    private ResponseHistoryStore historyStore;
+    private String historyKey;
+
+    public InFlightRequest(RequestTreeNodeData nodeData) {
+        this.nodeData = nodeData;
+        this.name = nodeData.getName();
+    }
+
+    public RequestTreeNodeData getNodeData() {
+        return this.nodeData;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return start time of the run, which identifies its responses in the response history
+     */
+    public long getStartedAt() {
+        return this.startedAt;
+    }
+
+    public void setHandle(RequestHandle handle) {
+        this.handle = handle;
+    }
+
+    public @Nullable RequestHandle getHandle() {
+        return this.handle;
+    }
+
+    /**
+     * @return the response which was already delivered before the request finished, e.g. the headers of a stream
+     */
+    public @Nullable ResponseRecord getPartialResponse() {
+        return this.partialResponse;
+    }
+
+    public void setPartialResponse(ResponseRecord partialResponse) {
+        this.partialResponse = partialResponse;
+    }
+
+    /**
+     * @return sequence number of the next expected response chunk
+     */
+    public long getNextChunkSequence() {
+        return this.nextChunkSequence;
+    }
+
+    public void setNextChunkSequence(long nextChunkSequence) {
+        this.nextChunkSequence = nextChunkSequence;
+    }
+
+    /**
+     * Collects a chunk until the next ui update, called from the request thread.
+     */
+    public void addPendingChunk(ResponseChunk chunk) {
+        synchronized (this.pendingChunks) {
+            this.pendingChunks.add(chunk);
+        }
+    }
+
+    /**
+     * @return all chunks received since the last call in the order of their sequence
+     */
+    public List<ResponseChunk> takePendingChunks() {
+        synchronized (this.pendingChunks) {
+            List<ResponseChunk> chunks = new ArrayList<>(this.pendingChunks);
+            this.pendingChunks.clear();
+            return chunks;
+        }
+    }
+
+    /**
+     * Sets the store in which the last response is persisted when the request finished.
+     */
+    public void setHistoryStore(ResponseHistoryStore historyStore, String historyKey) {
+        this.historyStore = historyStore;
+        this.historyKey = historyKey;
+    }
+
+    /**
+     * Persists the last response in the background, so it is available again after a restart.
+     */
+    public void storeResponse() {
+        ResponseRecord record = this.partialResponse;
+
+        if (this.historyStore != null && record != null) {
+            RequestExecutor.getInstance().execute(() -> this.historyStore.append(this.historyKey, record));
+        }
+    }
+
+    public String getElapsedTime() {
+        return this.handle == null ? "0 s" : this.handle.getElapsedTime();
+    }
+
+    public boolean isQueued() {
+        return this.handle != null && this.handle.isQueued();
+    }
+
+    public @Nullable String getUploadProgress() {
+        return this.handle == null ? null : this.handle.getUploadProgress();
+    }
+
+    public void cancel() {
+        if (this.handle != null) {
+            this.handle.cancel();
+        }
+    }
+
+    /**
+     * @return short state for the in-flight list, e.g. "1.2 s" or "queued"
+     */
+    public String getStatusText() {
+        if (this.isQueued()) {
+            return "queued";
+        }
+
+        String progress = this.getUploadProgress();
+        return progress == null ? this.getElapsedTime() : this.getElapsedTime() + ", uploaded " + progress;
+    }
+}
@@ -0,0 +1,16 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import java.util.EventListener;
+
+public interface InFlightRequestListener extends EventListener {
+    void onShowRequest(InFlightRequest request);
+
+    void onCancelRequest(InFlightRequest request);
+}
@@ -0,0 +1,126 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.ui.JBMenuItem;
+import com.intellij.openapi.ui.JBPopupMenu;
+import com.intellij.ui.ColoredListCellRenderer;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBList;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.UIUtil;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+
+/**
+ * Lists all running requests with their elapsed time and upload progress.
+ * A double click shows the request, the context menu cancels it. The panel is hidden while no request is running.
+ */
+public class InFlightRequestsPanel extends JPanel {
+    private static final int VISIBLE_ROWS = 4;
+
+    private final DefaultListModel<InFlightRequest> model = new DefaultListModel<>();
+    private final JBList<InFlightRequest> list = new JBList<>(this.model);
+    private final JBLabel title = new JBLabel("", UIUtil.ComponentStyle.SMALL, UIUtil.FontColor.BRIGHTER);
+    private final InFlightRequestListener listener;
+
+    public InFlightRequestsPanel(InFlightRequestListener listener) {
+        super(new BorderLayout());
+        this.listener = listener;
+
+        this.title.setBorder(JBUI.Borders.empty(4, 8));
+        this.add(this.title, BorderLayout.NORTH);
+
+        this.list.setVisibleRowCount(VISIBLE_ROWS);
+        this.list.setCellRenderer(new ColoredListCellRenderer<>() {
+            @Override
+            protected void customizeCellRenderer(@NotNull JList<? extends InFlightRequest> list, InFlightRequest value, int index, boolean selected, boolean hasFocus) {
+                this.setIcon(value.isQueued() ? AllIcons.Actions.Pause : AllIcons.Actions.Execute);
+                this.append(value.getName());
+                this.append("  " + value.getStatusText(), SimpleTextAttributes.GRAYED_ATTRIBUTES);
+            }
+        });
+        this.list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                InFlightRequest request = InFlightRequestsPanel.this.getRequestAt(e);
+                if (request != null && e.getClickCount() == 2) {
+                    InFlightRequestsPanel.this.listener.onShowRequest(request);
+                }
+            }
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                InFlightRequestsPanel.this.handleContextMenu(e);
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                InFlightRequestsPanel.this.handleContextMenu(e);
+            }
+        });
+
+        JScrollPane scrollPane = new JScrollPane(this.list);
+        scrollPane.setBorder(JBUI.Borders.customLine(UIUtil.getBoundsColor(), 1, 0, 0, 0));
+        this.add(scrollPane, BorderLayout.CENTER);
+        this.setVisible(false);
+    }
+
+    public void setRequests(List<InFlightRequest> requests) {
+        this.model.clear();
+        requests.forEach(this.model::addElement);
+        this.title.setText("Running requests (" + requests.size() + ")");
+        this.setVisible(!requests.isEmpty());
+        this.revalidate();
+    }
+
+    /**
+     * Updates the displayed elapsed times.
+     */
+    public void refresh() {
+        this.list.repaint();
+    }
+
+    private InFlightRequest getRequestAt(MouseEvent e) {
+        int index = this.list.locationToIndex(e.getPoint());
+        if (index == -1 || !this.list.getCellBounds(index, index).contains(e.getPoint())) {
+            return null;
+        }
+        return this.model.get(index);
+    }
+
+    private void handleContextMenu(MouseEvent e) {
+        if (!e.isPopupTrigger()) {
+            return;
+        }
+
+        InFlightRequest request = this.getRequestAt(e);
+        if (request == null) {
+            return;
+        }
+
+        JBPopupMenu contextMenu = new JBPopupMenu("Running Request");
+
+        JBMenuItem showEntry = new JBMenuItem("Show");
+        showEntry.addActionListener((l) -> this.listener.onShowRequest(request));
+        contextMenu.add(showEntry);
+
+        JBMenuItem cancelEntry = new JBMenuItem("Cancel", AllIcons.Actions.Suspend);
+        cancelEntry.addActionListener((l) -> this.listener.onCancelRequest(request));
+        contextMenu.add(cancelEntry);
+
+        JBPopupMenu.showByEvent(e, contextMenu);
+    }
+}
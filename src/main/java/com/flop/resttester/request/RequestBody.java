@@ -0,0 +1,119 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Publisher of a request body together with the content type which is used if the request does not define one.
+ * File and multipart bodies are streamed from disk while the request is sent, they are never loaded into memory.
+ */
+public record RequestBody(
+        HttpRequest.BodyPublisher publisher,
+        String contentType
+) {
+    public static RequestBody of(RequestData data) throws IOException {
+        return switch (data.bodyType()) {
+            case JSON -> new RequestBody(HttpRequest.BodyPublishers.ofString(data.body()), "application/json");
+            case XML -> new RequestBody(HttpRequest.BodyPublishers.ofString(data.body()), "application/xml");
+            case Plain -> new RequestBody(HttpRequest.BodyPublishers.ofString(data.body()), "text/plain");
+            case File -> new RequestBody(RequestBody.ofFile(data.body().trim()), "application/octet-stream");
+            case Form -> RequestBody.ofForm(RequestBody.parseFields(data.body()));
+            case Multipart -> RequestBody.ofMultipart(RequestBody.parseFields(data.body()));
+        };
+    }
+
+    /**
+     * Parses one "name=value" field per line. Empty lines are ignored.
+     */
+    static List<Field> parseFields(String body) {
+        List<Field> fields = new ArrayList<>();
+
+        for (String line : body.split("\\R")) {
+            if (line.isBlank()) {
+                continue;
+            }
+
+            int separator = line.indexOf('=');
+            if (separator == -1) {
+                fields.add(new Field(line.trim(), ""));
+            } else {
+                fields.add(new Field(line.substring(0, separator).trim(), line.substring(separator + 1)));
+            }
+        }
+        return fields;
+    }
+
+    static RequestBody ofForm(List<Field> fields) {
+        String body = fields.stream()
+                .map(field -> URLEncoder.encode(field.name(), StandardCharsets.UTF_8) + '=' + URLEncoder.encode(field.value(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+
+        return new RequestBody(HttpRequest.BodyPublishers.ofString(body), "application/x-www-form-urlencoded");
+    }
+
+    /**
+     * Creates a multipart body. Values starting with '@' are paths of files which are streamed as part content.
+     */
+    static RequestBody ofMultipart(List<Field> fields) throws IOException {
+        String boundary = "RestTesterBoundary" + UUID.randomUUID().toString().replace("-", "");
+        List<HttpRequest.BodyPublisher> parts = new ArrayList<>();
+
+        for (Field field : fields) {
+            StringBuilder header = new StringBuilder();
+            header.append("--").append(boundary).append("\r\n");
+            header.append("Content-Disposition: form-data; name=\"").append(RequestBody.escapeQuotes(field.name())).append('"');
+
+            if (field.isFile()) {
+                Path path = Path.of(field.value().substring(1).trim());
+                String type = Files.probeContentType(path);
+
+                header.append("; filename=\"").append(RequestBody.escapeQuotes(String.valueOf(path.getFileName()))).append("\"\r\n");
+                header.append("Content-Type: ").append(type != null ? type : "application/octet-stream").append("\r\n\r\n");
+
+                parts.add(HttpRequest.BodyPublishers.ofString(header.toString()));
+                parts.add(RequestBody.ofFile(path.toString()));
+            } else {
+                header.append("\r\n\r\n").append(field.value());
+                parts.add(HttpRequest.BodyPublishers.ofString(header.toString()));
+            }
+            parts.add(HttpRequest.BodyPublishers.ofString("\r\n"));
+        }
+        parts.add(HttpRequest.BodyPublishers.ofString("--" + boundary + "--\r\n"));
+
+        HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.concat(parts.toArray(HttpRequest.BodyPublisher[]::new));
+        return new RequestBody(publisher, "multipart/form-data; boundary=" + boundary);
+    }
+
+    private static HttpRequest.BodyPublisher ofFile(String path) throws FileNotFoundException {
+        if (path.isEmpty()) {
+            throw new FileNotFoundException("No file selected as request body.");
+        }
+        return HttpRequest.BodyPublishers.ofFile(Path.of(path));
+    }
+
+    private static String escapeQuotes(String value) {
+        return value.replace("\"", "%22");
+    }
+
+    record Field(String name, String value) {
+        boolean isFile() {
+            return this.value.startsWith("@");
+        }
+    }
+}
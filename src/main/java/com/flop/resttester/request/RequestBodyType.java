@@ -10,5 +10,17 @@ package com.flop.resttester.request;
 public enum RequestBodyType {
     JSON,
     XML,
-    Plain
+    Plain,
+    /**
+     * The body text is the path of a file which is streamed as request body.
+     */
+    File,
+    /**
+     * x-www-form-urlencoded, the body text contains one "name=value" field per line.
+     */
+    Form,
+    /**
+     * multipart/form-data, the body text contains one "name=value" or "name=@path" field per line.
+     */
+    Multipart
 }
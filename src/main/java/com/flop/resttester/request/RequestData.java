@@ -9,9 +9,13 @@ package com.flop.resttester.request;
 
 import com.flop.resttester.auth.AuthenticationData;
 import com.flop.resttester.components.keyvaluelist.KeyValuePair;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 
+/**
+ * @param cacheScope scope in which responses are cached, usually the environment, or null if the response cache is not used
+ */
 public record RequestData(
         String url,
         String baseUrl,
@@ -22,6 +26,11 @@ public record RequestData(
         List<KeyValuePair> queryParams,
         List<KeyValuePair> headers,
         boolean validateSSL,
-        boolean allowRedirect
+        boolean allowRedirect,
+        long bodyMemoryLimit,
+        boolean acceptCompression,
+        RetryPolicy retryPolicy,
+        HostLimit hostLimit,
+        @Nullable String cacheScope
 ) {
 }
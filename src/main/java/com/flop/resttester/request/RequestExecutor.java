@@ -0,0 +1,50 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Application wide executor for http requests.
+ * Every request runs on its own virtual thread, so many requests can be in flight at the same time
+ * without occupying a platform thread each.
+ */
+public class RequestExecutor implements Disposable {
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public static RequestExecutor getInstance() {
+        return ApplicationManager.getApplication().getService(RequestExecutor.class);
+    }
+
+    /**
+     * Starts the given request in the background.
+     *
+     * @return a handle which can be used to cancel the request
+     */
+    public RequestHandle submit(RequestThread request) {
+        Future<?> future = this.executor.submit(request);
+        return new RequestHandle(request, future);
+    }
+
+    /**
+     * Runs an arbitrary background task, e.g. a load test worker, on its own virtual thread.
+     */
+    public Future<?> execute(Runnable task) {
+        return this.executor.submit(task);
+    }
+
+    @Override
+    public void dispose() {
+        this.executor.shutdownNow();
+    }
+}
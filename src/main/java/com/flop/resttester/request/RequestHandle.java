@@ -0,0 +1,53 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Future;
+
+/**
+ * Handle of a request started by the {@link RequestExecutor}.
+ */
+public class RequestHandle {
+    private final RequestThread request;
+    private final Future<?> future;
+
+    RequestHandle(RequestThread request, Future<?> future) {
+        this.request = request;
+        this.future = future;
+    }
+
+    /**
+     * Cancels the request. An ongoing send is aborted by interrupting its virtual thread,
+     * the shared http client stays untouched.
+     */
+    public void cancel() {
+        this.request.stopRequest();
+        this.future.cancel(true);
+    }
+
+    public boolean isDone() {
+        return this.future.isDone();
+    }
+
+    public String getElapsedTime() {
+        return this.request.getElapsedTime();
+    }
+
+    /**
+     * @return whether the request is waiting for the host limits
+     */
+    public boolean isQueued() {
+        return this.request.isQueued();
+    }
+
+    public @Nullable String getUploadProgress() {
+        return this.request.getUploadProgress();
+    }
+}
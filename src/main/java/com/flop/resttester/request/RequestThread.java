@@ -10,95 +10,129 @@ package com.flop.resttester.request;
 import com.flop.resttester.RestTesterNotifier;
 import com.flop.resttester.auth.AuthenticationData;
 import com.flop.resttester.auth.AuthenticationType;
+import com.flop.resttester.cache.CacheEntry;
+import com.flop.resttester.cache.CachePolicy;
+import com.flop.resttester.cache.CachedHttpResponse;
+import com.flop.resttester.cache.HttpResponseCache;
 import com.flop.resttester.components.keyvaluelist.KeyValuePair;
+import com.flop.resttester.response.CacheStatus;
+import com.flop.resttester.response.RequestAttempts;
+import com.flop.resttester.response.ResponseBody;
+import com.flop.resttester.response.ResponseBodySink;
+import com.flop.resttester.response.ResponseChunk;
 import com.flop.resttester.response.ResponseData;
+import com.flop.resttester.response.SseEvent;
+import com.flop.resttester.response.SseEventParser;
 import com.intellij.openapi.project.Project;
-import com.intellij.util.io.URLUtil;
 import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.io.FileUtils;
+import org.jetbrains.annotations.Nullable;
 
-import javax.net.ssl.*;
-import java.io.BufferedReader;
+import javax.net.ssl.SSLHandshakeException;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.Socket;
+import java.net.ConnectException;
+import java.net.InetAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.UnknownHostException;
 import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
-import java.security.cert.X509Certificate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
-public class RequestThread extends Thread {
+/**
+ * Executes a single http request. Started through the {@link RequestExecutor}, which runs it on a virtual thread.
+ */
+public class RequestThread implements Runnable {
+    /**
+     * Minimal body size for which the upload progress is displayed.
+     */
+    private static final long UPLOAD_PROGRESS_THRESHOLD = 1024 * 1024;
+
+    /**
+     * Number of failed reconnection attempts after which a lost event stream is given up.
+     */
+    private static final int MAX_RECONNECT_ATTEMPTS = 5;
+    /**
+     * Number of reconnections after which an event stream is ended, even if every reconnection succeeded.
+     */
+    static final int MAX_RECONNECTS = 100;
+    /**
+     * Returned by {@link #readOrEnd} when the connection was lost instead of closed by the server.
+     */
+    private static final int CONNECTION_LOST = -2;
+
     private final Project project;
     private final RequestData data;
     private final RequestResponseListener responseListener;
+    private final ResponseChunkListener chunkListener;
     private final RequestFinishedListener requestFinishedListener;
-    private boolean stopped = false;
-    private long startTime = 0;
-
-    private HttpClient httpClient;
+    private volatile boolean stopped = false;
+    private volatile RequestTimer timer;
+
+    private volatile InputStream responseStream;
+    private CountingInputStream wireStream;
+    // bytes received by the previous connections of a reconnected event stream
+    private long previousTransferSize = 0;
+    private volatile CountingBodyPublisher uploadPublisher;
+    private int attempts = 0;
+    private boolean hedged = false;
+    private CacheStatus cacheStatus = CacheStatus.None;
+    private long chunkSequence = 0;
+    private int reconnects = 0;
+    private long gapMillis = 0;
 
     public RequestThread(
             Project project,
             RequestData data,
             RequestResponseListener responseListener,
+            ResponseChunkListener chunkListener,
             RequestFinishedListener requestFinishedListener
     ) {
         this.project = project;
         this.data = data;
         this.responseListener = responseListener;
+        this.chunkListener = chunkListener;
         this.requestFinishedListener = requestFinishedListener;
     }
 
     @Override
     public void run() {
-        this.startTime = System.currentTimeMillis();
-
-        StringBuilder urlString = new StringBuilder();
+        this.timer = new RequestTimer();
 
-        String url = this.data.url();
-
-        if (url.startsWith("/")) {
-            urlString.append(this.data.baseUrl());
-        }
-        urlString.append(url);
-
-        if (this.data.queryParams() != null && !this.data.queryParams().isEmpty()) {
-            String params = this.data.queryParams().stream().filter(param -> !param.key.isEmpty())
-                    // unsafe characters will be replaced at the end
-                    .map(param -> param.key + '=' + param.value).collect(Collectors.joining("&"));
-
-            if (this.data.url().indexOf('?') == -1) {
-                urlString.append('?');
-            } else {
-                urlString.append('&');
-            }
-            urlString.append(params);
-        }
+        String urlString = RequestThread.buildUrl(this.data);
 
         URI uri;
         try {
             // Since the user might have added params to the url directly we need to replace unsafe characters after the url is build
-            String encodedUrl = RequestThread.encodeUrl(urlString.toString());
+            String encodedUrl = UrlTemplate.compile(this.data).render();
             uri = new URI(encodedUrl);
         } catch (URISyntaxException e) {
             if (!this.stopped) {
                 ResponseData data = new ResponseData(
-                        urlString.toString(),
+                        urlString,
                         null,
                         null,
                         -1,
-                        "".getBytes(),
+                        ResponseBody.EMPTY,
                         Collections.emptyList(),
                         e.getMessage().getBytes(StandardCharsets.UTF_8),
-                        this.getElapsedTime()
+                        this.getElapsedTime(),
+                        this.timer.snapshot(),
+                        this.getTransferSize(),
+                        new RequestAttempts(this.attempts, this.hedged),
+                        this.cacheStatus
                 );
                 this.responseListener.onRequestResponse(data);
                 this.requestFinishedListener.onRequestFinished();
@@ -106,27 +140,33 @@ public class RequestThread extends Thread {
             return;
         }
 
-        HttpClient.Builder clientBuilder = HttpClient.newBuilder();
-
         HttpRequest.Builder builder;
 
         // create a request
         try {
-            builder = HttpRequest.newBuilder(uri).method(
-                    this.data.type().toString(),
-                    HttpRequest.BodyPublishers.ofString(this.data.body())
+            RequestBody body = RequestBody.of(this.data);
+            this.uploadPublisher = new CountingBodyPublisher(body.publisher());
+            builder = RequestThread.createRequestBuilder(
+                    this.project,
+                    this.data,
+                    uri,
+                    new RequestBody(this.uploadPublisher, body.contentType())
             );
         } catch (Exception e) {
             if (!this.stopped) {
                 ResponseData data = new ResponseData(
-                        urlString.toString(),
+                        urlString,
                         null,
                         null,
                         -1,
-                        "".getBytes(),
+                        ResponseBody.EMPTY,
                         Collections.emptyList(),
                         e.getMessage().getBytes(StandardCharsets.UTF_8),
-                        this.getElapsedTime()
+                        this.getElapsedTime(),
+                        this.timer.snapshot(),
+                        this.getTransferSize(),
+                        new RequestAttempts(this.attempts, this.hedged),
+                        this.cacheStatus
                 );
                 this.responseListener.onRequestResponse(data);
                 this.requestFinishedListener.onRequestFinished();
@@ -134,81 +174,68 @@ public class RequestThread extends Thread {
             return;
         }
 
-        if (this.data.authData() != null) {
-            AuthenticationData authData = this.data.authData();
+        // fresh cached responses are answered without a request, stale ones are revalidated by the server
+        HttpResponseCache cache = null;
+        CacheEntry cached = null;
 
-            if (authData.getType() == AuthenticationType.Basic) {
-                String auth = authData.getUsername() + ":" + authData.getPassword();
-                byte[] encodedAuth = Base64.encodeBase64(auth.getBytes(StandardCharsets.UTF_8));
-                String authHeaderValue = "Basic " + new String(encodedAuth);
-                builder = builder.header("Authorization", authHeaderValue);
-            } else if (authData.getType() == AuthenticationType.BearerToken) {
-                String authHeaderValue = "Bearer " + this.data.authData().getToken();
-                builder = builder.header("Authorization", authHeaderValue);
-            }
-        }
+        if (this.data.cacheScope() != null && this.data.type() == RequestType.GET) {
+            HttpRequest plainRequest = builder.build();
 
-        Map<String, String> headersMap = new HashMap<>();
-        if (this.data.headers() != null) {
-            List<KeyValuePair> headers = this.data.headers().stream().filter(param -> !param.key.isEmpty()).toList();
+            if (CachePolicy.isCacheAllowed(plainRequest.headers())) {
+                cache = HttpResponseCache.getInstance();
+                cached = cache.lookup(this.data.cacheScope(), plainRequest);
 
-            if (!headers.isEmpty()) {
-                for (KeyValuePair header : headers) {
-                    try {
-                        builder = builder.header(header.key, header.value);
-                    } catch (IllegalArgumentException ignored) {
-                        RestTesterNotifier.notifyInfo(
-                                this.project,
-                                "Rest Tester: Request contained invalid header '" + header.key + "' with value '" + header.value + "'."
-                        );
-                    }
-                    headersMap.put(header.key.toLowerCase(), header.value);
+                if (cached != null && cached.isFresh(System.currentTimeMillis()) && !CachePolicy.requiresValidation(plainRequest.headers())
+                        && this.respondFromCache(plainRequest, cache, cached, CacheStatus.Hit)) {
+                    this.requestFinishedListener.onRequestFinished();
+                    return;
                 }
-            }
-        }
 
-        if (!headersMap.containsKey("content-type")) {
-            if (this.data.type() == RequestType.PATCH || this.data.type() == RequestType.POST || this.data.type() == RequestType.PUT) {
-                if (this.data.bodyType() == RequestBodyType.JSON) {
-                    builder = builder.header("Content-Type", "application/json");
-                } else if (this.data.bodyType() == RequestBodyType.XML) {
-                    builder = builder.header("Content-Type", "application/xml");
-                } else {
-                    builder = builder.header("Content-Type", "text/plain");
+                if (cached != null && !RequestThread.addValidators(builder, cached, plainRequest.headers())) {
+                    cached = null;
                 }
             }
         }
 
-        if (!this.data.validateSSL()) {
-            TrustManager DUMMY_TRUST_MANAGER = this.getFakeTrustManager();
-            SSLContext sslContext;
-            try {
-                sslContext = SSLContext.getInstance("TLSv1.2");
-                sslContext.init(null, new TrustManager[]{DUMMY_TRUST_MANAGER}, new SecureRandom());
-                clientBuilder.sslContext(sslContext);
-            } catch (NoSuchAlgorithmException | KeyManagementException e) {
-                // ignore
-            }
+        // requests which exceed the host limits of the environment wait here, the wait is not part of the request time
+        HostLimiter.Permit permit;
+        this.timer.markQueueStart();
+        try {
+            permit = HostLimiter.getInstance().acquire(uri.getHost(), this.data.hostLimit());
+        } catch (InterruptedException e) {
+            this.requestFinishedListener.onRequestFinished();
+            return;
+        } finally {
+            this.timer.markQueueEnd();
         }
 
-        if (this.data.allowRedirect()) {
-            clientBuilder = clientBuilder.followRedirects(HttpClient.Redirect.NORMAL);
-        }
+        RequestThread.resolveHost(uri.getHost(), this.timer);
 
-        this.httpClient = clientBuilder.build();
+        HttpClientRegistry clientRegistry = HttpClientRegistry.getInstance();
+        HttpClient httpClient = clientRegistry.borrow(HttpClientProfile.of(this.data));
         HttpRequest request = builder.build();
+        this.timer.setConnectionReused(clientRegistry.isConnected(HttpClientProfile.of(this.data), uri));
 
         // store body and content type for later, so we can display the data in case of an error
-        // should only be relevant in case of event streams which can have multiple responses
-        StringBuilder responseBody = new StringBuilder();
+        // bodies above the memory limit are written to a temporary file
+        ResponseBodySink responseBody = new ResponseBodySink(this.data.bodyMemoryLimit());
         AtomicReference<List<String>> contentType = new AtomicReference<>(Collections.emptyList());
+        // the body file is deleted when the run ends without handing the body to the listener
+        boolean bodyDelivered = false;
 
         try {
-            HttpResponse<InputStream> response = this.httpClient.send(
-                    request,
-                    HttpResponse.BodyHandlers.ofInputStream()
-            );
+            HttpResponse<InputStream> response = this.send(httpClient, request);
             int responseCode = response.statusCode();
+            clientRegistry.markConnected(httpClient, uri);
+
+            if (cached != null && responseCode == 304) {
+                CacheEntry revalidated = cache.revalidate(cached, response);
+
+                if (revalidated != null && this.respondFromCache(request, cache, revalidated, CacheStatus.Revalidated)) {
+                    response.body().close();
+                    return;
+                }
+            }
 
             try {
                 contentType.set(response.headers().map().get("Content-Type"));
@@ -216,45 +243,73 @@ public class RequestThread extends Thread {
             }
 
             var type = contentType.get().getFirst();
-            var stream = response.body();
-
-            if (type.contains("image") && !type.contains("svg")) {
-                ResponseData data = new ResponseData(
+            this.wireStream = new CountingInputStream(response.body());
+            this.responseStream = this.wireStream;
+            var stream = ContentDecoder.decode(this.wireStream, response.headers().allValues("Content-Encoding"));
+
+            if (type.contains("event-stream")) {
+                // Deliver the headers first. Afterward, only the received events are sent as chunks,
+                // so neither the body nor the displayed events have to be copied for every event.
+                ResponseData headerData = new ResponseData(
                         request.uri().toString(),
                         request,
                         response,
                         responseCode,
-                        stream.readAllBytes(),
+                        ResponseBody.EMPTY,
                         contentType.get(),
                         "".getBytes(),
-                        this.getElapsedTime()
+                        this.getElapsedTime(),
+                        this.timer.snapshot(),
+                        this.getTransferSize(),
+                        new RequestAttempts(this.attempts, this.hedged),
+                        this.cacheStatus
                 );
-                this.responseListener.onRequestResponse(data);
+                this.responseListener.onRequestResponse(headerData);
+
+                String error = this.readEventStream(httpClient, request, stream, responseBody);
+
+                if (!this.stopped) {
+                    bodyDelivered = true;
+                    ResponseData data = new ResponseData(
+                            request.uri().toString(),
+                            request,
+                            response,
+                            responseCode,
+                            responseBody.toBody(),
+                            contentType.get(),
+                            error.getBytes(StandardCharsets.UTF_8),
+                            this.getElapsedTime(),
+                            this.timer.snapshot(),
+                            this.getTransferSize(),
+                            new RequestAttempts(this.attempts, this.hedged),
+                            this.cacheStatus
+                    );
+                    this.responseListener.onRequestResponse(data);
+                }
             } else {
-                // The response can hase multiple sync messages, e.g. in case of a sse event request.
-                var reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8));
-                reader.lines().forEach(line -> {
-                    responseBody.append(line);
+                stream.transferTo(responseBody);
+                ResponseBody body = responseBody.toBody();
 
-                    if (!line.isBlank()) {
-                        responseBody.append("\n");
-                    }
+                if (cache != null && !this.stopped) {
+                    cache.store(this.data.cacheScope(), request, response, body);
+                }
 
-                    if (!this.stopped) {
-                        ResponseData data = new ResponseData(
-                                request.uri().toString(),
-                                request,
-                                response,
-                                responseCode,
-                                responseBody.toString().getBytes(),
-                                contentType.get(),
-                                "".getBytes(),
-                                this.getElapsedTime()
-                        );
-                        this.responseListener.onRequestResponse(data);
-                    }
-                });
-                reader.close();
+                ResponseData data = new ResponseData(
+                        request.uri().toString(),
+                        request,
+                        response,
+                        responseCode,
+                        body,
+                        contentType.get(),
+                        "".getBytes(),
+                        this.getElapsedTime(),
+                        this.timer.snapshot(),
+                        this.getTransferSize(),
+                        new RequestAttempts(this.attempts, this.hedged),
+                        this.cacheStatus
+                );
+                bodyDelivered = true;
+                this.responseListener.onRequestResponse(data);
             }
             stream.close();
 
@@ -263,14 +318,18 @@ public class RequestThread extends Thread {
                 if (e instanceof SSLHandshakeException) {
                     String error = e.getMessage() + "\n\nTry changing the rest tester setting to allow requests without ssl validation.";
                     ResponseData data = new ResponseData(
-                            urlString.toString(),
+                            urlString,
                             request,
                             null,
                             -1,
-                            "".getBytes(),
+                            ResponseBody.EMPTY,
                             Collections.emptyList(),
                             error.getBytes(StandardCharsets.UTF_8),
-                            this.getElapsedTime()
+                            this.getElapsedTime(),
+                            this.timer.snapshot(),
+                            this.getTransferSize(),
+                            new RequestAttempts(this.attempts, this.hedged),
+                            this.cacheStatus
                     );
                     this.responseListener.onRequestResponse(data);
                     this.requestFinishedListener.onRequestFinished();
@@ -284,142 +343,513 @@ public class RequestThread extends Thread {
                 }
 
                 ResponseData data = new ResponseData(
-                        urlString.toString(),
+                        urlString,
                         request,
                         null,
                         -1,
-                        responseBody.toString().getBytes(),
+                        RequestThread.getPartialBody(responseBody),
                         contentType.get(),
                         messageBytes,
-                        this.getElapsedTime()
+                        this.getElapsedTime(),
+                        this.timer.snapshot(),
+                        this.getTransferSize(),
+                        new RequestAttempts(this.attempts, this.hedged),
+                        this.cacheStatus
                 );
+                bodyDelivered = true;
                 this.responseListener.onRequestResponse(data);
             }
         } finally {
+            this.responseStream = null;
+            if (bodyDelivered) {
+                try {
+                    responseBody.close();
+                } catch (IOException ignore) {
+                }
+            } else {
+                responseBody.discard();
+            }
+            clientRegistry.release(httpClient);
+            permit.close();
             this.requestFinishedListener.onRequestFinished();
         }
+    }
+
+    /**
+     * Reads the events of the stream and reconnects when the connection is lost, as browsers do for server-sent events.
+     * The reconnection waits for the retry time of the stream and sends the id of the last event, so the server can
+     * continue after it. The stream ends when the server closes it or answers the reconnection with 204.
+     *
+     * @return message why the stream was not reconnected, empty if the stream was ended by the server or the user
+     */
+    private String readEventStream(HttpClient client, HttpRequest request, InputStream stream, ResponseBodySink responseBody) throws IOException {
+        SseEventParser parser = new SseEventParser();
+        byte[] buffer = new byte[8192];
+
+        while (true) {
+            int read;
+            while ((read = RequestThread.readOrEnd(stream, buffer)) >= 0) {
+                responseBody.write(buffer, 0, read);
+                parser.feed(buffer, 0, read, System.currentTimeMillis(), (event) -> this.sendChunk(event, responseBody.size()));
+            }
+            stream.close();
+
+            if (this.stopped) {
+                return "";
+            }
+
+            boolean lost = read == CONNECTION_LOST;
+            if (!RequestThread.shouldReconnect(request.method(), lost, this.reconnects)) {
+                if (!lost) {
+                    return "";
+                }
+                return "Lost the connection to the event stream" + (this.reconnects >= MAX_RECONNECTS
+                        ? ", it was already reconnected " + this.reconnects + " times."
+                        : ", only GET requests are reconnected.");
+            }
+
+            // the incomplete event of the lost connection is discarded
+            parser.reset();
+            long lostAt = System.currentTimeMillis();
+            HttpResponse<InputStream> response = null;
+            String error = "";
+
+            for (int attempt = 0; response == null; attempt++) {
+                if (attempt == MAX_RECONNECT_ATTEMPTS) {
+                    return "Lost the connection to the event stream, reconnecting failed " + attempt + " times. " + error;
+                }
+
+                try {
+                    Thread.sleep(parser.getRetryMillis());
+                    response = client.send(RequestThread.createReconnectRequest(request, parser.getLastEventId()), HttpResponse.BodyHandlers.ofInputStream());
+                } catch (InterruptedException e) {
+                    // the request was canceled
+                    return "";
+                } catch (IOException e) {
+                    error = e.getMessage() == null ? "" : e.getMessage();
+                }
+            }
+
+            String type = response.headers().firstValue("Content-Type").orElse("");
+            if (this.stopped || response.statusCode() != 200 || !type.contains("event-stream")) {
+                response.body().close();
 
-        if (this.httpClient != null) {
-            this.httpClient.shutdown();
+                // 204 No Content tells the client to stop reconnecting
+                if (this.stopped || response.statusCode() == 204) {
+                    return "";
+                }
+                return "Lost the connection to the event stream, the server answered the reconnection with "
+                        + response.statusCode() + (type.isEmpty() ? "" : " (" + type + ")") + ".";
+            }
+
+            this.reconnects++;
+            this.gapMillis += System.currentTimeMillis() - lostAt;
+            this.previousTransferSize = this.getTransferSize();
+            this.wireStream = new CountingInputStream(response.body());
+            this.responseStream = this.wireStream;
+            stream = ContentDecoder.decode(this.wireStream, response.headers().allValues("Content-Encoding"));
+
+            if (this.stopped) {
+                stream.close();
+                return "";
+            }
+            this.sendChunk(null, responseBody.size());
         }
     }
 
-    public void stopRequest() {
-        this.stopped = true;
-        if (this.httpClient != null) {
-            this.httpClient.shutdownNow();
-            this.httpClient = null;
+    /**
+     * @return number of bytes read, -1 if the server closed the stream or {@link #CONNECTION_LOST}
+     */
+    private static int readOrEnd(InputStream stream, byte[] buffer) {
+        try {
+            return stream.read(buffer);
+        } catch (IOException e) {
+            return CONNECTION_LOST;
         }
     }
 
-    public String getElapsedTime() {
-        if (this.startTime == 0) {
-            return "0 s";
+    /**
+     * Only lost connections of GET requests are reconnected, as EventSource of browsers only sends GET requests.
+     * Other methods are not sent again since they may not be idempotent. A stream closed by the server ends the
+     * request, so finite streams finish.
+     */
+    static boolean shouldReconnect(String method, boolean connectionLost, int reconnects) {
+        return connectionLost && method.equals("GET") && reconnects < MAX_RECONNECTS;
+    }
+
+    /**
+     * Copies the request with the id of the last received event, the server may continue the stream after this event.
+     */
+    static HttpRequest createReconnectRequest(HttpRequest request, @Nullable String lastEventId) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> !name.equalsIgnoreCase("Last-Event-ID"));
+
+        if (lastEventId != null && !lastEventId.isEmpty()) {
+            builder.header("Last-Event-ID", lastEventId);
         }
+        return builder.build();
+    }
 
-        long time = System.currentTimeMillis() - this.startTime;
-        if (time > 60_000) {
-            int minutes = (int) time / 60_000;
-            int sec = (int) (time - minutes * 60_000) / 1000;
-            return String.format("%d", minutes) + " m " + String.format("%d", sec) + " s";
+    private void sendChunk(@Nullable SseEvent event, long totalSize) {
+        if (!this.stopped) {
+            this.chunkListener.onResponseChunk(new ResponseChunk(this.chunkSequence++, event, totalSize, this.reconnects, this.gapMillis));
         }
-        return String.format("%.1f", (System.currentTimeMillis() - this.startTime) / 1000f) + " s";
     }
 
-    private X509ExtendedTrustManager getFakeTrustManager() {
-        return new X509ExtendedTrustManager() {
-            @Override
-            public java.security.cert.X509Certificate[] getAcceptedIssuers() {
-                return new java.security.cert.X509Certificate[0];
-            }
+    /**
+     * Answers the request with a copy of the cached response.
+     *
+     * @return false if the cached body could not be read, e.g. because it was evicted in the meantime
+     */
+    private boolean respondFromCache(HttpRequest request, HttpResponseCache cache, CacheEntry entry, CacheStatus status) {
+        HttpResponse<InputStream> response = new CachedHttpResponse(request, entry);
+        ResponseBody body;
+
+        ResponseBodySink sink = new ResponseBodySink(this.data.bodyMemoryLimit());
+        try (sink) {
+            cache.copyBody(entry, sink);
+            body = sink.toBody();
+        } catch (IOException e) {
+            sink.discard();
+            return false;
+        }
 
-            @Override
-            public void checkServerTrusted(java.security.cert.X509Certificate[] chain, String authType) {
-            }
+        this.cacheStatus = status;
+        ResponseData data = new ResponseData(
+                request.uri().toString(),
+                request,
+                response,
+                response.statusCode(),
+                body,
+                response.headers().allValues("Content-Type"),
+                "".getBytes(),
+                this.getElapsedTime(),
+                this.timer.snapshot(),
+                this.getTransferSize(),
+                new RequestAttempts(this.attempts, this.hedged),
+                this.cacheStatus
+        );
+        this.responseListener.onRequestResponse(data);
+        return true;
+    }
+
+    /**
+     * Adds the validators of the cached response, unless the user already set conditional headers.
+     *
+     * @return whether a validator was added, only then a 304 response refers to the cached response
+     */
+    private static boolean addValidators(HttpRequest.Builder builder, CacheEntry entry, HttpHeaders requestHeaders) {
+        if (requestHeaders.firstValue("If-None-Match").isPresent() || requestHeaders.firstValue("If-Modified-Since").isPresent()) {
+            return false;
+        }
+
+        boolean added = false;
+        String etag = entry.getHeader("ETag");
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+            added = true;
+        }
 
-            @Override
-            public void checkClientTrusted(java.security.cert.X509Certificate[] chain, String authType) {
+        String lastModified = entry.getHeader("Last-Modified");
+        if (lastModified != null) {
+            builder.header("If-Modified-Since", lastModified);
+            added = true;
+        }
+        return added;
+    }
+
+    /**
+     * Sends the request and repeats it according to the retry policy of the request.
+     * Connect errors are always retried, error responses only if {@link RetryPolicy#isRetryable} allows it.
+     */
+    private HttpResponse<InputStream> send(HttpClient client, HttpRequest request) throws IOException, InterruptedException {
+        RetryPolicy policy = this.data.retryPolicy();
+
+        for (int retry = 0; ; retry++) {
+            this.attempts = retry + 1;
+            this.timer.markSendStart();
+
+            HttpResponse<InputStream> response;
+            try {
+                response = this.sendAttempt(client, request, policy);
+            } catch (ConnectException | HttpConnectTimeoutException e) {
+                if (retry >= policy.maxRetries() || this.stopped) {
+                    throw e;
+                }
+                Thread.sleep(policy.getBackoffMillis(retry, null));
+                continue;
             }
+            this.timer.markFirstByte();
 
-            @Override
-            public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+            if (retry >= policy.maxRetries() || this.stopped || !RetryPolicy.isRetryable(this.data.type(), response.statusCode())) {
+                return response;
             }
 
-            @Override
-            public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) {
+            // the body of the failed attempt is of no interest, closing it releases the connection
+            response.body().close();
+            Thread.sleep(policy.getBackoffMillis(retry, response.headers().firstValue("Retry-After").orElse(null)));
+        }
+    }
+
+    /**
+     * Sends the request once. If hedging is enabled, a second request is sent when there is no response
+     * after the hedging delay, and the first response of both is used.
+     */
+    private HttpResponse<InputStream> sendAttempt(HttpClient client, HttpRequest request, RetryPolicy policy) throws IOException, InterruptedException {
+        if (!policy.isHedging() || !RetryPolicy.isIdempotent(this.data.type())) {
+            return client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        }
+
+        var primary = client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        CompletableFuture<HttpResponse<InputStream>> hedge = null;
+
+        try {
+            try {
+                return primary.get(policy.hedgeAfterMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ignore) {
             }
 
-            @Override
-            public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+            this.hedged = true;
+            hedge = client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+
+            var winner = RequestThread.firstSuccessful(primary, hedge);
+            return winner.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            RequestThread.discardLoser(primary);
+            if (hedge != null) {
+                RequestThread.discardLoser(hedge);
             }
+        }
+    }
+
+    /**
+     * Completes with the first successful response. Fails only if both requests failed.
+     */
+    private static CompletableFuture<HttpResponse<InputStream>> firstSuccessful(
+            CompletableFuture<HttpResponse<InputStream>> first,
+            CompletableFuture<HttpResponse<InputStream>> second
+    ) {
+        CompletableFuture<HttpResponse<InputStream>> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+
+        for (var future : List.of(first, second)) {
+            future.whenComplete((response, error) -> {
+                if (error == null) {
+                    if (!winner.complete(response)) {
+                        // both requests succeeded, the slower response is not used
+                        try {
+                            response.body().close();
+                        } catch (IOException ignore) {
+                        }
+                    }
+                } else if (failures.incrementAndGet() == 2) {
+                    winner.completeExceptionally(error);
+                }
+            });
+        }
+        return winner;
+    }
+
+    /**
+     * Cancels a request which lost against its hedged counterpart or was interrupted.
+     * The response of the winner is untouched since its future is done and its body is still open.
+     */
+    private static void discardLoser(CompletableFuture<HttpResponse<InputStream>> future) {
+        if (!future.isDone()) {
+            future.cancel(true);
+        }
+    }
 
-            @Override
-            public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) {
+    /**
+     * Stops the request without closing the shared http client.
+     * Pending sends are aborted by interrupting the thread (see {@link RequestHandle#cancel()}),
+     * running response streams are closed directly.
+     */
+    public void stopRequest() {
+        this.stopped = true;
+
+        InputStream stream = this.responseStream;
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException ignore) {
             }
-        };
+        }
     }
 
     /**
-     * Encodes the given url, replacing all unsafe characters
-     * <p>
-     * Note: Why not use Java internal lib? Unsafe characters are only escaped if the url is already split into parts
+     * @return number of body bytes received over the network, which differs from the body size for compressed responses
      */
-    public static String encodeUrl(String url) throws URISyntaxException {
-        String scheme;
-        String host;
-        String path = "";
-        String query = "";
+    private long getTransferSize() {
+        return this.wireStream == null ? -1 : this.previousTransferSize + this.wireStream.getCount();
+    }
 
-        // remove scheme
-        if (url.contains("://")) {
-            String[] blocks = url.split("://");
-            scheme = blocks[0] + "://";
-            url = blocks[1];
-        } else {
-            // automatically add missing scheme
-            scheme = "https://";
+    private static ResponseBody getPartialBody(ResponseBodySink sink) {
+        try {
+            return sink.toBody();
+        } catch (IOException e) {
+            return ResponseBody.EMPTY;
         }
+    }
 
-        // remove query string
-        if (url.contains("?")) {
-            String[] blocks = url.split("\\?");
+    public String getElapsedTime() {
+        RequestTimer timer = this.timer;
+        if (timer == null) {
+            return "0 s";
+        }
 
-            query = "?";
+        long time = timer.getElapsedNanos() / 1_000_000;
+        if (time > 60_000) {
+            int minutes = (int) time / 60_000;
+            int sec = (int) (time - minutes * 60_000) / 1000;
+            return String.format("%d", minutes) + " m " + String.format("%d", sec) + " s";
+        }
+        return String.format("%.1f", time / 1000f) + " s";
+    }
 
-            String[] queryBlocks = blocks[1].split("#");
+    /**
+     * @return whether the request is waiting for the host limits
+     */
+    public boolean isQueued() {
+        RequestTimer timer = this.timer;
+        return timer != null && timer.isQueued();
+    }
 
-            query += Arrays.stream(queryBlocks[0].split("&")).map(pair -> {
-                String[] splits = pair.split("=");
+    /**
+     * Returns the upload progress of large request bodies, e.g. "12 MB of 300 MB (8.5 MB/s)".
+     *
+     * @return the progress or null if the body is too small to be of interest
+     */
+    public @Nullable String getUploadProgress() {
+        CountingBodyPublisher publisher = this.uploadPublisher;
+        if (publisher == null || publisher.contentLength() < UPLOAD_PROGRESS_THRESHOLD && publisher.contentLength() != -1) {
+            return null;
+        }
 
-                if (splits.length < 2) {
-                    return splits[0];
-                }
+        String progress = FileUtils.byteCountToDisplaySize(publisher.getCount());
+        if (publisher.contentLength() > 0) {
+            progress += " of " + FileUtils.byteCountToDisplaySize(publisher.contentLength());
+        }
+        long rate = (long) publisher.getBytesPerSecond();
+        return progress + " (" + FileUtils.byteCountToDisplaySize(rate) + "/s)";
+    }
+
+    /**
+     * Resolves the host before the request is sent, so the name resolution can be measured separately.
+     * The jvm caches the addresses, so the http client does not resolve the host a second time.
+     * Errors are ignored here, they are reported by the http client.
+     */
+    private static void resolveHost(@Nullable String host, RequestTimer timer) {
+        if (host == null) {
+            return;
+        }
 
-                return splits[0] + '=' + URLUtil.encodeURIComponent(splits[1]);
-            }).collect(Collectors.joining("&"));
+        timer.markResolveStart();
+        try {
+            InetAddress.getAllByName(host);
+        } catch (UnknownHostException ignore) {
+        }
+        timer.markResolveEnd();
+    }
+
+    /**
+     * Combines base url, url and query params of the request. Unsafe characters are not yet replaced.
+     */
+    public static String buildUrl(RequestData data) {
+        StringBuilder urlString = new StringBuilder();
 
-            if (queryBlocks.length > 1) {
-                query += "#" + queryBlocks[1];
+        String url = data.url();
+
+        if (url.startsWith("/")) {
+            urlString.append(data.baseUrl());
+        }
+        urlString.append(url);
+
+        if (data.queryParams() != null && !data.queryParams().isEmpty()) {
+            String params = data.queryParams().stream().filter(param -> !param.key.isEmpty())
+                    // unsafe characters will be replaced at the end
+                    .map(param -> param.key + '=' + param.value).collect(Collectors.joining("&"));
+
+            if (data.url().indexOf('?') == -1) {
+                urlString.append('?');
+            } else {
+                urlString.append('&');
             }
+            urlString.append(params);
+        }
+        return urlString.toString();
+    }
 
-            url = blocks[0];
+    /**
+     * Creates the request builder including body, authentication and headers of the given request data.
+     */
+    public static HttpRequest.Builder createRequestBuilder(@Nullable Project project, RequestData data, URI uri) throws IOException {
+        return RequestThread.createRequestBuilder(project, data, uri, RequestBody.of(data));
+    }
+
+    /**
+     * Creates the request builder with the given body, authentication and headers of the given request data.
+     */
+    public static HttpRequest.Builder createRequestBuilder(@Nullable Project project, RequestData data, URI uri, RequestBody body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).method(
+                data.type().toString(),
+                body.publisher()
+        );
+
+        if (data.authData() != null) {
+            AuthenticationData authData = data.authData();
+
+            if (authData.getType() == AuthenticationType.Basic) {
+                String auth = authData.getUsername() + ":" + authData.getPassword();
+                byte[] encodedAuth = Base64.encodeBase64(auth.getBytes(StandardCharsets.UTF_8));
+                String authHeaderValue = "Basic " + new String(encodedAuth);
+                builder = builder.header("Authorization", authHeaderValue);
+            } else if (authData.getType() == AuthenticationType.BearerToken) {
+                String authHeaderValue = "Bearer " + data.authData().getToken();
+                builder = builder.header("Authorization", authHeaderValue);
+            }
         }
 
-        // remove path
-        if (url.contains("/")) {
-            String[] blocks = url.split("/", -1);
+        Map<String, String> headersMap = new HashMap<>();
+        if (data.headers() != null) {
+            List<KeyValuePair> headers = data.headers().stream().filter(param -> !param.key.isEmpty()).toList();
+
+            if (!headers.isEmpty()) {
+                for (KeyValuePair header : headers) {
+                    try {
+                        builder = builder.header(header.key, header.value);
+                    } catch (IllegalArgumentException ignored) {
+                        RestTesterNotifier.notifyInfo(
+                                project,
+                                "Rest Tester: Request contained invalid header '" + header.key + "' with value '" + header.value + "'."
+                        );
+                    }
+                    headersMap.put(header.key.toLowerCase(), header.value);
+                }
+            }
+        }
 
-            host = blocks[0];
+        if (data.acceptCompression() && !headersMap.containsKey("accept-encoding")) {
+            builder = builder.header("Accept-Encoding", ContentDecoder.ACCEPT_ENCODING);
+        }
 
-            for (int i = 1; i < blocks.length; i++) {
-                path += "/" + blocks[i];
+        if (!headersMap.containsKey("content-type")) {
+            if (data.type() == RequestType.PATCH || data.type() == RequestType.POST || data.type() == RequestType.PUT) {
+                builder = builder.header("Content-Type", body.contentType());
             }
-            // escape path
-            path = URLUtil.encodePath(path);
-        } else {
-            host = url;
         }
+        return builder;
+    }
 
-        return scheme + host + path + query;
+    /**
+     * Encodes the given url, replacing all unsafe characters.
+     * Use {@link UrlTemplate} directly if the same url is sent multiple times.
+     */
+    public static String encodeUrl(String url) throws URISyntaxException {
+        return UrlTemplate.compile(url).render();
     }
 }
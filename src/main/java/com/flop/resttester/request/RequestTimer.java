@@ -0,0 +1,88 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import com.flop.resttester.response.ResponseTiming;
+
+/**
+ * Collects the points in time at which a request enters its phases, based on {@link System#nanoTime()}.
+ */
+public class RequestTimer {
+    private final long startTime = System.nanoTime();
+    private long queueStart = 0;
+    private long queueEnd = 0;
+    private long resolveStart = 0;
+    private long resolveEnd = 0;
+    private long sendStart = 0;
+    private long firstByte = 0;
+    private boolean connectionReused = false;
+
+    public void markQueueStart() {
+        this.queueStart = System.nanoTime();
+    }
+
+    public void markQueueEnd() {
+        this.queueEnd = System.nanoTime();
+    }
+
+    public boolean isQueued() {
+        return this.queueStart != 0 && this.queueEnd == 0;
+    }
+
+    /**
+     * @return time spent waiting for the host limits until now
+     */
+    public long getQueueNanos() {
+        if (this.queueStart == 0) {
+            return 0;
+        }
+        return (this.queueEnd != 0 ? this.queueEnd : System.nanoTime()) - this.queueStart;
+    }
+
+    public void markResolveStart() {
+        this.resolveStart = System.nanoTime();
+    }
+
+    public void markResolveEnd() {
+        this.resolveEnd = System.nanoTime();
+    }
+
+    public void markSendStart() {
+        this.sendStart = System.nanoTime();
+    }
+
+    public void markFirstByte() {
+        this.firstByte = System.nanoTime();
+    }
+
+    public void setConnectionReused(boolean connectionReused) {
+        this.connectionReused = connectionReused;
+    }
+
+    /**
+     * @return time since the start of the request without the queue wait
+     */
+    public long getElapsedNanos() {
+        return System.nanoTime() - this.startTime - this.getQueueNanos();
+    }
+
+    /**
+     * Returns the durations of all phases which were reached until now.
+     */
+    public ResponseTiming snapshot() {
+        long now = System.nanoTime();
+
+        long resolve = this.resolveEnd != 0 ? this.resolveEnd - this.resolveStart : 0;
+        long firstByte = this.firstByte != 0 ? this.firstByte - this.sendStart : 0;
+        long download = this.firstByte != 0 ? now - this.firstByte : 0;
+
+        long queue = this.getQueueNanos();
+
+        return new ResponseTiming(queue, resolve, firstByte, download, now - this.startTime - queue, this.connectionReused);
+    }
+}
@@ -150,7 +150,7 @@ public class RequestWindow {
     private final DocumentListener plainBodyChangeListener = new DocumentListener() {
         @Override
         public void documentChanged(@NotNull DocumentEvent event) {
-            if (!RequestWindow.this.bodyTypePicker.getSelectedItem().equals(RequestBodyType.Plain)) {
+            if (!RequestWindow.usesPlainEditor((RequestBodyType) RequestWindow.this.bodyTypePicker.getSelectedItem())) {
                 return;
             }
 
@@ -169,6 +169,10 @@ public class RequestWindow {
             if (RequestWindow.this.selection != null && !RequestWindow.this.selection.getUrl().equals(RequestWindow.this.urlInputField.getText())) {
                 RequestWindow.this.selection.setUrl(RequestWindow.this.urlInputField.getText());
                 RequestWindow.this.updateSelection();
+
+                if (RequestWindow.this.windowListener != null) {
+                    RequestWindow.this.windowListener.onUrlChange();
+                }
             }
         }
     };
@@ -270,10 +274,35 @@ public class RequestWindow {
         this.bodyTypePicker.addItem(RequestBodyType.JSON);
         this.bodyTypePicker.addItem(RequestBodyType.XML);
         this.bodyTypePicker.addItem(RequestBodyType.Plain);
+        this.bodyTypePicker.addItem(RequestBodyType.File);
+        this.bodyTypePicker.addItem(RequestBodyType.Form);
+        this.bodyTypePicker.addItem(RequestBodyType.Multipart);
         this.bodyTypePicker.setSelectedIndex(0);
         this.lastSelection = (RequestBodyType) this.bodyTypePicker.getSelectedItem();
 
         this.bodyTypePicker.addActionListener(this::setBodyTextField);
+        this.bodyTypePicker.addActionListener((e) -> this.updateBodyTypeHint());
+    }
+
+    /**
+     * File and form bodies are described by plain text, see {@link RequestBodyType}.
+     */
+    private static boolean usesPlainEditor(RequestBodyType type) {
+        return type != RequestBodyType.JSON && type != RequestBodyType.XML;
+    }
+
+    private void updateBodyTypeHint() {
+        RequestBodyType type = (RequestBodyType) this.bodyTypePicker.getSelectedItem();
+
+        String hint = null;
+        if (type == RequestBodyType.File) {
+            hint = "Path of the file which is uploaded as body";
+        } else if (type == RequestBodyType.Form) {
+            hint = "One 'name=value' field per line";
+        } else if (type == RequestBodyType.Multipart) {
+            hint = "One 'name=value' field per line, use 'name=@/path/to/file' to upload a file";
+        }
+        this.bodyTypePicker.setToolTipText(hint);
     }
 
     /**
@@ -285,7 +314,7 @@ public class RequestWindow {
             String content;
             if (this.lastSelection == RequestBodyType.XML) {
                 content = this.xmlBodyEditor.getEditor().getDocument().getText();
-            } else if (this.lastSelection == RequestBodyType.Plain) {
+            } else if (RequestWindow.usesPlainEditor(this.lastSelection)) {
                 content = this.plainBodyEditor.getEditor().getDocument().getText();
             } else {
                 content = this.jsonBodyEditor.getEditor().getDocument().getText();
@@ -311,7 +340,7 @@ public class RequestWindow {
             if (this.lastSelection == RequestBodyType.XML) {
                 this.xmlBodyEditor.getEditor().getDocument().setText(content);
                 this.editorWrapper.add(this.xmlBodyEditor.getEditor().getComponent(), constraints);
-            } else if (this.lastSelection == RequestBodyType.Plain) {
+            } else if (RequestWindow.usesPlainEditor(this.lastSelection)) {
                 this.plainBodyEditor.getEditor().getDocument().setText(content);
                 this.editorWrapper.add(this.plainBodyEditor.getEditor().getComponent(), constraints);
             } else {
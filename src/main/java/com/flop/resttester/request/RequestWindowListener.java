@@ -13,4 +13,9 @@ public interface RequestWindowListener extends EventListener {
     void onSendRequest();
 
     void onChange();
+
+    /**
+     * Called after every edit of the url.
+     */
+    void onUrlChange();
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import com.flop.resttester.response.ResponseChunk;
+
+import java.util.EventListener;
+
+public interface ResponseChunkListener extends EventListener {
+    void onResponseChunk(ResponseChunk chunk);
+}
@@ -0,0 +1,110 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Defines how often a request is repeated after connect errors, 5xx and 429 responses
+ * and whether a second (hedged) request is sent if the first one takes too long.
+ *
+ * @param maxRetries           number of retries after the first attempt, 0 disables retries
+ * @param initialBackoffMillis backoff before the first retry, doubled for every further retry
+ * @param hedgeAfterMillis     latency after which a hedged request is sent, 0 disables hedging
+ */
+public record RetryPolicy(
+        int maxRetries,
+        long initialBackoffMillis,
+        long hedgeAfterMillis
+) {
+    public static final RetryPolicy NONE = new RetryPolicy(0, 200, 0);
+
+    public static final long MAX_BACKOFF_MILLIS = 30_000;
+    public static final long MAX_RETRY_AFTER_MILLIS = 60_000;
+
+    public boolean isHedging() {
+        return this.hedgeAfterMillis > 0;
+    }
+
+    /**
+     * Server errors are only retried for idempotent requests, a POST or PATCH might already have been processed.
+     * 429 responses are always retried since the request was rejected before processing.
+     */
+    public static boolean isRetryable(RequestType type, int code) {
+        if (code == 429) {
+            return true;
+        }
+        return code >= 500 && code < 600 && RetryPolicy.isIdempotent(type);
+    }
+
+    public static boolean isIdempotent(RequestType type) {
+        return type != RequestType.POST && type != RequestType.PATCH;
+    }
+
+    /**
+     * Returns the delay before the given retry (starting at 0) using exponential backoff with full jitter.
+     * A delay requested by the server through Retry-After is used as lower bound.
+     */
+    public long getBackoffMillis(int retry, @Nullable String retryAfter) {
+        long exponential = Math.min(MAX_BACKOFF_MILLIS, this.initialBackoffMillis << Math.min(retry, 20));
+        long delay = ThreadLocalRandom.current().nextLong(exponential + 1);
+
+        long requested = RetryPolicy.parseRetryAfter(retryAfter);
+        return Math.max(delay, Math.min(requested, MAX_RETRY_AFTER_MILLIS));
+    }
+
+    /**
+     * Parses the value of a Retry-After header, which contains either seconds or a http date.
+     *
+     * @return the delay in milliseconds or 0 if the value is missing or invalid
+     */
+    static long parseRetryAfter(@Nullable String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException ignore) {
+        }
+
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+        } catch (DateTimeParseException ignore) {
+        }
+        return 0;
+    }
+
+    public JsonObject getAsJson() {
+        JsonObject jObj = new JsonObject();
+        jObj.addProperty("maxRetries", this.maxRetries);
+        jObj.addProperty("initialBackoff", this.initialBackoffMillis);
+        jObj.addProperty("hedgeAfter", this.hedgeAfterMillis);
+        return jObj;
+    }
+
+    public static RetryPolicy createFromJson(JsonObject jObj) {
+        if (!jObj.has("maxRetries") || !jObj.has("initialBackoff") || !jObj.has("hedgeAfter")) {
+            throw new RuntimeException("Invalid retry policy object.");
+        }
+
+        return new RetryPolicy(
+                jObj.get("maxRetries").getAsInt(),
+                jObj.get("initialBackoff").getAsLong(),
+                jObj.get("hedgeAfter").getAsLong()
+        );
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import net.miginfocom.swing.MigLayout;
+
+import javax.swing.*;
+import javax.swing.event.ChangeListener;
+
+/**
+ * Inputs of a {@link RetryPolicy}, used by the environment settings and the retry settings of single requests.
+ */
+public class RetryPolicyPanel extends JPanel {
+    private final JSpinner maxRetries = new JSpinner(new SpinnerNumberModel(0, 0, 10, 1));
+    private final JSpinner initialBackoff = new JSpinner(new SpinnerNumberModel(200, 10, (int) RetryPolicy.MAX_BACKOFF_MILLIS, 50));
+    private final JSpinner hedgeAfter = new JSpinner(new SpinnerNumberModel(0, 0, 60_000, 100));
+
+    public RetryPolicyPanel() {
+        super(new MigLayout("ins 0", "[]12[]", "[]4[]4[]"));
+
+        this.add(new JLabel("Retries:"));
+        this.add(this.maxRetries, "w 80!, wrap");
+
+        this.add(new JLabel("Initial backoff (ms):"));
+        this.add(this.initialBackoff, "w 80!, wrap");
+
+        this.add(new JLabel("Hedge after (ms):"));
+        this.add(this.hedgeAfter, "w 80!, wrap");
+
+        this.hedgeAfter.setToolTipText("Sends a second request if there is no response after this time, 0 disables hedging");
+    }
+
+    public void setPolicy(RetryPolicy policy) {
+        this.maxRetries.setValue(policy.maxRetries());
+        this.initialBackoff.setValue((int) policy.initialBackoffMillis());
+        this.hedgeAfter.setValue((int) policy.hedgeAfterMillis());
+    }
+
+    public RetryPolicy getPolicy() {
+        return new RetryPolicy(
+                ((Number) this.maxRetries.getValue()).intValue(),
+                ((Number) this.initialBackoff.getValue()).longValue(),
+                ((Number) this.hedgeAfter.getValue()).longValue()
+        );
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        this.maxRetries.addChangeListener(listener);
+        this.initialBackoff.addChangeListener(listener);
+        this.hedgeAfter.addChangeListener(listener);
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        super.setEnabled(enabled);
+        this.maxRetries.setEnabled(enabled);
+        this.initialBackoff.setEnabled(enabled);
+        this.hedgeAfter.setEnabled(enabled);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.util.ui.UIUtil;
+import net.miginfocom.swing.MigLayout;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+
+/**
+ * Retry settings of a single request, which either uses the policy of the environment or its own.
+ */
+public class RetrySettingsDialog extends DialogWrapper {
+    private final RetryPolicy environmentPolicy;
+    private final @Nullable RetryPolicy requestPolicy;
+
+    private JCheckBox useEnvironment;
+    private RetryPolicyPanel policyPanel;
+
+    public RetrySettingsDialog(String requestName, @Nullable RetryPolicy requestPolicy, RetryPolicy environmentPolicy) {
+        super(true);
+        this.requestPolicy = requestPolicy;
+        this.environmentPolicy = environmentPolicy;
+        setTitle("Retry Settings: " + requestName);
+        init();
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        JPanel dialogPanel = new JPanel(new MigLayout("ins 8", "[]", "[]8[]8[]"));
+
+        this.useEnvironment = new JCheckBox("Use environment settings", this.requestPolicy == null);
+        dialogPanel.add(this.useEnvironment, "wrap");
+
+        this.policyPanel = new RetryPolicyPanel();
+        this.policyPanel.setPolicy(this.requestPolicy != null ? this.requestPolicy : this.environmentPolicy);
+        this.policyPanel.setEnabled(this.requestPolicy != null);
+        dialogPanel.add(this.policyPanel, "wrap");
+
+        this.useEnvironment.addChangeListener((e) -> {
+            this.policyPanel.setEnabled(!this.useEnvironment.isSelected());
+            if (this.useEnvironment.isSelected()) {
+                this.policyPanel.setPolicy(this.environmentPolicy);
+            }
+        });
+
+        var info = new JBLabel(" Server errors are only retried and hedged for idempotent methods.", UIUtil.ComponentStyle.SMALL, UIUtil.FontColor.BRIGHTER);
+        dialogPanel.add(info);
+
+        return dialogPanel;
+    }
+
+    /**
+     * @return the policy of the request or null if the environment policy should be used
+     */
+    public @Nullable RetryPolicy getPolicy() {
+        if (this.useEnvironment.isSelected()) {
+            return null;
+        }
+        return this.policyPanel.getPolicy();
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import com.flop.resttester.components.keyvaluelist.KeyValuePair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * An url which is parsed and encoded once and can then be rendered many times, e.g. by load tests and collection runs.
+ * <p>
+ * Unsafe characters of the path, query keys and query values are replaced while compiling.
+ * Variable slots ({{name}}) are kept as separate parts and are encoded for the part of the url they appear in
+ * when the template is rendered. Slots without value are rendered as their encoded text.
+ * <p>
+ * If the url starts with a slot, e.g. {{host}}/users, the slot may contain the scheme. The default scheme is then
+ * only added if the rendered url has none.
+ */
+public final class UrlTemplate {
+    private static final byte RAW = 0;
+    private static final byte PATH = 1;
+    private static final byte COMPONENT = 2;
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final boolean[] UNRESERVED = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            UNRESERVED[c] = true;
+            UNRESERVED[Character.toUpperCase(c)] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            UNRESERVED[c] = true;
+        }
+        for (char c : "-_.!~*'()".toCharArray()) {
+            UNRESERVED[c] = true;
+        }
+    }
+
+    /**
+     * Encoded text of every part. For slots this is the text used if the variable has no value.
+     */
+    private final String[] literals;
+    /**
+     * Variable names of the slots, null for literal parts.
+     */
+    private final String[] slots;
+    private final byte[] modes;
+    /**
+     * Scheme which is added while rendering if the rendered url has none, null if the scheme is part of the literals.
+     */
+    private final String defaultScheme;
+    private final int lengthHint;
+
+    private UrlTemplate(String[] literals, String[] slots, byte[] modes, String defaultScheme) {
+        this.literals = literals;
+        this.slots = slots;
+        this.modes = modes;
+        this.defaultScheme = defaultScheme;
+
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.lengthHint = length + 16;
+    }
+
+    /**
+     * Compiles the url of the request, prefixed with the base url for relative urls, including its query params.
+     */
+    public static UrlTemplate compile(RequestData data) {
+        String url = data.url();
+
+        if (url.startsWith("/")) {
+            url = data.baseUrl() + url;
+        }
+
+        List<KeyValuePair> params = data.queryParams() != null ? data.queryParams() : List.of();
+        return UrlTemplate.compile(url, params);
+    }
+
+    public static UrlTemplate compile(String url) {
+        return UrlTemplate.compile(url, List.of());
+    }
+
+    static UrlTemplate compile(String url, List<KeyValuePair> params) {
+        Builder builder = new Builder();
+
+        // fragment and query are split off first, so their content can not be mistaken for path or scheme
+        String fragment = null;
+        int fragmentStart = UrlTemplate.indexOutsideSlots(url, '#', 0);
+        if (fragmentStart != -1) {
+            fragment = url.substring(fragmentStart + 1);
+            url = url.substring(0, fragmentStart);
+        }
+
+        String query = null;
+        int queryStart = UrlTemplate.indexOutsideSlots(url, '?', 0);
+        if (queryStart != -1) {
+            query = url.substring(queryStart + 1);
+            url = url.substring(0, queryStart);
+        }
+
+        // automatically add missing scheme
+        String scheme = "https://";
+        int schemeEnd = url.indexOf("://");
+        int firstSlash = url.indexOf('/');
+        if (schemeEnd != -1 && schemeEnd < firstSlash) {
+            scheme = url.substring(0, schemeEnd + 3);
+            url = url.substring(schemeEnd + 3);
+        } else if (url.startsWith("{{")) {
+            // the leading slot may contain the scheme, which is only known when rendering
+            builder.defaultScheme = scheme;
+            scheme = "";
+        }
+
+        int pathStart = UrlTemplate.indexOutsideSlots(url, '/', 0);
+        String authority = pathStart == -1 ? url : url.substring(0, pathStart);
+        String path = pathStart == -1 ? "" : url.substring(pathStart);
+
+        builder.addText(scheme + authority, RAW);
+        builder.addText(path, PATH);
+
+        List<KeyValuePair> validParams = params.stream().filter(param -> !param.key.isEmpty()).toList();
+
+        if (query != null || !validParams.isEmpty()) {
+            builder.addLiteral("?");
+        }
+
+        if (query != null) {
+            int start = 0;
+            while (start <= query.length()) {
+                int end = UrlTemplate.indexOutsideSlots(query, '&', start);
+                if (end == -1) {
+                    end = query.length();
+                }
+
+                if (start > 0) {
+                    builder.addLiteral("&");
+                }
+                builder.addPair(query.substring(start, end));
+                start = end + 1;
+            }
+        }
+
+        for (int i = 0; i < validParams.size(); i++) {
+            if (i > 0 || (query != null && !query.isEmpty())) {
+                builder.addLiteral("&");
+            }
+
+            KeyValuePair param = validParams.get(i);
+            builder.addText(param.key, COMPONENT);
+            builder.addLiteral("=");
+            builder.addText(param.value, COMPONENT);
+        }
+
+        if (fragment != null) {
+            builder.addLiteral("#");
+            builder.addText(fragment, RAW);
+        }
+
+        return builder.build();
+    }
+
+    public boolean hasVariables() {
+        for (String slot : this.slots) {
+            if (slot != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String render() {
+        return this.render((name) -> null);
+    }
+
+    public String render(Function<String, String> variables) {
+        StringBuilder out = new StringBuilder(this.lengthHint);
+        this.render(out, variables);
+        return out.toString();
+    }
+
+    /**
+     * Renders the url into the given buffer, which is cleared first. The buffer can be reused for every render.
+     *
+     * @param variables returns the value of a variable or null if it is unknown
+     */
+    public void render(StringBuilder out, Function<String, String> variables) {
+        out.setLength(0);
+
+        for (int i = 0; i < this.literals.length; i++) {
+            if (this.slots[i] == null) {
+                out.append(this.literals[i]);
+                continue;
+            }
+
+            String value = variables.apply(this.slots[i]);
+            if (value == null) {
+                out.append(this.literals[i]);
+            } else {
+                UrlTemplate.encode(value, this.modes[i], out);
+            }
+        }
+
+        if (this.defaultScheme != null && !UrlTemplate.hasScheme(out)) {
+            out.insert(0, this.defaultScheme);
+        }
+    }
+
+    private static boolean hasScheme(StringBuilder url) {
+        int schemeEnd = url.indexOf("://");
+        return schemeEnd != -1 && url.indexOf("/") > schemeEnd;
+    }
+
+    /**
+     * Percent encodes all characters except the unreserved ones (and '/' in paths) as utf-8.
+     */
+    static void encode(String text, byte mode, StringBuilder out) {
+        if (mode == RAW) {
+            out.append(text);
+            return;
+        }
+
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+
+            if (codePoint < 128 && (UNRESERVED[codePoint] || (mode == PATH && codePoint == '/'))) {
+                out.append((char) codePoint);
+                continue;
+            }
+
+            if (Character.isSurrogate((char) codePoint) && codePoint <= Character.MAX_VALUE) {
+                // unpaired surrogate
+                codePoint = 0xFFFD;
+            }
+
+            if (codePoint < 0x80) {
+                UrlTemplate.appendByte(codePoint, out);
+            } else if (codePoint < 0x800) {
+                UrlTemplate.appendByte(0xC0 | (codePoint >> 6), out);
+                UrlTemplate.appendByte(0x80 | (codePoint & 0x3F), out);
+            } else if (codePoint < 0x10000) {
+                UrlTemplate.appendByte(0xE0 | (codePoint >> 12), out);
+                UrlTemplate.appendByte(0x80 | ((codePoint >> 6) & 0x3F), out);
+                UrlTemplate.appendByte(0x80 | (codePoint & 0x3F), out);
+            } else {
+                UrlTemplate.appendByte(0xF0 | (codePoint >> 18), out);
+                UrlTemplate.appendByte(0x80 | ((codePoint >> 12) & 0x3F), out);
+                UrlTemplate.appendByte(0x80 | ((codePoint >> 6) & 0x3F), out);
+                UrlTemplate.appendByte(0x80 | (codePoint & 0x3F), out);
+            }
+        }
+    }
+
+    private static void appendByte(int value, StringBuilder out) {
+        out.append('%').append(HEX[(value >> 4) & 0xF]).append(HEX[value & 0xF]);
+    }
+
+    /**
+     * Same as {@link String#indexOf(int, int)} but ignores characters inside of variable slots.
+     */
+    private static int indexOutsideSlots(String text, char c, int from) {
+        int i = from;
+        while (i < text.length()) {
+            if (text.startsWith("{{", i)) {
+                int close = text.indexOf("}}", i + 2);
+                if (close != -1) {
+                    i = close + 2;
+                    continue;
+                }
+            }
+
+            if (text.charAt(i) == c) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private static class Builder {
+        private final List<String> literals = new ArrayList<>();
+        private final List<String> slots = new ArrayList<>();
+        private final List<Byte> modes = new ArrayList<>();
+        private final StringBuilder pending = new StringBuilder();
+        private String defaultScheme = null;
+
+        /**
+         * Adds already encoded text.
+         */
+        void addLiteral(String text) {
+            this.pending.append(text);
+        }
+
+        /**
+         * Adds a query pair, the value starts after the first '=' and may contain further '=' characters.
+         */
+        void addPair(String pair) {
+            int separator = UrlTemplate.indexOutsideSlots(pair, '=', 0);
+
+            if (separator == -1) {
+                this.addText(pair, COMPONENT);
+                return;
+            }
+
+            this.addText(pair.substring(0, separator), COMPONENT);
+            this.addLiteral("=");
+            this.addText(pair.substring(separator + 1), COMPONENT);
+        }
+
+        /**
+         * Adds unencoded text, which may contain variable slots.
+         */
+        void addText(String text, byte mode) {
+            int i = 0;
+
+            while (i < text.length()) {
+                int open = text.indexOf("{{", i);
+                int close = open == -1 ? -1 : text.indexOf("}}", open + 2);
+
+                if (close == -1) {
+                    UrlTemplate.encode(text.substring(i), mode, this.pending);
+                    return;
+                }
+
+                UrlTemplate.encode(text.substring(i, open), mode, this.pending);
+
+                StringBuilder placeholder = new StringBuilder();
+                UrlTemplate.encode(text.substring(open, close + 2), mode, placeholder);
+                this.addSlot(text.substring(open + 2, close).trim(), placeholder.toString(), mode);
+
+                i = close + 2;
+            }
+        }
+
+        private void addSlot(String name, String placeholder, byte mode) {
+            this.flush();
+            this.literals.add(placeholder);
+            this.slots.add(name);
+            this.modes.add(mode);
+        }
+
+        private void flush() {
+            if (this.pending.isEmpty()) {
+                return;
+            }
+            this.literals.add(this.pending.toString());
+            this.slots.add(null);
+            this.modes.add(RAW);
+            this.pending.setLength(0);
+        }
+
+        UrlTemplate build() {
+            this.flush();
+
+            byte[] modes = new byte[this.modes.size()];
+            for (int i = 0; i < modes.length; i++) {
+                modes[i] = this.modes.get(i);
+            }
+            return new UrlTemplate(this.literals.toArray(String[]::new), this.slots.toArray(String[]::new), modes, this.defaultScheme);
+        }
+    }
+}
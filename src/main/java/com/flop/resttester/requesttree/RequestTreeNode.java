@@ -10,6 +10,7 @@ package com.flop.resttester.requesttree;
 import com.flop.resttester.components.keyvaluelist.KeyValuePair;
 import com.flop.resttester.request.RequestBodyType;
 import com.flop.resttester.request.RequestType;
+import com.flop.resttester.request.RetryPolicy;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
@@ -117,6 +118,10 @@ public class RequestTreeNode extends DefaultMutableTreeNode implements Cloneable
         RequestTreeNodeData data;
         if (type != null && authDataKey != null && params != null && body != null && bodyType != null) {
             data = new RequestTreeNodeData(url, name, type, authDataKey, params, headers, body, bodyType);
+
+            if (obj.has("retryPolicy")) {
+                data.setRetryPolicy(RetryPolicy.createFromJson(obj.get("retryPolicy").getAsJsonObject()));
+            }
         } else {
             throw new RuntimeException("Invalid save sate node: " + name);
         }
@@ -167,6 +172,10 @@ public class RequestTreeNode extends DefaultMutableTreeNode implements Cloneable
         jNode.addProperty("body", data.getBody());
         jNode.addProperty("bodyType", data.getBodyType().toString());
 
+        if (data.getRetryPolicy() != null) {
+            jNode.add("retryPolicy", data.getRetryPolicy().getAsJson());
+        }
+
         return jNode;
     }
 
@@ -8,11 +8,15 @@
 package com.flop.resttester.requesttree;
 
 import com.flop.resttester.components.keyvaluelist.KeyValuePair;
+import com.flop.resttester.history.ResponseHistory;
+import com.flop.resttester.history.ResponseHistoryBudget;
 import com.flop.resttester.request.RequestBodyType;
 import com.flop.resttester.request.RequestType;
-import com.flop.resttester.response.ResponseData;
+import com.flop.resttester.request.RetryPolicy;
 import com.flop.resttester.state.RestTesterStateService;
 
+import org.jetbrains.annotations.Nullable;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -26,8 +30,15 @@ public class RequestTreeNodeData implements Cloneable {
     private List<KeyValuePair> headers;
     private String body;
     private RequestBodyType bodyType;
-
-    private ResponseData responseCache = null;
+    /**
+     * Retry policy of this request or null if the policy of the environment is used.
+     */
+    private RetryPolicy retryPolicy = null;
+
+    /**
+     * Responses of the last runs, created on the first response.
+     */
+    private ResponseHistory responseHistory = null;
     public boolean expanded = false;
 
     public static RequestTreeNodeData getDefaultRequest(String name) {
@@ -150,6 +161,14 @@ public class RequestTreeNodeData implements Cloneable {
         this.headers = headers;
     }
 
+    public @Nullable RetryPolicy getRetryPolicy() {
+        return this.retryPolicy;
+    }
+
+    public void setRetryPolicy(@Nullable RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
     public void update(RequestTreeNodeData newNodeData) {
         // only need to update non id related fields
         this.setUrl(newNodeData.getUrl());
@@ -166,7 +185,7 @@ public class RequestTreeNodeData implements Cloneable {
             return new RequestTreeNodeData(this.name);
         }
 
-        return new RequestTreeNodeData(
+        RequestTreeNodeData copy = new RequestTreeNodeData(
                 this.url,
                 this.name,
                 this.type,
@@ -176,13 +195,23 @@ public class RequestTreeNodeData implements Cloneable {
                 this.body,
                 this.bodyType
         );
+        copy.setRetryPolicy(this.retryPolicy);
+        return copy;
     }
 
-    public void setResponseCache(ResponseData data) {
-        this.responseCache = data;
+    public ResponseHistory getResponseHistory() {
+        if (this.responseHistory == null) {
+            this.responseHistory = new ResponseHistory(ResponseHistoryBudget.getInstance());
+        }
+        return this.responseHistory;
     }
 
-    public ResponseData getResponseCache() {
-        return this.responseCache;
+    /**
+     * Releases the recorded responses, e.g. when the request is deleted.
+     */
+    public void clearResponseHistory() {
+        if (this.responseHistory != null) {
+            this.responseHistory.clear();
+        }
     }
 }
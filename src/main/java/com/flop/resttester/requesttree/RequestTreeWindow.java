@@ -31,6 +31,7 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 
@@ -250,6 +251,24 @@ public class RequestTreeWindow {
                 JBMenuItem deleteEntry = new JBMenuItem("Delete");
                 deleteEntry.addActionListener((l) -> this.deleteNode(path));
                 contextMenu.add(deleteEntry);
+
+                RequestTreeNode node = (RequestTreeNode) path.getLastPathComponent();
+
+                contextMenu.addSeparator();
+
+                if (node.isFolder()) {
+                    JBMenuItem runEntry = new JBMenuItem("Run Folder", AllIcons.Actions.Execute);
+                    runEntry.addActionListener((l) -> this.parent.runFolder(node));
+                    contextMenu.add(runEntry);
+                } else {
+                    JBMenuItem loadTestEntry = new JBMenuItem("Load Test");
+                    loadTestEntry.addActionListener((l) -> this.parent.startLoadTest(node.getRequestData()));
+                    contextMenu.add(loadTestEntry);
+
+                    JBMenuItem retryEntry = new JBMenuItem("Retry Settings…");
+                    retryEntry.addActionListener((l) -> this.parent.editRetrySettings(node.getRequestData()));
+                    contextMenu.add(retryEntry);
+                }
             }
 
             JBPopupMenu.showByEvent(mouseEvent, contextMenu);
@@ -411,6 +430,55 @@ public class RequestTreeWindow {
         }
     }
 
+    /**
+     * Selects the tree node of the given request, e.g. to show a running request.
+     */
+    public void selectRequest(RequestTreeNodeData data) {
+        if (this.root == null) {
+            return;
+        }
+
+        Enumeration<TreeNode> nodes = this.root.preorderEnumeration();
+        while (nodes.hasMoreElements()) {
+            RequestTreeNode node = (RequestTreeNode) nodes.nextElement();
+
+            if (node.getRequestData() == data) {
+                TreePath path = new TreePath(node.getPath());
+                this.tree.setSelectionPath(path);
+                this.tree.scrollPathToVisible(path);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the names of the folders and the request joined by '/', which identifies the request in its environment.
+     *
+     * @return the path or null if the request is not part of the tree
+     */
+    public @Nullable String getRequestPath(RequestTreeNodeData data) {
+        if (this.root == null) {
+            return null;
+        }
+
+        Enumeration<TreeNode> nodes = this.root.preorderEnumeration();
+        while (nodes.hasMoreElements()) {
+            RequestTreeNode node = (RequestTreeNode) nodes.nextElement();
+
+            if (node.getRequestData() == data) {
+                StringBuilder path = new StringBuilder();
+
+                for (TreeNode parent : node.getPath()) {
+                    if (parent != this.root) {
+                        path.append('/').append(((RequestTreeNode) parent).getRequestData().getName());
+                    }
+                }
+                return path.toString();
+            }
+        }
+        return null;
+    }
+
     public void updateTree() {
         SwingUtilities.invokeLater(() -> this.tree.updateUI());
     }
@@ -479,6 +547,11 @@ public class RequestTreeWindow {
                 int index = parent.getIndex(node);
                 node.removeFromParent();
 
+                Enumeration<TreeNode> removed = node.preorderEnumeration();
+                while (removed.hasMoreElements()) {
+                    ((RequestTreeNode) removed.nextElement()).getRequestData().clearResponseHistory();
+                }
+
                 DefaultMutableTreeNode next = index < parent.getChildCount() ? (DefaultMutableTreeNode) parent.getChildAt(index) : null;
                 if (next == null) {
                     next = parent.getNextNode();
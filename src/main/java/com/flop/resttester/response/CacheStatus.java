@@ -0,0 +1,23 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+/**
+ * Whether a response was answered by the local response cache.
+ */
+public enum CacheStatus {
+    None,
+    /**
+     * Served from the cache without a request.
+     */
+    Hit,
+    /**
+     * Served from the cache after the server confirmed it with 304 Not Modified.
+     */
+    Revalidated
+}
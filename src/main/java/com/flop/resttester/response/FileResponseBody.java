@@ -0,0 +1,50 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Response body stored in a temporary file. Regions are memory mapped on demand,
+ * so viewing a part of a large body does not load the whole body into the heap.
+ */
+public record FileResponseBody(Path path, long size) implements ResponseBody {
+    @Override
+    public boolean isFileBacked() {
+        return true;
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+        return Files.newInputStream(this.path);
+    }
+
+    @Override
+    public String getText(long offset, int maxBytes) {
+        long start = Math.min(offset, this.size);
+        int length = (int) Math.min(maxBytes, this.size - start);
+
+        if (length == 0) {
+            return "";
+        }
+
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            return StandardCharsets.UTF_8.decode(buffer).toString();
+        } catch (IOException e) {
+            return "Could not read response body from " + this.path + ": " + e.getMessage();
+        }
+    }
+}
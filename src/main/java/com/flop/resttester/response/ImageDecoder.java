@@ -0,0 +1,111 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import org.jetbrains.annotations.Nullable;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Reads images of response bodies. Both methods are meant to be called outside the event dispatch thread.
+ */
+public class ImageDecoder {
+    /**
+     * @param format name of the image format as reported by the image reader, e.g. png
+     */
+    public record ImageInfo(String format, int width, int height) {
+        public String getText() {
+            return this.format.toUpperCase() + ", " + this.width + " x " + this.height + " px";
+        }
+    }
+
+    /**
+     * Reads format and dimensions from the header of the image, the pixels are not decoded.
+     *
+     * @return the info or null if the body is no supported image
+     */
+    public static @Nullable ImageInfo readInfo(ResponseBody body) {
+        try (InputStream in = body.openStream(); ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            ImageReader reader = ImageDecoder.getReader(stream);
+            if (reader == null) {
+                return null;
+            }
+
+            try {
+                return new ImageInfo(reader.getFormatName(), reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decodes the image with as few pixels as needed to show it in the given size.
+     * Rows and columns are skipped while reading, so large images are never decoded in full resolution.
+     *
+     * @return the image, which is at least as large as the image scaled to the given size, or null if it can not be decoded
+     */
+    public static @Nullable BufferedImage decode(ResponseBody body, int maxWidth, int maxHeight) {
+        try (InputStream in = body.openStream(); ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            ImageReader reader = ImageDecoder.getReader(stream);
+            if (reader == null) {
+                return null;
+            }
+
+            try {
+                int subsampling = ImageDecoder.getSubsampling(reader.getWidth(0), reader.getHeight(0), maxWidth, maxHeight);
+                ImageReadParam param = reader.getDefaultReadParam();
+
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the largest step between read pixels which keeps the image larger than its size scaled to fit into the bounds.
+     */
+    static int getSubsampling(int width, int height, int maxWidth, int maxHeight) {
+        if (maxWidth <= 0 || maxHeight <= 0) {
+            return 1;
+        }
+
+        double scale = Math.max((double) width / maxWidth, (double) height / maxHeight);
+        return Math.max(1, (int) scale);
+    }
+
+    private static @Nullable ImageReader getReader(@Nullable ImageInputStream stream) {
+        if (stream == null) {
+            return null;
+        }
+
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+        if (!readers.hasNext()) {
+            return null;
+        }
+
+        ImageReader reader = readers.next();
+        reader.setInput(stream, true, true);
+        return reader;
+    }
+}
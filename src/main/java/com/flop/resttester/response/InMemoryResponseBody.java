@@ -0,0 +1,36 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public record InMemoryResponseBody(byte[] bytes) implements ResponseBody {
+    @Override
+    public long size() {
+        return this.bytes.length;
+    }
+
+    @Override
+    public boolean isFileBacked() {
+        return false;
+    }
+
+    @Override
+    public InputStream openStream() {
+        return new ByteArrayInputStream(this.bytes);
+    }
+
+    @Override
+    public String getText(long offset, int maxBytes) {
+        int start = (int) Math.min(offset, this.bytes.length);
+        int length = Math.min(maxBytes, this.bytes.length - start);
+        return new String(this.bytes, start, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pretty prints json bodies token by token, so no tree of the whole document is built.
+ * The memory used is bounded by the limit of the formatted text, bodies which are not valid json are shown as they are.
+ */
+public class JsonFormatter {
+    private static final String INDENT = "  ";
+
+    /**
+     * @param text      formatted text or the raw body if it is not valid json
+     * @param formatted whether the body was valid json and was formatted
+     * @param truncated whether the text stops at the limit before the end of the body
+     */
+    public record Result(String text, boolean formatted, boolean truncated) {
+    }
+
+    /**
+     * Thrown by the output if the limit is reached, which stops formatting.
+     */
+    private static class LimitReachedException extends IOException {
+    }
+
+    /**
+     * Formats the body until the formatted text reaches the given number of characters.
+     */
+    public static Result format(ResponseBody body, int limit) {
+        StringBuilder text = new StringBuilder();
+
+        // the writer is not closed, closing fails for incomplete documents and there is nothing to release
+        JsonWriter writer = new JsonWriter(new LimitedWriter(text, limit));
+
+        try (JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(body.openStream(), StandardCharsets.UTF_8)))) {
+            reader.setLenient(true);
+            writer.setLenient(true);
+            writer.setIndent(INDENT);
+
+            try {
+                reader.peek();
+            } catch (EOFException e) {
+                // empty or blank body
+                return new Result("", true, false);
+            }
+
+            JsonFormatter.copy(reader, writer);
+
+            // trailing content is no valid json, same as for the json parser
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                return JsonFormatter.getRaw(body, limit);
+            }
+        } catch (LimitReachedException e) {
+            return new Result(text.toString(), true, true);
+        } catch (InterruptedIOException e) {
+            // formatting was canceled, the result is not used
+            return new Result(text.toString(), true, true);
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            // includes malformed input and bodies which end before the document is complete
+            return JsonFormatter.getRaw(body, limit);
+        }
+        return new Result(text.toString(), true, false);
+    }
+
+    /**
+     * Copies a single value including all nested values.
+     */
+    private static void copy(JsonReader reader, JsonWriter writer) throws IOException {
+        int depth = 0;
+
+        do {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException();
+            }
+
+            switch (reader.peek()) {
+                case BEGIN_ARRAY -> {
+                    reader.beginArray();
+                    writer.beginArray();
+                    depth++;
+                }
+                case END_ARRAY -> {
+                    reader.endArray();
+                    writer.endArray();
+                    depth--;
+                }
+                case BEGIN_OBJECT -> {
+                    reader.beginObject();
+                    writer.beginObject();
+                    depth++;
+                }
+                case END_OBJECT -> {
+                    reader.endObject();
+                    writer.endObject();
+                    depth--;
+                }
+                case NAME -> writer.name(reader.nextName());
+                case STRING -> writer.value(reader.nextString());
+                // numbers are copied as written, so no precision is lost
+                case NUMBER -> writer.jsonValue(reader.nextString());
+                case BOOLEAN -> writer.value(reader.nextBoolean());
+                case NULL -> {
+                    reader.nextNull();
+                    writer.nullValue();
+                }
+                case END_DOCUMENT -> throw new EOFException();
+            }
+        } while (depth > 0);
+    }
+
+    private static Result getRaw(ResponseBody body, int limit) {
+        return new Result(body.getText(0, limit), false, body.size() > limit);
+    }
+
+    /**
+     * Collects the written text and stops at the limit.
+     */
+    private static class LimitedWriter extends Writer {
+        private final StringBuilder text;
+        private final int limit;
+
+        LimitedWriter(StringBuilder text, int limit) {
+            this.text = text;
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            int remaining = this.limit - this.text.length();
+            this.text.append(buffer, offset, Math.min(length, remaining));
+
+            if (length > remaining) {
+                throw new LimitReachedException();
+            }
+        }
+
+        @Override
+        public void write(String str, int offset, int length) throws IOException {
+            int remaining = this.limit - this.text.length();
+            this.text.append(str, offset, offset + Math.min(length, remaining));
+
+            if (length > remaining) {
+                throw new LimitReachedException();
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
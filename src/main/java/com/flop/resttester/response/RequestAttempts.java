@@ -0,0 +1,23 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+/**
+ * @param count  number of times the request was sent, including retries but not the hedged request
+ * @param hedged whether a hedged request was sent because the request took too long
+ */
+public record RequestAttempts(
+        int count,
+        boolean hedged
+) {
+    public static final RequestAttempts SINGLE = new RequestAttempts(1, false);
+
+    public boolean isRepeated() {
+        return this.count > 1 || this.hedged;
+    }
+}
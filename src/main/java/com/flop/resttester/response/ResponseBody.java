@@ -0,0 +1,44 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Body of a response which is either held in memory or, for large responses, stored in a temporary file.
+ */
+public interface ResponseBody {
+    ResponseBody EMPTY = new InMemoryResponseBody(new byte[0]);
+
+    static ResponseBody of(byte[] bytes) {
+        return new InMemoryResponseBody(bytes);
+    }
+
+    /**
+     * @return size of the body in bytes
+     */
+    long size();
+
+    boolean isFileBacked();
+
+    InputStream openStream() throws IOException;
+
+    /**
+     * Decodes a region of the body as UTF-8 text.
+     * File backed bodies only map the requested region into memory.
+     */
+    String getText(long offset, int maxBytes);
+
+    /**
+     * @return the whole body as UTF-8 text
+     */
+    default String getText() {
+        return this.getText(0, (int) Math.min(Integer.MAX_VALUE, this.size()));
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects a response body in memory until it exceeds the given threshold.
+ * Everything above the threshold is written to a temporary file, so large downloads have a constant heap cost.
+ * <p>
+ * The file is deleted by the response history once the body is dropped, or by {@link #discard()} if the body was never
+ * handed out. Files left behind by previous sessions are removed by {@link #deleteStaleFiles()}.
+ */
+public class ResponseBodySink extends OutputStream {
+    private static final String TEMP_FILE_PREFIX = "rest-tester-response-";
+    private static final AtomicBoolean STALE_FILES_DELETED = new AtomicBoolean(false);
+
+    private final long threshold;
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    private OutputStream file;
+    private Path path;
+    private long size = 0;
+
+    /**
+     * @param threshold number of bytes kept in memory before the body is moved to a file, negative to never spill
+     */
+    public ResponseBodySink(long threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        this.write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (this.file == null && this.threshold >= 0 && this.size + len > this.threshold) {
+            this.spill();
+        }
+
+        if (this.file != null) {
+            this.file.write(b, off, len);
+        } else {
+            this.memory.write(b, off, len);
+        }
+        this.size += len;
+    }
+
+    private void spill() throws IOException {
+        this.path = Files.createTempFile(TEMP_FILE_PREFIX, ".tmp");
+
+        this.file = new BufferedOutputStream(Files.newOutputStream(this.path));
+        this.memory.writeTo(this.file);
+        this.memory = null;
+    }
+
+    public long size() {
+        return this.size;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (this.file != null) {
+            this.file.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.file != null) {
+            this.file.close();
+        }
+    }
+
+    /**
+     * Returns the bytes written so far. The sink can still be written to afterward, e.g. for streamed responses.
+     */
+    public ResponseBody toBody() throws IOException {
+        if (this.file != null) {
+            this.file.flush();
+            return new FileResponseBody(this.path, this.size);
+        }
+        return ResponseBody.of(this.memory.toByteArray());
+    }
+
+    /**
+     * Closes the sink and deletes its file, e.g. if the request was canceled before its body was handed out.
+     */
+    public void discard() {
+        try {
+            this.close();
+        } catch (IOException ignore) {
+        }
+
+        if (this.path != null) {
+            try {
+                Files.deleteIfExists(this.path);
+            } catch (IOException ignore) {
+            }
+            this.path = null;
+        }
+    }
+
+    /**
+     * Deletes the body files of previous sessions, e.g. of responses which were still in the history when the IDE
+     * was closed. Only files older than the start of the IDE are deleted, since other IDE instances may still use theirs.
+     * Runs once per session.
+     */
+    public static void deleteStaleFiles() {
+        if (!STALE_FILES_DELETED.compareAndSet(false, true)) {
+            return;
+        }
+
+        long startTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+        Path directory = Path.of(System.getProperty("java.io.tmpdir"));
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, TEMP_FILE_PREFIX + "*.tmp")) {
+            for (Path file : files) {
+                try {
+                    if (Files.getLastModifiedTime(file).toMillis() < startTime) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (IOException ignore) {
+                }
+            }
+        } catch (IOException ignore) {
+        }
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Progress of an event stream, which is added to the already displayed events.
+ *
+ * @param sequence   position of the chunk in the stream, starting at 0
+ * @param event      the received event or null if only the state of the connection changed
+ * @param totalSize  number of body bytes received so far
+ * @param reconnects number of times the stream was reconnected after the connection was lost
+ * @param gapMillis  total time in milliseconds in which the stream was not connected
+ */
+public record ResponseChunk(
+        long sequence,
+        @Nullable SseEvent event,
+        long totalSize,
+        int reconnects,
+        long gapMillis
+) {
+}
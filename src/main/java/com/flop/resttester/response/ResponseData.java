@@ -14,14 +14,22 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.List;
 
+/**
+ * @param transferSize number of body bytes received over the network or -1 if nothing was received.
+ *                     Differs from the size of the content if the response was compressed.
+ */
 public record ResponseData(
         String url,
         @Nullable HttpRequest request,
         @Nullable HttpResponse<InputStream> response,
         int code,
-        byte[] content,
+        ResponseBody content,
         List<String> contentType,
         byte[] error,
-        String elapsedTime
+        String elapsedTime,
+        ResponseTiming timing,
+        long transferSize,
+        RequestAttempts attempts,
+        CacheStatus cacheStatus
 ) {
 }
@@ -0,0 +1,55 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Formatted content of a response, prepared in the background and installed into the response window as is.
+ *
+ * @param type        content type shown next to the response code
+ * @param headersText general info and headers including the error message
+ * @param bodyText    formatted body including the error message, empty for images
+ * @param imageInfo   format and size of an image body, null if the body is no image or could not be read
+ * @param large       whether the body is too large to be formatted and is shown page by page
+ * @param events      last events of an event stream, empty for other responses
+ */
+public record ResponseDisplayModel(
+        Kind kind,
+        String type,
+        String headersText,
+        String bodyText,
+        @Nullable ImageDecoder.ImageInfo imageInfo,
+        String timeText,
+        String sizeText,
+        ResponseBody content,
+        boolean large,
+        List<SseEvent> events
+) {
+    public enum Kind {
+        Json,
+        Html,
+        Image,
+        EventStream
+    }
+
+    /**
+     * @return estimated memory of the formatted texts in bytes, the body is shared with the response record
+     */
+    public long getMemorySize() {
+        long size = 2L * (this.type.length() + this.headersText.length() + this.bodyText.length()
+                + this.timeText.length() + this.sizeText.length());
+
+        for (SseEvent event : this.events) {
+            size += 64 + 2L * (event.type().length() + event.data().length() + (event.id() == null ? 0 : event.id().length()));
+        }
+        return size;
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import org.apache.commons.io.FileUtils;
+import org.jsoup.Jsoup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the {@link ResponseDisplayModel} of a response. Formatting does not touch any Swing component,
+ * so it runs in the background and only the result is installed on the event dispatch thread.
+ */
+public class ResponseFormatter {
+    /**
+     * Maximal number of bytes shown for response bodies which are stored in a file.
+     */
+    public static final int FILE_PREVIEW_LIMIT = 1024 * 1024;
+
+    /**
+     * Maximal number of characters of formatted json, larger documents are cut off.
+     */
+    public static final int JSON_FORMAT_LIMIT = 8 * 1024 * 1024;
+
+    /**
+     * Text bodies above this size are not formatted but shown by the large body viewer.
+     */
+    public static final long LARGE_BODY_THRESHOLD = 2L * 1024 * 1024;
+
+    /**
+     * @param maxEvents number of events which are kept for event streams
+     */
+    public static ResponseDisplayModel createModel(ResponseRecord data, int maxEvents) {
+        ResponseDisplayModel.Kind kind;
+        String type;
+
+        if (data.contentType() == null || data.contentType().isEmpty()) {
+            kind = ResponseDisplayModel.Kind.Html;
+            type = "text/plain";
+        } else {
+            String contentType = data.contentType().getFirst();
+            type = contentType.split(";")[0];
+            contentType = contentType.toLowerCase();
+
+            if (contentType.contains("event-stream")) {
+                kind = ResponseDisplayModel.Kind.EventStream;
+            } else if (contentType.contains("image") && !contentType.contains("svg")) {
+                kind = ResponseDisplayModel.Kind.Image;
+            } else if (contentType.contains("html") || contentType.contains("xml")) {
+                kind = ResponseDisplayModel.Kind.Html;
+            } else {
+                kind = ResponseDisplayModel.Kind.Json;
+            }
+        }
+
+        ImageDecoder.ImageInfo imageInfo = null;
+        List<SseEvent> events = List.of();
+        boolean large = (kind == ResponseDisplayModel.Kind.Json || kind == ResponseDisplayModel.Kind.Html)
+                && data.content().size() > LARGE_BODY_THRESHOLD;
+
+        String bodyText = large ? "" : switch (kind) {
+            case Json -> ResponseFormatter.formatJson(data.content());
+            case Html -> ResponseFormatter.formatHtml(data.content());
+            case Image, EventStream -> "";
+        };
+
+        // events are shown in the event list instead of the text of the stream
+        if (kind == ResponseDisplayModel.Kind.EventStream) {
+            events = SseEventParser.parse(data.content(), maxEvents);
+        }
+
+        // the pixels are decoded by the image panel in the size it is shown
+        if (kind == ResponseDisplayModel.Kind.Image) {
+            imageInfo = ImageDecoder.readInfo(data.content());
+        }
+
+        String headersText = ResponseFormatter.formatHeaders(data);
+
+        // add error message
+        if (data.error().length != 0) {
+            String error = new String(data.error(), StandardCharsets.UTF_8);
+            headersText = ResponseFormatter.appendLine(headersText, error);
+            bodyText = ResponseFormatter.appendLine(bodyText, error);
+        }
+
+        return new ResponseDisplayModel(
+                kind,
+                type,
+                headersText,
+                bodyText,
+                imageInfo,
+                ResponseFormatter.getTimeText(data),
+                ResponseFormatter.getSizeText(data),
+                data.content(),
+                large,
+                events
+        );
+    }
+
+    /**
+     * Returns the elapsed time, marked if the response was answered by the response cache
+     * or had to wait for the host limits.
+     */
+    private static String getTimeText(ResponseRecord data) {
+        String time = switch (data.cacheStatus()) {
+            case Hit -> data.elapsedTime() + " (cache hit)";
+            case Revalidated -> data.elapsedTime() + " (revalidated)";
+            case None -> data.elapsedTime();
+        };
+
+        if (data.timing().queueNanos() >= 1_000_000) {
+            time += " (+" + ResponseTiming.formatMillis(data.timing().queueNanos()) + " queued)";
+        }
+        return time;
+    }
+
+    /**
+     * Returns the decoded size of the body and additionally the transferred size if the response was compressed.
+     */
+    private static String getSizeText(ResponseRecord data) {
+        String size = FileUtils.byteCountToDisplaySize(data.content().size());
+
+        if (data.transferSize() >= 0 && data.transferSize() != data.content().size()) {
+            size += " (" + FileUtils.byteCountToDisplaySize(data.transferSize()) + " transferred)";
+        }
+        return size;
+    }
+
+    private static String formatHeaders(ResponseRecord data) {
+        StringBuilder content = new StringBuilder();
+
+        content.append(" ============= General Info ============= \n").append("  URL: ").append(data.url());
+
+        if (data.method() != null) {
+            content.append("\n  Request Method: ").append(data.method());
+        }
+
+        if (data.cacheStatus() == CacheStatus.Hit) {
+            content.append("\n  Cache: Hit, served from the response cache without a request");
+        } else if (data.cacheStatus() == CacheStatus.Revalidated) {
+            content.append("\n  Cache: Revalidated, the server confirmed the cached response (304 Not Modified)");
+        }
+
+        if (data.attempts().isRepeated()) {
+            content.append("\n  Attempts: ").append(data.attempts().count());
+
+            if (data.attempts().hedged()) {
+                content.append(" (hedged)");
+            }
+        }
+
+        if (data.method() != null) {
+            content.append("\n\n =========== Request Headers ============ \n");
+            ResponseFormatter.appendHeaderInfo(content, data.requestHeaders());
+        }
+
+        if (data.responseHeaders() != null) {
+            content.append("\n\n =========== Response Headers =========== \n");
+            ResponseFormatter.appendHeaderInfo(content, data.responseHeaders());
+
+            for (int i = 0; i < data.redirects().size(); i++) {
+                content.append("\n\n =========== Redirect ").append(i + 1).append(" (Response Headers) =========== \n");
+                ResponseFormatter.appendHeaderInfo(content, data.redirects().get(i));
+            }
+        }
+
+        return content.toString();
+    }
+
+    private static void appendHeaderInfo(StringBuilder content, Map<String, List<String>> headersMap) {
+        for (String key : headersMap.keySet()) {
+            List<String> headers = headersMap.get(key);
+            String headerString = String.join(", ", headers);
+
+            if (key == null) {
+                content.append(headerString);
+            } else {
+                content.append("  ").append(key).append(": ");
+                content.append(headerString);
+            }
+            content.append("\n");
+        }
+    }
+
+    private static String formatJson(ResponseBody body) {
+        int limit = body.isFileBacked() ? FILE_PREVIEW_LIMIT : JSON_FORMAT_LIMIT;
+        JsonFormatter.Result result = JsonFormatter.format(body, limit);
+        String jsonString = result.text();
+
+        if (result.truncated()) {
+            jsonString += ResponseFormatter.getTruncationNote(body, limit);
+        }
+        return jsonString;
+    }
+
+    /**
+     * Bodies stored in a file are shown without formatting, since jsoup would require loading the whole body into memory.
+     */
+    private static String formatHtml(ResponseBody body) {
+        if (body.isFileBacked()) {
+            String preview = body.getText(0, FILE_PREVIEW_LIMIT);
+
+            if (body.size() > FILE_PREVIEW_LIMIT) {
+                return preview + ResponseFormatter.getTruncationNote(body, FILE_PREVIEW_LIMIT);
+            }
+            if (body instanceof FileResponseBody fileBody) {
+                preview += "\nThe full response body is stored in " + fileBody.path();
+            }
+            return preview;
+        }
+
+        String content = body.getText();
+        if (content.isBlank()) {
+            return "";
+        }
+        return Jsoup.parseBodyFragment(content).html();
+    }
+
+    private static String getTruncationNote(ResponseBody body, int limit) {
+        String note = "\n\n... Showing the first " + FileUtils.byteCountToDisplaySize(limit)
+                + " of " + FileUtils.byteCountToDisplaySize(body.size()) + ".";
+
+        if (body instanceof FileResponseBody fileBody) {
+            note += "\nThe full response body is stored in " + fileBody.path();
+        }
+        return note;
+    }
+
+    private static String appendLine(String text, String line) {
+        if (!text.isBlank()) {
+            text += '\n';
+        }
+        return text + line;
+    }
+}
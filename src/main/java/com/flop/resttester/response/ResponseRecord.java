@@ -0,0 +1,268 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+/**
+ * Detached copy of a {@link ResponseData} which is kept in the response history of a request.
+ * Only the displayed values are copied, the http request and response objects are not retained.
+ *
+ * @param startedAt       time the run of the request was started, identifies the run in the history
+ * @param method          request method or null if the request could not be built
+ * @param requestHeaders  headers sent with the request
+ * @param responseHeaders headers of the final response or null if no response was received
+ * @param redirects       response headers of the followed redirects, the first redirect first
+ */
+public record ResponseRecord(
+        long startedAt,
+        String url,
+        @Nullable String method,
+        Map<String, List<String>> requestHeaders,
+        @Nullable Map<String, List<String>> responseHeaders,
+        List<Map<String, List<String>>> redirects,
+        int code,
+        ResponseBody content,
+        List<String> contentType,
+        byte[] error,
+        String elapsedTime,
+        ResponseTiming timing,
+        long transferSize,
+        RequestAttempts attempts,
+        CacheStatus cacheStatus
+) {
+    public static final ResponseRecord EMPTY = new ResponseRecord(
+            0,
+            "",
+            null,
+            Collections.emptyMap(),
+            null,
+            Collections.emptyList(),
+            -2,
+            ResponseBody.EMPTY,
+            Collections.emptyList(),
+            new byte[0],
+            "",
+            ResponseTiming.EMPTY,
+            -1,
+            RequestAttempts.SINGLE,
+            CacheStatus.None
+    );
+
+    /**
+     * Rough heap usage of the fixed parts of a record.
+     */
+    private static final long BASE_SIZE = 512;
+
+    public static ResponseRecord of(ResponseData data, long startedAt) {
+        List<Map<String, List<String>>> redirects = new ArrayList<>();
+
+        if (data.response() != null) {
+            Optional<HttpResponse<InputStream>> previous = data.response().previousResponse();
+
+            while (previous.isPresent()) {
+                redirects.addFirst(previous.get().headers().map());
+                previous = previous.get().previousResponse();
+            }
+        }
+
+        return new ResponseRecord(
+                startedAt,
+                data.url(),
+                data.request() == null ? null : data.request().method(),
+                data.request() == null ? Collections.emptyMap() : data.request().headers().map(),
+                data.response() == null ? null : data.response().headers().map(),
+                redirects,
+                data.code(),
+                data.content(),
+                data.contentType() == null ? Collections.emptyList() : data.contentType(),
+                data.error(),
+                data.elapsedTime(),
+                data.timing(),
+                data.transferSize(),
+                data.attempts(),
+                data.cacheStatus()
+        );
+    }
+
+    /**
+     * Estimates the heap used by this record. Bodies stored in a file only count with their path.
+     */
+    public long getMemorySize() {
+        long size = BASE_SIZE + this.error.length + this.url.length() * 2L;
+
+        if (!this.content.isFileBacked()) {
+            size += this.content.size();
+        }
+
+        size += ResponseRecord.getHeadersSize(this.requestHeaders);
+        if (this.responseHeaders != null) {
+            size += ResponseRecord.getHeadersSize(this.responseHeaders);
+        }
+        for (Map<String, List<String>> redirect : this.redirects) {
+            size += ResponseRecord.getHeadersSize(redirect);
+        }
+        return size;
+    }
+
+    /**
+     * @return text shown for this record in the history selection
+     */
+    public String getHistoryLabel() {
+        String time = new SimpleDateFormat("HH:mm:ss").format(new Date(this.startedAt));
+        String code = this.code == -1 ? "Failed" : String.valueOf(this.code);
+        return time + "  " + code + "  " + this.elapsedTime;
+    }
+
+    /**
+     * Returns the record without its body, which is stored separately by the response history store.
+     */
+    public JsonObject getAsJson() {
+        JsonObject jObj = new JsonObject();
+        jObj.addProperty("startedAt", this.startedAt);
+        jObj.addProperty("url", this.url);
+
+        if (this.method != null) {
+            jObj.addProperty("method", this.method);
+        }
+
+        jObj.add("requestHeaders", ResponseRecord.getHeadersAsJson(this.requestHeaders));
+
+        if (this.responseHeaders != null) {
+            jObj.add("responseHeaders", ResponseRecord.getHeadersAsJson(this.responseHeaders));
+        }
+
+        JsonArray redirects = new JsonArray();
+        this.redirects.forEach(redirect -> redirects.add(ResponseRecord.getHeadersAsJson(redirect)));
+        jObj.add("redirects", redirects);
+
+        jObj.addProperty("code", this.code);
+
+        JsonArray contentType = new JsonArray();
+        this.contentType.forEach(contentType::add);
+        jObj.add("contentType", contentType);
+
+        jObj.addProperty("error", new String(this.error, StandardCharsets.UTF_8));
+        jObj.addProperty("elapsedTime", this.elapsedTime);
+
+        JsonObject timing = new JsonObject();
+        timing.addProperty("queue", this.timing.queueNanos());
+        timing.addProperty("resolve", this.timing.resolveNanos());
+        timing.addProperty("firstByte", this.timing.firstByteNanos());
+        timing.addProperty("download", this.timing.downloadNanos());
+        timing.addProperty("total", this.timing.totalNanos());
+        timing.addProperty("connectionReused", this.timing.connectionReused());
+        jObj.add("timing", timing);
+
+        jObj.addProperty("transferSize", this.transferSize);
+        jObj.addProperty("attempts", this.attempts.count());
+        jObj.addProperty("hedged", this.attempts.hedged());
+        jObj.addProperty("cacheStatus", this.cacheStatus.name());
+        return jObj;
+    }
+
+    public static ResponseRecord createFromJson(JsonObject jObj, ResponseBody content) {
+        if (!jObj.has("startedAt") || !jObj.has("url") || !jObj.has("code") || !jObj.has("timing")) {
+            throw new RuntimeException("Invalid response record object.");
+        }
+
+        List<Map<String, List<String>>> redirects = new ArrayList<>();
+        if (jObj.has("redirects")) {
+            for (JsonElement redirect : jObj.getAsJsonArray("redirects")) {
+                redirects.add(ResponseRecord.createHeadersFromJson(redirect.getAsJsonObject()));
+            }
+        }
+
+        List<String> contentType = new ArrayList<>();
+        if (jObj.has("contentType")) {
+            for (JsonElement type : jObj.getAsJsonArray("contentType")) {
+                contentType.add(type.getAsString());
+            }
+        }
+
+        JsonObject timing = jObj.getAsJsonObject("timing");
+
+        return new ResponseRecord(
+                jObj.get("startedAt").getAsLong(),
+                jObj.get("url").getAsString(),
+                jObj.has("method") ? jObj.get("method").getAsString() : null,
+                jObj.has("requestHeaders") ? ResponseRecord.createHeadersFromJson(jObj.getAsJsonObject("requestHeaders")) : Collections.emptyMap(),
+                jObj.has("responseHeaders") ? ResponseRecord.createHeadersFromJson(jObj.getAsJsonObject("responseHeaders")) : null,
+                redirects,
+                jObj.get("code").getAsInt(),
+                content,
+                contentType,
+                jObj.has("error") ? jObj.get("error").getAsString().getBytes(StandardCharsets.UTF_8) : new byte[0],
+                jObj.has("elapsedTime") ? jObj.get("elapsedTime").getAsString() : "",
+                new ResponseTiming(
+                        timing.get("queue").getAsLong(),
+                        timing.get("resolve").getAsLong(),
+                        timing.get("firstByte").getAsLong(),
+                        timing.get("download").getAsLong(),
+                        timing.get("total").getAsLong(),
+                        timing.get("connectionReused").getAsBoolean()
+                ),
+                jObj.has("transferSize") ? jObj.get("transferSize").getAsLong() : -1,
+                new RequestAttempts(
+                        jObj.has("attempts") ? jObj.get("attempts").getAsInt() : 1,
+                        jObj.has("hedged") && jObj.get("hedged").getAsBoolean()
+                ),
+                jObj.has("cacheStatus") ? CacheStatus.valueOf(jObj.get("cacheStatus").getAsString()) : CacheStatus.None
+        );
+    }
+
+    private static JsonObject getHeadersAsJson(Map<String, List<String>> headers) {
+        JsonObject jObj = new JsonObject();
+
+        for (var header : headers.entrySet()) {
+            if (header.getKey() == null) {
+                continue;
+            }
+
+            JsonArray values = new JsonArray();
+            header.getValue().forEach(values::add);
+            jObj.add(header.getKey(), values);
+        }
+        return jObj;
+    }
+
+    private static Map<String, List<String>> createHeadersFromJson(JsonObject jObj) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+
+        for (var header : jObj.entrySet()) {
+            List<String> values = new ArrayList<>();
+            for (JsonElement value : header.getValue().getAsJsonArray()) {
+                values.add(value.getAsString());
+            }
+            headers.put(header.getKey(), values);
+        }
+        return headers;
+    }
+
+    private static long getHeadersSize(Map<String, List<String>> headers) {
+        long size = 0;
+
+        for (var entry : headers.entrySet()) {
+            size += entry.getKey() == null ? 0 : entry.getKey().length() * 2L;
+
+            for (String value : entry.getValue()) {
+                size += value.length() * 2L;
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+/**
+ * Durations of the single phases of a request in nanoseconds. Phases which were not reached are 0.
+ *
+ * @param queueNanos     waiting for the host limits, not part of the request latency
+ * @param resolveNanos   name resolution of the host
+ * @param firstByteNanos from sending the request until the response headers arrived.
+ *                       Includes tcp connect and tls handshake if no pooled connection could be reused.
+ * @param downloadNanos  transfer of the response body
+ * @param totalNanos     whole request including the preparation, without the queue wait
+ * @param connectionReused whether the request most likely used an already open connection, e.g. from a warm-up
+ */
+public record ResponseTiming(
+        long queueNanos,
+        long resolveNanos,
+        long firstByteNanos,
+        long downloadNanos,
+        long totalNanos,
+        boolean connectionReused
+) {
+    public static final ResponseTiming EMPTY = new ResponseTiming(0, 0, 0, 0, 0, false);
+
+    public static String formatMillis(long nanos) {
+        return String.format("%.1f ms", nanos / 1_000_000d);
+    }
+}
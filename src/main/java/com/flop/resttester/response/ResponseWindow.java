@@ -10,10 +10,12 @@ package com.flop.resttester.response;
 import com.flop.resttester.components.CustomLanguageTextField;
 import com.flop.resttester.components.CustomPanel;
 import com.flop.resttester.components.ImagePanel;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParser;
+import com.flop.resttester.components.LargeBodyViewer;
+import com.flop.resttester.components.SseEventPanel;
+import com.flop.resttester.components.TimingWaterfallPanel;
+import com.flop.resttester.history.ResponseHistory;
+import com.flop.resttester.request.RequestExecutor;
+import com.flop.resttester.state.RestTesterStateService;
 import com.intellij.ide.highlighter.HtmlFileType;
 import com.intellij.json.JsonFileType;
 import com.intellij.json.JsonLanguage;
@@ -25,18 +27,16 @@ import com.intellij.openapi.fileTypes.PlainTextLanguage;
 import com.intellij.openapi.project.Project;
 import com.intellij.ui.JBColor;
 import com.intellij.ui.LanguageTextField;
+import com.intellij.ui.SimpleListCellRenderer;
 import org.apache.commons.io.FileUtils;
-import org.jsoup.Jsoup;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.awt.*;
-import java.io.InputStream;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
-import java.util.Collections;
+import java.awt.event.ItemEvent;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.Future;
 
 public class ResponseWindow {
     private JPanel mainPanel;
@@ -52,6 +52,10 @@ public class ResponseWindow {
     private LanguageTextField headersTextPane;
     private JPanel headersTextWrapper;
     private LanguageTextField resultHtmlPane;
+    private TimingWaterfallPanel timingPanel;
+    private LargeBodyViewer largeBodyViewer;
+    private SseEventPanel eventPanel;
+    private JComboBox<ResponseRecord> historyBox;
 
     private Project project;
 
@@ -61,6 +65,47 @@ public class ResponseWindow {
      */
     private boolean hasResponse = false;
 
+    /**
+     * Sequence number of the next expected chunk of a streamed response.
+     * Chunks which do not match (e.g. late chunks of a previous request) are ignored.
+     */
+    private long nextChunkSequence = 0;
+
+    /**
+     * History of the displayed request, its records can be selected in the history box.
+     */
+    private ResponseHistory history;
+    private boolean updatingHistory = false;
+
+    /**
+     * Whether the displayed request is running, older responses can not be selected meanwhile.
+     */
+    private boolean loading = false;
+
+    /**
+     * Incremented for every displayed response, results of formatting an older response are dropped.
+     */
+    private long displayGeneration = 0;
+    private Future<?> formatTask;
+
+    /**
+     * Whether the displayed response is formatted in the background. Chunks which arrive meanwhile are collected
+     * and added after the formatted response was installed.
+     */
+    private boolean formatting = false;
+    private final List<SseEvent> pendingEvents = new ArrayList<>();
+    private ResponseChunk pendingChunk = null;
+
+    /**
+     * Whether the events of an event stream are shown in the event list instead of the text of the stream.
+     */
+    private boolean showingEvents = false;
+
+    /**
+     * Text shown in the panes while loading, the panes are only updated if it changes.
+     */
+    private String loadingText = null;
+
     public JPanel getContent() {
         return this.mainPanel;
     }
@@ -69,11 +114,14 @@ public class ResponseWindow {
         this.project = project;
         this.setupLanguageHighlighting();
         this.setupStyle();
+        this.largeBodyViewer.setProject(project);
     }
 
     private void setupStyle() {
         this.imagePanel.setVisible(false);
         this.imagePanel.setBorder(BorderFactory.createEmptyBorder());
+        this.largeBodyViewer.setVisible(false);
+        this.eventPanel.setVisible(false);
 
         this.resultTextWrapper.setVisible(true);
         this.resultJsonPane.setVisible(false);
@@ -86,6 +134,14 @@ public class ResponseWindow {
 
         this.tabbedPane.setSelectedIndex(1);
         this.tabbedPane.setBorder(BorderFactory.createEmptyBorder(4, 0, 0, 0));
+
+        this.historyBox.setRenderer(SimpleListCellRenderer.create("", ResponseRecord::getHistoryLabel));
+        this.historyBox.setVisible(false);
+        this.historyBox.addItemListener(event -> {
+            if (!this.updatingHistory && event.getStateChange() == ItemEvent.SELECTED) {
+                this.showHistoryRecord((ResponseRecord) event.getItem());
+            }
+        });
     }
 
     private void setupLanguageHighlighting() {
@@ -116,6 +172,7 @@ public class ResponseWindow {
         this.resultHtmlPane = this.createLanguageTextField(HTMLLanguage.INSTANCE);
         this.headersTextPane = this.createLanguageTextField(PlainTextLanguage.INSTANCE);
         this.setupImagePanel();
+        this.largeBodyViewer = new LargeBodyViewer();
     }
 
     private CustomLanguageTextField createLanguageTextField(Language language) {
@@ -204,223 +261,312 @@ public class ResponseWindow {
             this.resultTimeField.setText(elapsedTime);
             this.resultTextWrapper.setVisible(true);
             this.imagePanel.setVisible(false);
+            this.largeBodyViewer.setVisible(false);
+            this.eventPanel.setVisible(false);
         }
+        this.eventPanel.setLive(false);
     }
 
     public void setLoadingStart() {
+        this.cancelFormatting();
         this.hasResponse = false;
+        this.loading = true;
+        this.historyBox.setEnabled(false);
+        this.nextChunkSequence = 0;
         this.updateResponseCode(-2);
+        this.updateTiming(ResponseTiming.EMPTY, RequestAttempts.SINGLE);
         this.resultTextWrapper.setVisible(true);
         this.imagePanel.setVisible(false);
+        this.largeBodyViewer.setVisible(false);
+        this.eventPanel.setVisible(false);
+        this.eventPanel.setLive(false);
+        this.showingEvents = false;
         this.resultTimeField.setText("");
         this.resultSizeField.setText("");
         this.resultTypeField.setText("");
         this.headersTextPane.setText("Loading... ");
         this.resultJsonPane.setText("Loading... ");
         this.resultHtmlPane.setText("Loading... ");
+        this.loadingText = null;
     }
 
-    public void setLoading(String elapsedTime) {
-        this.resultTimeField.setText(elapsedTime);
+    /**
+     * @param queued         whether the request is waiting for the host limits
+     * @param uploadProgress progress of a large request body or null
+     */
+    public void setLoading(String elapsedTime, boolean queued, @Nullable String uploadProgress) {
+        ResponseWindow.setTextIfChanged(this.resultTimeField, queued ? "queued" : elapsedTime);
 
         // Check if there is already a response displayed e.g. from previous sse event responses.
         // in this case we should only show the loading state in the result time field.
         if (this.hasResponse) {
             return;
         }
-        this.headersTextPane.setText("Loading... " + elapsedTime);
-        this.resultJsonPane.setText("Loading... " + elapsedTime);
-        this.resultHtmlPane.setText("Loading... " + elapsedTime);
-    }
-
-    public void setResult(ResponseData responseData) {
-        this.hasResponse = true;
-        this.handleResponse(responseData);
-    }
 
-    public void loadResult(ResponseData data) {
-        if (data != null) {
-            this.handleResponse(data);
-        } else {
-            this.handleResponse(new ResponseData(
-                    "",
-                    null,
-                    null,
-                    -2,
-                    "".getBytes(),
-                    Collections.emptyList(),
-                    "".getBytes(),
-                    ""
-            ));
+        String text = queued ? "Waiting for the host limits of the environment..." : "Loading... " + elapsedTime;
+        if (uploadProgress != null) {
+            text += "\nUploaded " + uploadProgress;
         }
-    }
-
-    private void handleResponse(ResponseData responseData) {
-        this.updateResponseCode(responseData.code());
 
-        this.parseHeadersInfo(responseData);
+        // the text panes are only rewritten if the shown text changes, e.g. not while the request is queued
+        if (text.equals(this.loadingText)) {
+            return;
+        }
+        this.loadingText = text;
+        this.headersTextPane.setText(text);
 
-        if (responseData.contentType() == null || responseData.contentType().isEmpty()) {
-            this.parseAsHtml(responseData);
-            this.resultTypeField.setText("text/plain");
+        if (this.resultJsonPane.isVisible()) {
+            this.resultJsonPane.setText(text);
         } else {
-            String type = responseData.contentType().getFirst();
-            this.resultTypeField.setText(type.split(";")[0]);
-            type = type.toLowerCase();
-
-            if (type.contains("image") && !type.contains("svg")) {
-                this.parseAsImage(responseData);
-            } else if (type.contains("html") || type.contains("xml")) {
-                this.parseAsHtml(responseData);
-            } else {
-                this.parseAsJson(responseData);
-            }
+            this.resultHtmlPane.setText(text);
         }
+    }
 
-        // add error message
-        if (responseData.error().length != 0) {
-            this.parseError(responseData);
+    private static void setTextIfChanged(JTextArea field, String text) {
+        if (!text.equals(field.getText())) {
+            field.setText(text);
         }
     }
 
-    private void parseHeadersInfo(ResponseData data) {
-        StringBuilder content = new StringBuilder();
+    public void setResult(ResponseRecord record) {
+        this.hasResponse = true;
+        this.handleResponse(record);
+        this.updateHistoryBox(record);
+    }
 
-        content.append(" ============= General Info ============= \n").append("  URL: ").append(data.url());
+    /**
+     * Adds the events of streamed response chunks to the event list.
+     * Only the new events are added, the already displayed events are neither copied nor formatted again.
+     */
+    public void appendChunks(List<ResponseChunk> chunks) {
+        List<SseEvent> events = new ArrayList<>();
+        ResponseChunk last = null;
+
+        for (ResponseChunk chunk : chunks) {
+            if (chunk.sequence() != this.nextChunkSequence) {
+                continue;
+            }
+            this.nextChunkSequence++;
+            last = chunk;
 
-        if (data.request() != null) {
-            content.append("\n  Request Method: ").append(data.request().method());
+            if (chunk.event() != null) {
+                events.add(chunk.event());
+            }
         }
 
-        if (data.request() != null) {
-            content.append("\n\n =========== Request Headers ============ \n");
-            Map<String, List<String>> requestHeaders = data.request().headers().map();
-            this.appendHeaderInfo(content, requestHeaders);
+        if (last == null) {
+            return;
         }
+        this.resultSizeField.setText(FileUtils.byteCountToDisplaySize(last.totalSize()));
 
-        if (data.response() != null) {
-            content.append("\n\n =========== Response Headers =========== \n");
-            Map<String, List<String>> responseHeaders = data.response().headers().map();
-            this.appendHeaderInfo(content, responseHeaders);
+        if (this.formatting) {
+            this.pendingEvents.addAll(events);
+            this.pendingChunk = last;
+            return;
+        }
+        this.showChunkContent(events, last);
+    }
 
-            this.appendRedirectInto(content, data.response().previousResponse(), 0);
+    private void showChunkContent(List<SseEvent> events, ResponseChunk last) {
+        if (this.showingEvents) {
+            this.eventPanel.setConnectionStats(last.reconnects(), last.gapMillis());
+            this.eventPanel.addEvents(events);
         }
+    }
 
-        this.headersTextPane.setText(content.toString());
+    /**
+     * Continues to append the chunks of a streamed response, starting with the given sequence number.
+     * Used when a running request is shown again after another request was selected.
+     */
+    public void resumeChunks(long sequence) {
+        this.nextChunkSequence = sequence;
     }
 
-    private int appendRedirectInto(
-            StringBuilder content,
-            Optional<HttpResponse<InputStream>> responseOpt,
-            int redirectCount
-    ) {
-        if (responseOpt.isEmpty()) {
-            return redirectCount;
-        }
+    /**
+     * Sets the history of the displayed request, which is offered in the history box.
+     */
+    public void setHistory(@Nullable ResponseHistory history) {
+        this.history = history;
+        this.updateHistoryBox(history == null ? null : history.getLatest());
+    }
 
-        HttpResponse<InputStream> response = responseOpt.get();
-        redirectCount = this.appendRedirectInto(content, response.previousResponse(), redirectCount) + 1;
+    /**
+     * Called when the displayed request finished, older responses can be selected again.
+     */
+    public void setLoadingFinished() {
+        this.loading = false;
+        this.eventPanel.setLive(false);
+        this.historyBox.setEnabled(this.historyBox.getItemCount() > 1);
+    }
 
-        content.append("\n\n =========== Redirect ").append(redirectCount).append(" (Response Headers) =========== \n");
-        this.appendHeaderInfo(content, response.headers().map());
+    public void loadResult(@Nullable ResponseRecord record) {
+        this.loading = false;
+        this.handleResponse(record == null ? ResponseRecord.EMPTY : record);
+        this.updateHistoryBox(record);
+    }
 
-        return redirectCount;
+    private void showHistoryRecord(ResponseRecord record) {
+        if (this.history != null) {
+            this.history.touch(record);
+        }
+        this.handleResponse(record);
     }
 
-    private void appendHeaderInfo(StringBuilder content, Map<String, List<String>> headersMap) {
-        for (String key : headersMap.keySet()) {
-            List<String> headers = headersMap.get(key);
-            String headerString = String.join(", ", headers);
+    private void updateHistoryBox(@Nullable ResponseRecord selected) {
+        List<ResponseRecord> records = this.history == null ? List.of() : this.history.getRecords();
 
-            if (key == null) {
-                content.append(headerString);
-            } else {
-                content.append("  ").append(key).append(": ");
-                content.append(headerString);
-            }
-            content.append("\n");
+        this.updatingHistory = true;
+        this.historyBox.removeAllItems();
+        for (ResponseRecord record : records) {
+            this.historyBox.addItem(record);
         }
+        this.historyBox.setSelectedItem(selected);
+        this.updatingHistory = false;
+
+        this.historyBox.setVisible(!records.isEmpty());
+        this.historyBox.setEnabled(!this.loading && records.size() > 1);
     }
 
-    private void parseAsJson(ResponseData data) {
-        String content = new String(data.content(), StandardCharsets.UTF_8);
-        String byteSize = FileUtils.byteCountToDisplaySize(data.content().length);
+    /**
+     * Shows the code and timing of the response immediately and formats its content in the background.
+     * Formatting of a previous response which is still running is canceled and its result is dropped.
+     * Responses of the history are formatted once, their display model is cached with the record.
+     */
+    private void handleResponse(ResponseRecord responseData) {
+        this.updateResponseCode(responseData.code());
+        this.updateTiming(responseData.timing(), responseData.attempts());
 
-        String jsonString = "";
+        long generation = this.cancelFormatting();
+        ResponseHistory history = this.history;
 
-        if (!content.isBlank()) {
-            try {
-                Gson gson = new GsonBuilder().setPrettyPrinting().create();
-                JsonElement el = JsonParser.parseString(content);
-                jsonString = gson.toJson(el);
-            } catch (Exception ignore) {
-                jsonString = content;
-            }
+        ResponseDisplayModel cached = history == null ? null : history.getDisplayModel(responseData);
+        if (cached != null) {
+            this.showModel(cached);
+            return;
         }
 
-        this.resultJsonPane.setText(jsonString);
-        this.resultTimeField.setText(data.elapsedTime());
-        this.resultSizeField.setText(byteSize);
+        this.formatting = true;
+        int maxEvents = RestTesterStateService.getInstance().getMaxStreamEvents();
+
+        this.formatTask = RequestExecutor.getInstance().execute(() -> {
+            ResponseDisplayModel model = ResponseFormatter.createModel(responseData, maxEvents);
+
+            SwingUtilities.invokeLater(() -> {
+                // only models of formatting which was not canceled are complete and can be cached
+                if (generation == this.displayGeneration) {
+                    if (history != null) {
+                        history.setDisplayModel(responseData, model);
+                    }
+                    this.showModel(model);
+                }
+            });
+        });
+    }
 
-        this.resultTextWrapper.setVisible(true);
-        this.resultJsonPane.setVisible(true);
-        this.resultHtmlPane.setVisible(false);
-        this.imagePanel.setVisible(false);
+    /**
+     * Cancels the formatting of the current response, its result will not be shown.
+     *
+     * @return the generation of the next displayed response
+     */
+    private long cancelFormatting() {
+        if (this.formatTask != null) {
+            this.formatTask.cancel(true);
+            this.formatTask = null;
+        }
+        this.formatting = false;
+        this.pendingEvents.clear();
+        this.pendingChunk = null;
+        return ++this.displayGeneration;
     }
 
-    private void parseAsHtml(ResponseData data) {
-        String content = new String(data.content(), StandardCharsets.UTF_8);
-        String byteSize = FileUtils.byteCountToDisplaySize(data.content().length);
+    private void showModel(ResponseDisplayModel model) {
+        this.formatting = false;
+        this.formatTask = null;
 
-        String htmlString = "";
+        this.resultTypeField.setText(model.type());
+        this.resultTimeField.setText(model.timeText());
+        this.resultSizeField.setText(model.sizeText());
+        this.headersTextPane.setText(model.headersText());
 
-        if (!content.isBlank()) {
-            htmlString = Jsoup.parseBodyFragment(content).html();
+        boolean large = model.large();
+
+        if (large) {
+            Language language = model.kind() == ResponseDisplayModel.Kind.Json ? JsonLanguage.INSTANCE : HTMLLanguage.INSTANCE;
+            this.largeBodyViewer.setBody(model.content(), language);
+
+            // the text of previous responses is not needed anymore
+            this.resultJsonPane.setText("");
+            this.resultHtmlPane.setText("");
+        } else {
+            switch (model.kind()) {
+                case Json -> this.resultJsonPane.setText(model.bodyText());
+                case Html -> this.resultHtmlPane.setText(model.bodyText());
+                case Image -> this.imagePanel.setImage(model.content(), model.imageInfo());
+                case EventStream -> this.showEvents(model);
+            }
         }
+        this.showingEvents = model.kind() == ResponseDisplayModel.Kind.EventStream;
 
-        this.resultHtmlPane.setText(htmlString);
-        this.resultTimeField.setText(data.elapsedTime());
-        this.resultSizeField.setText(byteSize);
+        if (model.kind() != ResponseDisplayModel.Kind.Image) {
+            this.imagePanel.setImage(null, null);
+        }
 
-        this.resultTextWrapper.setVisible(true);
-        this.resultJsonPane.setVisible(false);
-        this.resultHtmlPane.setVisible(true);
-        this.imagePanel.setVisible(false);
+        this.resultTextWrapper.setVisible(!large && model.kind() != ResponseDisplayModel.Kind.Image && !this.showingEvents);
+        this.resultJsonPane.setVisible(model.kind() == ResponseDisplayModel.Kind.Json);
+        this.resultHtmlPane.setVisible(model.kind() == ResponseDisplayModel.Kind.Html);
+        this.imagePanel.setVisible(model.kind() == ResponseDisplayModel.Kind.Image);
+        this.largeBodyViewer.setVisible(large);
+        this.eventPanel.setVisible(this.showingEvents);
+
+        // chunks which arrived while the response was formatted
+        if (this.pendingChunk != null) {
+            List<SseEvent> events = new ArrayList<>(this.pendingEvents);
+            ResponseChunk last = this.pendingChunk;
+            this.pendingEvents.clear();
+            this.pendingChunk = null;
+
+            this.showChunkContent(events, last);
+        }
     }
 
-    private void parseAsImage(ResponseData data) {
-        String byteSize = FileUtils.byteCountToDisplaySize(data.content().length);
-
-        this.imagePanel.setImage(data.content());
-        this.resultTimeField.setText(data.elapsedTime());
-        this.resultSizeField.setText(byteSize);
+    /**
+     * Shows the events of the response. While the stream is running, the events received so far are kept,
+     * since they carry the time they were received.
+     */
+    private void showEvents(ResponseDisplayModel model) {
+        if (!this.loading || !this.showingEvents) {
+            this.eventPanel.setEvents(model.events(), RestTesterStateService.getInstance().getMaxStreamEvents());
+        }
+        this.eventPanel.setLive(this.loading);
 
-        this.resultTextWrapper.setVisible(false);
-        this.imagePanel.setVisible(true);
+        // the text of previous responses is not needed anymore
+        this.resultJsonPane.setText("");
+        this.resultHtmlPane.setText("");
     }
 
-    private void parseError(ResponseData responseData) {
-        String error = new String(responseData.error(), StandardCharsets.UTF_8);
-
-        var headerText = this.headersTextPane.getText();
+    private void updateTiming(ResponseTiming timing, RequestAttempts attempts) {
+        this.timingPanel.setTiming(timing);
 
-        if (!headerText.isBlank()) {
-            headerText += '\n';
+        if (timing.totalNanos() == 0) {
+            this.resultTimeField.setToolTipText(null);
+            return;
         }
-        this.headersTextPane.setText(headerText + error);
-
-        var jsonText = this.resultJsonPane.getText();
 
-        if (!jsonText.isBlank()) {
-            jsonText += '\n';
+        String tooltip = "<html>";
+        if (timing.queueNanos() > 0) {
+            // waiting for the host limits is not part of the displayed request time
+            tooltip += "Queue wait: " + ResponseTiming.formatMillis(timing.queueNanos()) + "<br>";
         }
-        this.resultJsonPane.setText(jsonText + error);
 
-        var htmlText = this.resultHtmlPane.getText();
+        tooltip += "Name resolution: " + ResponseTiming.formatMillis(timing.resolveNanos())
+                + (timing.connectionReused() ? "<br>Wait (TTFB), connection reused: " : "<br>Connect &amp; wait (TTFB): ")
+                + ResponseTiming.formatMillis(timing.firstByteNanos())
+                + "<br>Download: " + ResponseTiming.formatMillis(timing.downloadNanos());
 
-        if (!htmlText.isBlank()) {
-            htmlText += '\n';
+        if (attempts.isRepeated()) {
+            // the phases belong to the last attempt, the total time includes all attempts and backoffs
+            tooltip += "<br>Attempts: " + attempts.count() + (attempts.hedged() ? " (hedged)" : "");
         }
-        this.resultHtmlPane.setText(htmlText + error);
+        this.resultTimeField.setToolTipText(tooltip + "</html>");
     }
 }
@@ -0,0 +1,29 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A single server-sent event of an event stream.
+ *
+ * @param receivedAt time in milliseconds when the event was received, 0 if it was read from a stored body
+ * @param type       event type, "message" if the event has no event field
+ * @param id         last event id of the stream at this event or null if no id was sent
+ * @param data       data of the event, lines are joined with a line feed
+ * @param size       number of bytes of the event in the stream including its fields
+ */
+public record SseEvent(
+        long receivedAt,
+        String type,
+        @Nullable String id,
+        String data,
+        int size
+) {
+    public static final String DEFAULT_TYPE = "message";
+}
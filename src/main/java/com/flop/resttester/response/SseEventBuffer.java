@@ -0,0 +1,108 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ring buffer of the last events of a stream. The oldest events are dropped when the capacity is reached,
+ * so a long running stream keeps a constant memory.
+ * <p>
+ * Events are addressed by their index in the whole stream, which stays the same when older events are dropped.
+ */
+public class SseEventBuffer {
+    /**
+     * Maximal number of distinct event types which are collected for the type filter.
+     */
+    private static final int MAX_TYPES = 100;
+
+    private final SseEvent[] events;
+    private int head = 0;
+    private int size = 0;
+    private long totalEvents = 0;
+    private long totalBytes = 0;
+    private final Set<String> types = new LinkedHashSet<>();
+
+    public SseEventBuffer(int capacity) {
+        this.events = new SseEvent[Math.max(1, capacity)];
+    }
+
+    public void add(SseEvent event) {
+        int index = (this.head + this.size) % this.events.length;
+        this.events[index] = event;
+
+        if (this.size < this.events.length) {
+            this.size++;
+        } else {
+            this.head = (this.head + 1) % this.events.length;
+        }
+
+        this.totalEvents++;
+        this.totalBytes += event.size();
+
+        if (this.types.size() < MAX_TYPES) {
+            this.types.add(event.type());
+        }
+    }
+
+    /**
+     * @param index index of the event in the stream, between {@link #getFirstIndex()} and {@link #getTotalEvents()}
+     */
+    public SseEvent get(long index) {
+        long offset = index - this.getFirstIndex();
+
+        if (offset < 0 || offset >= this.size) {
+            throw new IndexOutOfBoundsException("Event " + index + " is not retained.");
+        }
+        return this.events[(int) ((this.head + offset) % this.events.length)];
+    }
+
+    /**
+     * @return stream index of the oldest retained event
+     */
+    public long getFirstIndex() {
+        return this.totalEvents - this.size;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int getCapacity() {
+        return this.events.length;
+    }
+
+    /**
+     * @return number of events of the stream including the dropped ones
+     */
+    public long getTotalEvents() {
+        return this.totalEvents;
+    }
+
+    public long getTotalBytes() {
+        return this.totalBytes;
+    }
+
+    public Set<String> getTypes() {
+        return this.types;
+    }
+
+    /**
+     * @return the retained events from the oldest to the newest
+     */
+    public List<SseEvent> getEvents() {
+        List<SseEvent> list = new ArrayList<>(this.size);
+        for (long i = this.getFirstIndex(); i < this.totalEvents; i++) {
+            list.add(this.get(i));
+        }
+        return list;
+    }
+}
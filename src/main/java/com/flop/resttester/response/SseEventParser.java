@@ -0,0 +1,265 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Parses an event stream as specified for server-sent events, byte by byte as the data arrives.
+ * <p>
+ * Lines end with CR, LF or CRLF, also if the terminator is split between two reads. Field names are compared on bytes,
+ * comments are skipped without decoding, and the data of an event is decoded once when the event is dispatched.
+ * The last event id and the reconnection time are kept across connections. An id only becomes the last event id when
+ * its event is completed, so an event which was cut off by a lost connection is sent again.
+ */
+public class SseEventParser {
+    public static final long DEFAULT_RETRY_MILLIS = 3000;
+
+    private static final byte[] EVENT = "event".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DATA = "data".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ID = "id".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RETRY = "retry".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private byte[] line = new byte[256];
+    private int lineLength = 0;
+    private byte[] data = new byte[256];
+    private int dataLength = 0;
+    private boolean hasData = false;
+    private String type = null;
+    private String lastEventId = null;
+    /**
+     * Id of the incomplete event, null if the event has no id field.
+     */
+    private String pendingEventId = null;
+    private long retryMillis = DEFAULT_RETRY_MILLIS;
+
+    /**
+     * Number of bytes of the stream which were read since the last event was completed.
+     */
+    private int eventSize = 0;
+    private boolean skipLineFeed = false;
+    private int bomPosition = 0;
+
+    /**
+     * Parses the next bytes of the stream and passes each completed event to the consumer.
+     *
+     * @param receivedAt time in milliseconds when the bytes were received
+     */
+    public void feed(byte[] buffer, int offset, int length, long receivedAt, Consumer<SseEvent> consumer) {
+        int end = offset + length;
+
+        for (int i = offset; i < end; i++) {
+            byte b = buffer[i];
+
+            // the byte order mark is only skipped at the start of the stream
+            if (this.bomPosition < BOM.length) {
+                if (b == BOM[this.bomPosition] && this.eventSize == this.bomPosition) {
+                    this.bomPosition++;
+                    this.eventSize++;
+                    continue;
+                }
+                this.bomPosition = BOM.length;
+            }
+
+            this.eventSize++;
+
+            if (b == '\n' && this.skipLineFeed) {
+                this.skipLineFeed = false;
+                continue;
+            }
+            this.skipLineFeed = b == '\r';
+
+            if (b == '\r' || b == '\n') {
+                SseEvent event = this.processLine(receivedAt);
+                if (event != null) {
+                    consumer.accept(event);
+                }
+                continue;
+            }
+
+            if (this.lineLength == this.line.length) {
+                this.line = Arrays.copyOf(this.line, this.line.length * 2);
+            }
+            this.line[this.lineLength++] = b;
+        }
+    }
+
+    /**
+     * Discards the incomplete event including its id, e.g. after the connection was lost.
+     * The last event id and retry time are kept.
+     */
+    public void reset() {
+        this.lineLength = 0;
+        this.pendingEventId = null;
+        this.dataLength = 0;
+        this.hasData = false;
+        this.type = null;
+        this.eventSize = 0;
+        this.skipLineFeed = false;
+        this.bomPosition = 0;
+    }
+
+    /**
+     * @return the id which is sent as Last-Event-ID on reconnection or null if the stream did not set an id
+     */
+    public @Nullable String getLastEventId() {
+        return this.lastEventId;
+    }
+
+    /**
+     * @return the time to wait before reconnecting, as set by the retry field of the stream
+     */
+    public long getRetryMillis() {
+        return this.retryMillis;
+    }
+
+    /**
+     * Reads the events of a stored event stream body, only the last events up to the given number are kept.
+     */
+    public static List<SseEvent> parse(ResponseBody body, int maxEvents) {
+        SseEventBuffer buffer = new SseEventBuffer(maxEvents);
+        SseEventParser parser = new SseEventParser();
+
+        try (InputStream stream = body.openStream()) {
+            byte[] bytes = new byte[8192];
+            int read;
+
+            while ((read = stream.read(bytes)) != -1) {
+                parser.feed(bytes, 0, read, 0, buffer::add);
+            }
+        } catch (IOException e) {
+            // the events read so far are shown
+        }
+        return buffer.getEvents();
+    }
+
+    private @Nullable SseEvent processLine(long receivedAt) {
+        int length = this.lineLength;
+        this.lineLength = 0;
+
+        if (length == 0) {
+            return this.dispatch(receivedAt);
+        }
+
+        // comment
+        if (this.line[0] == ':') {
+            return null;
+        }
+
+        int colon = 0;
+        while (colon < length && this.line[colon] != ':') {
+            colon++;
+        }
+
+        int valueStart = Math.min(length, colon + 1);
+        if (valueStart < length && this.line[valueStart] == ' ') {
+            valueStart++;
+        }
+
+        if (this.isField(DATA, colon)) {
+            this.appendData(valueStart, length);
+        } else if (this.isField(EVENT, colon)) {
+            this.type = this.decode(valueStart, length);
+        } else if (this.isField(ID, colon)) {
+            if (!this.containsNull(valueStart, length)) {
+                this.pendingEventId = this.decode(valueStart, length);
+            }
+        } else if (this.isField(RETRY, colon)) {
+            this.setRetry(valueStart, length);
+        }
+        // other fields are ignored
+        return null;
+    }
+
+    private @Nullable SseEvent dispatch(long receivedAt) {
+        int size = this.eventSize;
+        this.eventSize = 0;
+
+        if (this.pendingEventId != null) {
+            this.lastEventId = this.pendingEventId;
+            this.pendingEventId = null;
+        }
+
+        // events without data are not dispatched, their id is kept for the following events
+        if (!this.hasData) {
+            this.type = null;
+            return null;
+        }
+
+        SseEvent event = new SseEvent(
+                receivedAt,
+                this.type == null || this.type.isEmpty() ? SseEvent.DEFAULT_TYPE : this.type,
+                this.lastEventId,
+                new String(this.data, 0, this.dataLength, StandardCharsets.UTF_8),
+                size
+        );
+
+        this.type = null;
+        this.dataLength = 0;
+        this.hasData = false;
+        return event;
+    }
+
+    /**
+     * Lines of the data field are joined with a line feed, without a trailing line feed.
+     */
+    private void appendData(int start, int end) {
+        int length = end - start + (this.hasData ? 1 : 0);
+
+        if (this.dataLength + length > this.data.length) {
+            this.data = Arrays.copyOf(this.data, Math.max(this.data.length * 2, this.dataLength + length));
+        }
+        if (this.hasData) {
+            this.data[this.dataLength++] = '\n';
+        }
+
+        System.arraycopy(this.line, start, this.data, this.dataLength, end - start);
+        this.dataLength += end - start;
+        this.hasData = true;
+    }
+
+    private void setRetry(int start, int end) {
+        if (start == end || end - start > 18) {
+            return;
+        }
+
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            if (this.line[i] < '0' || this.line[i] > '9') {
+                return;
+            }
+            value = value * 10 + (this.line[i] - '0');
+        }
+        this.retryMillis = value;
+    }
+
+    private boolean isField(byte[] name, int length) {
+        return length == name.length && Arrays.equals(this.line, 0, length, name, 0, length);
+    }
+
+    private boolean containsNull(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (this.line[i] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String decode(int start, int end) {
+        return new String(this.line, start, end - start, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.runner;
+
+/**
+ * @param parallelism   maximal number of requests which are in flight at the same time
+ * @param stopOnFailure whether remaining requests are skipped after the first failed request
+ */
+public record CollectionRunConfig(
+        int parallelism,
+        boolean stopOnFailure
+) {
+}
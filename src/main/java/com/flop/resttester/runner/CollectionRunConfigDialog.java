@@ -0,0 +1,52 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.runner;
+
+import com.intellij.openapi.ui.DialogWrapper;
+import net.miginfocom.swing.MigLayout;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+
+public class CollectionRunConfigDialog extends DialogWrapper {
+    private final int requestCount;
+    private JSpinner parallelism;
+    private JCheckBox stopOnFailure;
+
+    public CollectionRunConfigDialog(String folderName, int requestCount) {
+        super(true);
+        this.requestCount = requestCount;
+        setTitle("Run Folder: " + folderName);
+        setOKButtonText("Run");
+        init();
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        JPanel dialogPanel = new JPanel(new MigLayout("ins 8", "[]12[]", "[]8[]8[]"));
+
+        dialogPanel.add(new JLabel(this.requestCount + " request(s) will be sent."), "span, wrap");
+
+        dialogPanel.add(new JLabel("Parallel requests:"));
+        this.parallelism = new JSpinner(new SpinnerNumberModel(4, 1, 256, 1));
+        dialogPanel.add(this.parallelism, "growx, wrap");
+
+        this.stopOnFailure = new JCheckBox("Stop on first failure");
+        dialogPanel.add(this.stopOnFailure, "span, wrap");
+
+        return dialogPanel;
+    }
+
+    public CollectionRunConfig getConfig() {
+        return new CollectionRunConfig(
+                ((Number) this.parallelism.getValue()).intValue(),
+                this.stopOnFailure.isSelected()
+        );
+    }
+}
@@ -0,0 +1,21 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.runner;
+
+import java.util.EventListener;
+
+public interface CollectionRunListener extends EventListener {
+    /**
+     * Called from a background thread whenever the state of a request changes.
+     *
+     * @param index position of the request in the run
+     */
+    void onResult(int index, CollectionRunResult result);
+
+    void onFinished();
+}
@@ -0,0 +1,40 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.runner;
+
+/**
+ * @param code         response code, -1 if the request failed without a response
+ * @param elapsedNanos time until the whole body was received, without the queue wait
+ * @param queueNanos   time the request waited for the host limits
+ * @param size         number of body bytes
+ * @param error        error message of failed requests, otherwise empty
+ */
+public record CollectionRunResult(
+        State state,
+        int code,
+        long elapsedNanos,
+        long queueNanos,
+        long size,
+        String error
+) {
+    public enum State {
+        Pending,
+        Running,
+        Success,
+        Failed,
+        Skipped
+    }
+
+    public static final CollectionRunResult PENDING = new CollectionRunResult(State.Pending, -1, 0, 0, 0, "");
+    public static final CollectionRunResult RUNNING = new CollectionRunResult(State.Running, -1, 0, 0, 0, "");
+    public static final CollectionRunResult SKIPPED = new CollectionRunResult(State.Skipped, -1, 0, 0, 0, "");
+
+    public boolean isFailure() {
+        return this.state == State.Failed;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.runner;
+
+import com.flop.resttester.requesttree.RequestTreeNodeData;
+import org.apache.commons.io.FileUtils;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CollectionRunTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"Request", "Status", "Time", "Size"};
+
+    private final List<RequestTreeNodeData> nodes;
+    private final List<CollectionRunResult> results;
+
+    public CollectionRunTableModel(List<RequestTreeNodeData> nodes) {
+        this.nodes = nodes;
+        this.results = new ArrayList<>(nodes.size());
+
+        for (int i = 0; i < nodes.size(); i++) {
+            this.results.add(CollectionRunResult.PENDING);
+        }
+    }
+
+    public void setResult(int index, CollectionRunResult result) {
+        this.results.set(index, result);
+        this.fireTableRowsUpdated(index, index);
+    }
+
+    public CollectionRunResult getResult(int index) {
+        return this.results.get(index);
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.nodes.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        CollectionRunResult result = this.results.get(rowIndex);
+
+        return switch (columnIndex) {
+            case 0 -> this.nodes.get(rowIndex).toString();
+            case 1 -> CollectionRunTableModel.getStatusText(result);
+            case 2 -> CollectionRunTableModel.getTimeText(result);
+            case 3 -> result.code() == -1 ? "" : FileUtils.byteCountToDisplaySize(result.size());
+            default -> "";
+        };
+    }
+
+    private static String getTimeText(CollectionRunResult result) {
+        if (result.elapsedNanos() == 0) {
+            return "";
+        }
+
+        String time = String.format("%.0f ms", result.elapsedNanos() / 1_000_000d);
+        if (result.queueNanos() >= 1_000_000) {
+            time += String.format(" (+%.0f ms queued)", result.queueNanos() / 1_000_000d);
+        }
+        return time;
+    }
+
+    private static String getStatusText(CollectionRunResult result) {
+        if (result.code() != -1) {
+            return String.valueOf(result.code());
+        }
+        if (result.isFailure()) {
+            return "Failed: " + result.error();
+        }
+        return result.state().toString();
+    }
+}
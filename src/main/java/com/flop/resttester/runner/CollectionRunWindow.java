@@ -0,0 +1,131 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.runner;
+
+import com.flop.resttester.request.RequestData;
+import com.flop.resttester.requesttree.RequestTreeNodeData;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.util.List;
+
+/**
+ * Non-modal window which runs all requests of a folder and shows the result of each request once it arrives.
+ */
+public class CollectionRunWindow extends DialogWrapper {
+    private final CollectionRunTableModel model;
+    private final CollectionRunner runner;
+    private final JLabel summary = new JLabel();
+    private final Action stopAction;
+
+    private int finished = 0;
+    private int failed = 0;
+
+    public CollectionRunWindow(
+            Project project,
+            String folderName,
+            List<RequestTreeNodeData> nodes,
+            List<RequestData> requests,
+            CollectionRunConfig config
+    ) {
+        super(project, false);
+        this.model = new CollectionRunTableModel(nodes);
+        this.runner = new CollectionRunner(project, requests, config, new CollectionRunListener() {
+            @Override
+            public void onResult(int index, CollectionRunResult result) {
+                SwingUtilities.invokeLater(() -> CollectionRunWindow.this.updateResult(index, result));
+            }
+
+            @Override
+            public void onFinished() {
+                SwingUtilities.invokeLater(CollectionRunWindow.this::updateFinished);
+            }
+        });
+        this.stopAction = new DialogWrapperAction("Stop") {
+            @Override
+            protected void doAction(ActionEvent e) {
+                CollectionRunWindow.this.runner.stop();
+                this.setEnabled(false);
+            }
+        };
+
+        setTitle("Run Folder: " + folderName);
+        setModal(false);
+        setOKButtonText("Close");
+        init();
+    }
+
+    public void run() {
+        this.show();
+        this.runner.start();
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        JPanel panel = new JPanel(new BorderLayout(0, 8));
+
+        JBTable table = new JBTable(this.model);
+        table.getColumnModel().getColumn(0).setPreferredWidth(300);
+        table.getColumnModel().getColumn(1).setPreferredWidth(160);
+
+        JBScrollPane scrollPane = new JBScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(640, 400));
+
+        panel.add(scrollPane, BorderLayout.CENTER);
+        panel.add(this.summary, BorderLayout.SOUTH);
+        this.updateSummary();
+
+        return panel;
+    }
+
+    @Override
+    protected Action @NotNull [] createActions() {
+        return new Action[]{this.stopAction, this.getOKAction()};
+    }
+
+    @Override
+    public void dispose() {
+        // closing the window skips all outstanding requests
+        this.runner.stop();
+        super.dispose();
+    }
+
+    private void updateResult(int index, CollectionRunResult result) {
+        this.model.setResult(index, result);
+
+        if (result.state() == CollectionRunResult.State.Success || result.isFailure()) {
+            this.finished++;
+        }
+        if (result.isFailure()) {
+            this.failed++;
+        }
+        this.updateSummary();
+    }
+
+    private void updateFinished() {
+        this.stopAction.setEnabled(false);
+        this.updateSummary();
+    }
+
+    private void updateSummary() {
+        String text = this.finished + " / " + this.model.getRowCount() + " finished, " + this.failed + " failed";
+
+        if (this.runner.isDone()) {
+            text += " (done)";
+        }
+        this.summary.setText(text);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.runner;
+
+import com.flop.resttester.request.*;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Sends a list of requests with a limited number of requests in flight at the same time.
+ * Each request runs on its own virtual thread, a coordinator thread only hands out the permits.
+ */
+public class CollectionRunner {
+    private final Project project;
+    private final List<RequestData> requests;
+    private final CollectionRunConfig config;
+    private final CollectionRunListener listener;
+    private final Semaphore permits;
+
+    private volatile boolean stopped = false;
+    private volatile boolean done = false;
+
+    public CollectionRunner(
+            @Nullable Project project,
+            List<RequestData> requests,
+            CollectionRunConfig config,
+            CollectionRunListener listener
+    ) {
+        this.project = project;
+        this.requests = requests;
+        this.config = config;
+        this.listener = listener;
+        this.permits = new Semaphore(Math.max(1, config.parallelism()));
+    }
+
+    public void start() {
+        RequestExecutor.getInstance().execute(this::coordinate);
+    }
+
+    /**
+     * Skips all requests which did not start yet. Running requests are finished.
+     */
+    public void stop() {
+        this.stopped = true;
+    }
+
+    public boolean isDone() {
+        return this.done;
+    }
+
+    private void coordinate() {
+        RequestExecutor executor = RequestExecutor.getInstance();
+
+        try {
+            for (int i = 0; i < this.requests.size(); i++) {
+                if (this.stopped) {
+                    this.listener.onResult(i, CollectionRunResult.SKIPPED);
+                    continue;
+                }
+
+                this.permits.acquire();
+
+                if (this.stopped) {
+                    this.permits.release();
+                    this.listener.onResult(i, CollectionRunResult.SKIPPED);
+                    continue;
+                }
+
+                int index = i;
+                this.listener.onResult(index, CollectionRunResult.RUNNING);
+                executor.execute(() -> {
+                    try {
+                        CollectionRunResult result = this.send(this.requests.get(index));
+                        this.listener.onResult(index, result);
+
+                        if (result.isFailure() && this.config.stopOnFailure()) {
+                            this.stopped = true;
+                        }
+                    } finally {
+                        this.permits.release();
+                    }
+                });
+            }
+
+            // wait for the remaining requests
+            this.permits.acquire(Math.max(1, this.config.parallelism()));
+        } catch (InterruptedException ignore) {
+        } finally {
+            this.done = true;
+            this.listener.onFinished();
+        }
+    }
+
+    private CollectionRunResult send(RequestData data) {
+        HttpClientRegistry registry = HttpClientRegistry.getInstance();
+        HttpClient client = registry.borrow(HttpClientProfile.of(data));
+        long start = System.nanoTime();
+        long queued = 0;
+        HostLimiter.Permit permit = null;
+
+        try {
+            URI uri = new URI(UrlTemplate.compile(data).render());
+            HttpRequest request = RequestThread.createRequestBuilder(this.project, data, uri).build();
+
+            // the wait for the host limits is not part of the request time
+            permit = HostLimiter.getInstance().acquire(uri.getHost(), data.hostLimit());
+            queued = permit.getWaitNanos();
+            start += queued;
+
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+            // only the size of the body is of interest, so it is not kept in memory
+            long size = 0;
+            try (InputStream body = response.body()) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    size += read;
+                }
+            }
+
+            long elapsed = System.nanoTime() - start;
+            CollectionRunResult.State state = response.statusCode() < 400 ? CollectionRunResult.State.Success : CollectionRunResult.State.Failed;
+            return new CollectionRunResult(state, response.statusCode(), elapsed, queued, size, "");
+        } catch (Exception e) {
+            String message = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            return new CollectionRunResult(CollectionRunResult.State.Failed, -1, System.nanoTime() - start, queued, 0, message);
+        } finally {
+            if (permit != null) {
+                permit.close();
+            }
+            registry.release(client);
+        }
+    }
+}
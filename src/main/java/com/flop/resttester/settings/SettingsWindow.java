@@ -8,6 +8,8 @@
 package com.flop.resttester.settings;
 
 import com.flop.resttester.RestTesterNotifier;
+import com.flop.resttester.cache.HttpResponseCache;
+import com.flop.resttester.request.HttpClientRegistry;
 import com.flop.resttester.state.*;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -33,6 +35,7 @@ import java.time.format.DateTimeFormatter;
 
 public class SettingsWindow {
 
+    private static final long BYTES_PER_MB = 1024 * 1024;
     private final String STATE_FILE_NAME = "RestTester";
     private final int SAVE_FILE_VERSION = 2;
     private final RestTesterStateService stateService;
@@ -50,6 +53,12 @@ public class SettingsWindow {
     private JButton insomniaImport;
     private JLabel experimentalLabel;
     private JButton postmanImport;
+    private JButton closeConnectionsButton;
+    private JButton clearResponseCacheButton;
+    private JSpinner bodyMemoryLimit;
+    private JSpinner maxStreamEvents;
+    private JCheckBox acceptCompression;
+    private JCheckBox warmUpConnections;
 
     private final ChangeListener settingsChangeListener = this::onSettingsChange;
 
@@ -65,10 +74,35 @@ public class SettingsWindow {
         this.resetButton.addActionListener(this::onReset);
         this.insomniaImport.addActionListener(this::onInsomniaImport);
         this.postmanImport.addActionListener(this::onPostmanImport);
+        this.closeConnectionsButton.addActionListener(this::onCloseConnections);
+        this.clearResponseCacheButton.addActionListener(this::onClearResponseCache);
+        this.setupBodyMemoryLimit();
+        this.setupMaxStreamEvents();
+
+        this.acceptCompression.setSelected(this.stateService.getAcceptCompression());
+        this.acceptCompression.addActionListener((e) -> this.stateService.setAcceptCompression(this.acceptCompression.isSelected()));
+        this.warmUpConnections.setSelected(this.stateService.getWarmUpConnections());
+        this.warmUpConnections.addActionListener((e) -> this.stateService.setWarmUpConnections(this.warmUpConnections.isSelected()));
 
         this.setupStyles();
     }
 
+    private void setupBodyMemoryLimit() {
+        int limit = (int) (this.stateService.getBodyMemoryLimit() / BYTES_PER_MB);
+        this.bodyMemoryLimit.setModel(new SpinnerNumberModel(limit, 1, 2048, 1));
+        this.bodyMemoryLimit.addChangeListener((e) -> {
+            long value = ((Number) this.bodyMemoryLimit.getValue()).longValue();
+            this.stateService.setBodyMemoryLimit(value * BYTES_PER_MB);
+        });
+    }
+
+    private void setupMaxStreamEvents() {
+        this.maxStreamEvents.setModel(new SpinnerNumberModel(this.stateService.getMaxStreamEvents(), 100, 1_000_000, 1000));
+        this.maxStreamEvents.addChangeListener((e) ->
+                this.stateService.setMaxStreamEvents(((Number) this.maxStreamEvents.getValue()).intValue())
+        );
+    }
+
     private void onExport(ActionEvent actionEvent) {
         FileChooserDescriptor dirDescriptor = new FileChooserDescriptor(false, true, false, false, false, false);
         VirtualFile[] files = FileChooser.chooseFiles(dirDescriptor, null, null);
@@ -191,6 +225,20 @@ public class SettingsWindow {
         this.stateService.setRequestState(-1, RequestStateHelper.string2State(""));
     }
 
+    public void onCloseConnections(ActionEvent event) {
+        HttpClientRegistry registry = HttpClientRegistry.getInstance();
+        int count = registry.getClientCount();
+        registry.flush();
+        RestTesterNotifier.notifyInfo(this.project, "Rest Tester: Closed connections of " + count + " http client(s).");
+    }
+
+    public void onClearResponseCache(ActionEvent event) {
+        HttpResponseCache cache = HttpResponseCache.getInstance();
+        int count = cache.getEntryCount();
+        cache.clear();
+        RestTesterNotifier.notifyInfo(this.project, "Rest Tester: Removed " + count + " cached response(s).");
+    }
+
     public void onInsomniaImport(ActionEvent event) {
         JsonElement jsonElement = this.openJsonFilePicker();
 
@@ -14,10 +14,17 @@ public class RestTesterGlobalState {
     static final String ENV_NAME_KEY = "envName";
     static final String ENV_BASE_URL_KEY = "envBaseUrl";
     static final String ENV_DEFAULT_AUTH_KEY = "envDefaultAuth";
+    static final String ENV_RETRY_POLICY_KEY = "envRetryPolicy";
+    static final String ENV_HOST_LIMIT_KEY = "envHostLimit";
+    static final String ENV_RESPONSE_CACHE_KEY = "envResponseCache";
 
     public int version = -1;
     public boolean validateSSL = false;
     public boolean allowRedirects = true;
+    public long bodyMemoryLimit = RestTesterStateService.DEFAULT_BODY_MEMORY_LIMIT;
+    public boolean acceptCompression = true;
+    public boolean warmUpConnections = false;
+    public int maxStreamEvents = RestTesterStateService.DEFAULT_MAX_STREAM_EVENTS;
 
     public String environmentState = "";
     public int selectedEnvironment = -1;
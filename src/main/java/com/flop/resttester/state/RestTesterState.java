@@ -9,6 +9,8 @@ package com.flop.resttester.state;
 
 import com.flop.resttester.auth.AuthenticationData;
 import com.flop.resttester.auth.AuthenticationNode;
+import com.flop.resttester.request.HostLimit;
+import com.flop.resttester.request.RetryPolicy;
 import com.flop.resttester.requesttree.RequestTreeNode;
 import com.flop.resttester.requesttree.RequestTreeNodeData;
 
@@ -19,6 +21,9 @@ public class RestTesterState {
     public Integer id;
     public String baseUrl = "";
     public String defaultAuthKey = "";
+    public RetryPolicy retryPolicy = RetryPolicy.NONE;
+    public HostLimit hostLimit = HostLimit.NONE;
+    public boolean useResponseCache = false;
     public AuthenticationNode authState = new AuthenticationNode(new AuthenticationData("", ""));
     public DefaultTableModel variablesState = new DefaultTableModel();
     public RequestTreeNode requestState = new RequestTreeNode(new RequestTreeNodeData(""));
@@ -35,6 +40,9 @@ public class RestTesterState {
         newState.requestState = requestState;
         newState.defaultAuthKey = defaultAuthKey;
         newState.baseUrl = baseUrl;
+        newState.retryPolicy = retryPolicy;
+        newState.hostLimit = hostLimit;
+        newState.useResponseCache = useResponseCache;
         return newState;
     }
 }
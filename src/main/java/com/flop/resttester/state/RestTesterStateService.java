@@ -11,6 +11,8 @@ import com.flop.resttester.RestTesterNotifier;
 import com.flop.resttester.auth.AuthenticationNode;
 import com.flop.resttester.enviroment.EnvChangeListener;
 import com.flop.resttester.enviroment.EnvironmentsSnapshot;
+import com.flop.resttester.request.HostLimit;
+import com.flop.resttester.request.RetryPolicy;
 import com.flop.resttester.requesttree.RequestTreeNode;
 import com.flop.resttester.requesttree.RequestTreeWindow;
 import com.google.gson.JsonElement;
@@ -33,6 +35,8 @@ public class RestTesterStateService implements PersistentStateComponent<RestTest
     private static final int SAVE_STATE_VERSION = 2;
     private static final String DEFAULT_ENVIRONMENT = "Default Environment";
     public static final Integer DEFAULT_ENVIRONMENT_ID = -1;
+    public static final long DEFAULT_BODY_MEMORY_LIMIT = 16 * 1024 * 1024;
+    public static final int DEFAULT_MAX_STREAM_EVENTS = 10_000;
 
     public List<RequestStateChangeListener> requestChangeListener = new ArrayList<>();
     public List<AuthStateChangeListener> authChangeListener = new ArrayList<>();
@@ -43,6 +47,10 @@ public class RestTesterStateService implements PersistentStateComponent<RestTest
     private RestTesterState state = new RestTesterState(DEFAULT_ENVIRONMENT, DEFAULT_ENVIRONMENT_ID);
     private boolean validateSSL = false;
     private boolean allowRedirects = true;
+    private long bodyMemoryLimit = DEFAULT_BODY_MEMORY_LIMIT;
+    private boolean acceptCompression = true;
+    private boolean warmUpConnections = false;
+    private int maxStreamEvents = DEFAULT_MAX_STREAM_EVENTS;
 
     public Map<Integer, RestTesterState> environments = new HashMap<>();
     public Integer selectedEnvironment = DEFAULT_ENVIRONMENT_ID;
@@ -57,6 +65,10 @@ public class RestTesterStateService implements PersistentStateComponent<RestTest
 
         globalState.allowRedirects = this.allowRedirects;
         globalState.validateSSL = this.validateSSL;
+        globalState.bodyMemoryLimit = this.bodyMemoryLimit;
+        globalState.acceptCompression = this.acceptCompression;
+        globalState.warmUpConnections = this.warmUpConnections;
+        globalState.maxStreamEvents = this.maxStreamEvents;
         globalState.environmentState = this.generateEnvSaveState();
         globalState.selectedEnvironment = this.selectedEnvironment;
         globalState.version = RestTesterStateService.SAVE_STATE_VERSION;
@@ -83,6 +95,10 @@ public class RestTesterStateService implements PersistentStateComponent<RestTest
 
         this.validateSSL = state.validateSSL;
         this.allowRedirects = state.allowRedirects;
+        this.bodyMemoryLimit = state.bodyMemoryLimit;
+        this.acceptCompression = state.acceptCompression;
+        this.warmUpConnections = state.warmUpConnections;
+        this.maxStreamEvents = state.maxStreamEvents;
     }
 
     /**
@@ -137,6 +153,21 @@ public class RestTesterStateService implements PersistentStateComponent<RestTest
                     RestTesterNotifier.notifyError(null, "Rest Tester: Missing missing default auth key in environment state.");
                 }
 
+                // optional, older states do not contain a retry policy
+                if (envObj.has(RestTesterGlobalState.ENV_RETRY_POLICY_KEY)) {
+                    restState.retryPolicy = RetryPolicy.createFromJson(envObj.get(RestTesterGlobalState.ENV_RETRY_POLICY_KEY).getAsJsonObject());
+                }
+
+                // optional, older states do not contain host limits
+                if (envObj.has(RestTesterGlobalState.ENV_HOST_LIMIT_KEY)) {
+                    restState.hostLimit = HostLimit.createFromJson(envObj.get(RestTesterGlobalState.ENV_HOST_LIMIT_KEY).getAsJsonObject());
+                }
+
+                // optional, older states do not contain the cache setting
+                if (envObj.has(RestTesterGlobalState.ENV_RESPONSE_CACHE_KEY)) {
+                    restState.useResponseCache = envObj.get(RestTesterGlobalState.ENV_RESPONSE_CACHE_KEY).getAsBoolean();
+                }
+
                 if (envObj.has(RestTesterGlobalState.AUTH_STATE_KEY)) {
                     JsonElement authState = envObj.get(RestTesterGlobalState.AUTH_STATE_KEY);
                     restState.authState = AuthStateHelper.string2State(authState.getAsString());
@@ -235,6 +266,47 @@ public class RestTesterStateService implements PersistentStateComponent<RestTest
         return this.allowRedirects;
     }
 
+    /**
+     * @return number of body bytes which are kept in memory before a response is written to a temporary file
+     */
+    public long getBodyMemoryLimit() {
+        return this.bodyMemoryLimit;
+    }
+
+    public void setBodyMemoryLimit(long bodyMemoryLimit) {
+        this.bodyMemoryLimit = bodyMemoryLimit;
+    }
+
+    /**
+     * @return whether requests advertise gzip and deflate compressed responses
+     */
+    public boolean getAcceptCompression() {
+        return this.acceptCompression;
+    }
+
+    public void setAcceptCompression(boolean acceptCompression) {
+        this.acceptCompression = acceptCompression;
+    }
+
+    public boolean getWarmUpConnections() {
+        return this.warmUpConnections;
+    }
+
+    public void setWarmUpConnections(boolean warmUpConnections) {
+        this.warmUpConnections = warmUpConnections;
+    }
+
+    /**
+     * @return number of server-sent events which are kept for the event list, older events are dropped
+     */
+    public int getMaxStreamEvents() {
+        return this.maxStreamEvents;
+    }
+
+    public void setMaxStreamEvents(int maxStreamEvents) {
+        this.maxStreamEvents = maxStreamEvents;
+    }
+
     public void setAuthState(int source, AuthenticationNode root) {
         this.state.authState = root;
 
@@ -326,6 +398,9 @@ public class RestTesterStateService implements PersistentStateComponent<RestTest
             entrySaveState.addProperty(RestTesterGlobalState.ENV_NAME_KEY, entryState.name);
             entrySaveState.addProperty(RestTesterGlobalState.ENV_BASE_URL_KEY, entryState.baseUrl);
             entrySaveState.addProperty(RestTesterGlobalState.ENV_DEFAULT_AUTH_KEY, entryState.defaultAuthKey);
+            entrySaveState.add(RestTesterGlobalState.ENV_RETRY_POLICY_KEY, entryState.retryPolicy.getAsJson());
+            entrySaveState.add(RestTesterGlobalState.ENV_HOST_LIMIT_KEY, entryState.hostLimit.getAsJson());
+            entrySaveState.addProperty(RestTesterGlobalState.ENV_RESPONSE_CACHE_KEY, entryState.useResponseCache);
 
             entrySaveState.addProperty(RestTesterGlobalState.AUTH_STATE_KEY, AuthStateHelper.state2String(entryState.authState));
             entrySaveState.addProperty(RestTesterGlobalState.VARIABLE_STATE_KEY, VariablesStateHelper.state2String(entryState.variablesState));
@@ -0,0 +1,41 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.utils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Headers which carry credentials or session cookies. Their values are never written to disk,
+ * neither by the response history nor by the response cache.
+ */
+public class CredentialHeaders {
+    private static final Set<String> NAMES = Set.of("authorization", "proxy-authorization", "cookie", "set-cookie", "set-cookie2");
+
+    private CredentialHeaders() {
+    }
+
+    public static boolean isCredential(String name) {
+        return CredentialHeaders.NAMES.contains(name.toLowerCase());
+    }
+
+    /**
+     * @return a copy of the headers without the credential headers
+     */
+    public static Map<String, List<String>> remove(Map<String, List<String>> headers) {
+        Map<String, List<String>> filtered = new LinkedHashMap<>();
+        headers.forEach((name, values) -> {
+            if (name != null && !CredentialHeaders.isCredential(name)) {
+                filtered.put(name, values);
+            }
+        });
+        return filtered;
+    }
+}
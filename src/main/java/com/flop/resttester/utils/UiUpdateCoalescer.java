@@ -0,0 +1,87 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.utils;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * Collects updates of the ui from any thread and runs them on the event dispatch thread at most once per frame.
+ * Updates posted with the same owner and name replace each other, so only the latest one runs in the next frame.
+ * <p>
+ * Updates run in the order of their last post, e.g. the final response of a request runs after its last chunks.
+ */
+public class UiUpdateCoalescer {
+    public static final int DEFAULT_FRAME_RATE = 30;
+
+    private record Key(Object owner, String name) {
+    }
+
+    private final Timer timer = new Timer(true); //run as daemon
+    private final long frameMillis;
+
+    // guarded by itself
+    private final LinkedHashMap<Key, Runnable> pending = new LinkedHashMap<>();
+    private boolean scheduled = false;
+    private long lastFlush = 0;
+
+    public UiUpdateCoalescer() {
+        this(DEFAULT_FRAME_RATE);
+    }
+
+    public UiUpdateCoalescer(int frameRate) {
+        this.frameMillis = 1000 / frameRate;
+    }
+
+    /**
+     * Runs the update in the next frame. The first update after an idle frame runs immediately.
+     *
+     * @param owner object the update belongs to, e.g. a running request
+     * @param name  kind of the update, e.g. "chunks"
+     */
+    public void post(Object owner, String name, Runnable update) {
+        Key key = new Key(owner, name);
+
+        synchronized (this.pending) {
+            this.pending.remove(key);
+            this.pending.put(key, update);
+
+            if (this.scheduled) {
+                return;
+            }
+            this.scheduled = true;
+
+            long delay = Math.max(0, this.lastFlush + this.frameMillis - System.currentTimeMillis());
+            this.timer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    SwingUtilities.invokeLater(UiUpdateCoalescer.this::flush);
+                }
+            }, delay);
+        }
+    }
+
+    private void flush() {
+        List<Runnable> updates;
+
+        synchronized (this.pending) {
+            updates = new ArrayList<>(this.pending.values());
+            this.pending.clear();
+            this.scheduled = false;
+            this.lastFlush = System.currentTimeMillis();
+        }
+
+        for (Runnable update : updates) {
+            update.run();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.cache;
+
+import com.flop.resttester.response.ResponseBody;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HttpResponseCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldCalculateFreshness() {
+        assertEquals(60_000, CachePolicy.getFreshnessMillis(headers("Cache-Control", "public, max-age=60"), 0));
+        assertEquals(50_000, CachePolicy.getFreshnessMillis(headers("Cache-Control", "max-age=60", "Age", "10"), 0));
+        assertEquals(0, CachePolicy.getFreshnessMillis(headers("Cache-Control", "no-cache, max-age=60"), 0));
+        assertEquals(0, CachePolicy.getFreshnessMillis(headers(), 0));
+
+        assertEquals(3_600_000, CachePolicy.getFreshnessMillis(headers(
+                "Date", "Mon, 01 Jan 2024 10:00:00 GMT",
+                "Expires", "Mon, 01 Jan 2024 11:00:00 GMT"
+        ), 0));
+
+        // heuristic: 10% of the time since the last modification
+        assertEquals(3_600_000, CachePolicy.getFreshnessMillis(headers(
+                "Date", "Mon, 01 Jan 2024 10:00:00 GMT",
+                "Last-Modified", "Mon, 01 Jan 2024 00:00:00 GMT"
+        ), 0));
+    }
+
+    @Test
+    public void shouldOnlyStoreCacheableResponses() {
+        assertTrue(CachePolicy.isStorable(200, headers("ETag", "\"1\"")));
+        assertTrue(CachePolicy.isStorable(200, headers("Cache-Control", "max-age=60")));
+        assertFalse(CachePolicy.isStorable(200, headers("Cache-Control", "no-store, max-age=60")));
+        assertFalse(CachePolicy.isStorable(200, headers("Cache-Control", "max-age=60", "Vary", "*")));
+        assertFalse(CachePolicy.isStorable(404, headers("Cache-Control", "max-age=60")));
+        assertFalse(CachePolicy.isStorable(200, headers()));
+
+        assertTrue(CachePolicy.requiresValidation(headers("Pragma", "no-cache")));
+        assertFalse(CachePolicy.isCacheAllowed(headers("Cache-Control", "no-store")));
+    }
+
+    @Test
+    public void shouldStoreAndLookupResponses() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(this.folder.getRoot().toPath(), 10, 1024 * 1024);
+        HttpRequest request = request("https://example.com/a", "Accept", "application/json");
+
+        cache.store("1", request, response(request, "Cache-Control", "max-age=60", "Vary", "Accept"), ResponseBody.of(bytes("body")));
+
+        CacheEntry entry = cache.lookup("1", request);
+        assertNotNull(entry);
+        assertTrue(entry.isFresh(System.currentTimeMillis()));
+        assertEquals("body", readBody(cache, entry));
+
+        assertNull(cache.lookup("2", request));
+        assertNull(cache.lookup("1", request("https://example.com/a", "Accept", "text/html")));
+
+        // entries are restored from disk
+        HttpResponseCache restored = new HttpResponseCache(this.folder.getRoot().toPath(), 10, 1024 * 1024);
+        CacheEntry restoredEntry = restored.lookup("1", request);
+        assertNotNull(restoredEntry);
+        assertEquals("body", readBody(restored, restoredEntry));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntries() {
+        HttpResponseCache cache = new HttpResponseCache(this.folder.getRoot().toPath(), 2, 1024 * 1024);
+        HttpRequest a = request("https://example.com/a");
+        HttpRequest b = request("https://example.com/b");
+        HttpRequest c = request("https://example.com/c");
+
+        cache.store("1", a, response(a, "ETag", "\"a\""), ResponseBody.of(bytes("a")));
+        cache.store("1", b, response(b, "ETag", "\"b\""), ResponseBody.of(bytes("b")));
+        assertNotNull(cache.lookup("1", a));
+
+        cache.store("1", c, response(c, "ETag", "\"c\""), ResponseBody.of(bytes("c")));
+        assertEquals(2, cache.getEntryCount());
+        assertNotNull(cache.lookup("1", a));
+        assertNull(cache.lookup("1", b));
+        assertNotNull(cache.lookup("1", c));
+
+        cache.clear();
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void shouldRestartFreshnessOnRevalidation() {
+        HttpResponseCache cache = new HttpResponseCache(this.folder.getRoot().toPath(), 10, 1024 * 1024);
+        HttpRequest request = request("https://example.com/a");
+
+        cache.store("1", request, response(request, "ETag", "\"1\"", "Cache-Control", "no-cache"), ResponseBody.of(bytes("body")));
+        CacheEntry entry = cache.lookup("1", request);
+        assertNotNull(entry);
+        assertFalse(entry.isFresh(System.currentTimeMillis()));
+
+        CacheEntry revalidated = cache.revalidate(entry, response(request, "ETag", "\"1\"", "Cache-Control", "max-age=60"));
+        assertNotNull(revalidated);
+        assertTrue(revalidated.isFresh(System.currentTimeMillis()));
+        assertEquals("\"1\"", revalidated.getHeader("etag"));
+        assertEquals(4, revalidated.size());
+    }
+
+    @Test
+    public void shouldNotWriteCredentialsToDisk() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(this.folder.getRoot().toPath(), 10, 1024 * 1024);
+        HttpRequest request = request("https://example.com/a", "Authorization", "Bearer secret-token");
+
+        cache.store("1", request, response(request,
+                "Cache-Control", "max-age=60",
+                "Vary", "Authorization",
+                "Set-Cookie", "session=secret-cookie"
+        ), ResponseBody.of(bytes("body")));
+
+        try (var files = Files.list(this.folder.getRoot().toPath())) {
+            for (Path file : files.filter(file -> file.toString().endsWith(".json")).toList()) {
+                String meta = Files.readString(file);
+                assertFalse(meta.contains("secret-token"));
+                assertFalse(meta.contains("secret-cookie"));
+            }
+        }
+
+        CacheEntry entry = new HttpResponseCache(this.folder.getRoot().toPath(), 10, 1024 * 1024).lookup("1", request);
+        assertNotNull(entry);
+        assertNull(entry.getHeader("Set-Cookie"));
+        assertNull(cache.lookup("1", request("https://example.com/a", "Authorization", "Bearer other-token")));
+    }
+
+    private static HttpRequest request(String url, String... headers) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).GET();
+        for (int i = 0; i < headers.length; i += 2) {
+            builder.header(headers[i], headers[i + 1]);
+        }
+        return builder.build();
+    }
+
+    private static HttpResponse<?> response(HttpRequest request, String... headers) {
+        CacheEntry entry = new CacheEntry("", "", "", 200, headers(headers).map(), Map.of(), 0, 0, 0);
+        return new CachedHttpResponse(request, entry);
+    }
+
+    private static HttpHeaders headers(String... headers) {
+        Map<String, List<String>> map = new LinkedHashMap<>();
+        for (int i = 0; i < headers.length; i += 2) {
+            map.put(headers[i], List.of(headers[i + 1]));
+        }
+        return HttpHeaders.of(map, (name, value) -> true);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readBody(HttpResponseCache cache, CacheEntry entry) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.copyBody(entry, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
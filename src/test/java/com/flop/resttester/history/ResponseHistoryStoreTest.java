@@ -0,0 +1,123 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.history;
+
+import com.flop.resttester.response.CacheStatus;
+import com.flop.resttester.response.RequestAttempts;
+import com.flop.resttester.response.ResponseBody;
+import com.flop.resttester.response.ResponseRecord;
+import com.flop.resttester.response.ResponseTiming;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResponseHistoryStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRestoreTheLatestResponse() {
+        Path directory = this.folder.getRoot().toPath();
+        ResponseHistoryStore store = new ResponseHistoryStore(directory);
+
+        store.append("/folder/a", record(1, "first"));
+        store.append("/folder/a", record(2, "second"));
+        store.append("/folder/b", record(3, "other"));
+
+        ResponseHistoryStore restored = new ResponseHistoryStore(directory);
+        ResponseRecord latest = restored.getLatest("/folder/a");
+
+        assertNotNull(latest);
+        assertEquals(2, latest.startedAt());
+        assertEquals("second", latest.content().getText());
+        assertEquals("GET", latest.method());
+        assertEquals(List.of("application/json"), latest.responseHeaders().get("content-type"));
+        assertEquals(new ResponseTiming(1, 2, 3, 4, 10, true), latest.timing());
+        assertEquals(2, restored.getRunCount("/folder/a"));
+        assertNull(restored.getLatest("/folder/c"));
+    }
+
+    @Test
+    public void shouldKeepTheLastRunsInTheIndex() {
+        ResponseHistoryStore store = new ResponseHistoryStore(this.folder.getRoot().toPath(), 2);
+
+        for (int i = 1; i <= 4; i++) {
+            store.append("/a", record(i, "run " + i));
+        }
+
+        ResponseHistoryStore restored = new ResponseHistoryStore(this.folder.getRoot().toPath(), 2);
+        assertEquals(2, restored.getRunCount("/a"));
+        assertEquals("run 4", restored.getLatest("/a").content().getText());
+
+        restored.clear();
+        assertNull(new ResponseHistoryStore(this.folder.getRoot().toPath()).getLatest("/a"));
+    }
+
+    @Test
+    public void shouldTruncateLargeBodies() {
+        ResponseHistoryStore store = new ResponseHistoryStore(this.folder.getRoot().toPath());
+        store.append("/a", record(1, "x".repeat(ResponseHistoryStore.MAX_BODY_SIZE + 10)));
+
+        ResponseRecord latest = store.getLatest("/a");
+        assertNotNull(latest);
+        assertEquals(ResponseHistoryStore.MAX_BODY_SIZE, latest.content().size());
+        assertTrue(new String(latest.error(), StandardCharsets.UTF_8).contains("truncated"));
+    }
+
+    @Test
+    public void shouldNotStoreCredentials() {
+        ResponseHistoryStore store = new ResponseHistoryStore(this.folder.getRoot().toPath());
+        store.append("/a", record(1, "body", Map.of(
+                "Authorization", List.of("Bearer secret"),
+                "proxy-authorization", List.of("Basic c2VjcmV0"),
+                "Cookie", List.of("session=secret"),
+                "Accept", List.of("application/json")
+        )));
+
+        ResponseRecord latest = new ResponseHistoryStore(this.folder.getRoot().toPath()).getLatest("/a");
+        assertNotNull(latest);
+        assertEquals(List.of(ResponseHistoryStore.REDACTED), latest.requestHeaders().get("Authorization"));
+        assertEquals(List.of(ResponseHistoryStore.REDACTED), latest.requestHeaders().get("proxy-authorization"));
+        assertEquals(List.of(ResponseHistoryStore.REDACTED), latest.requestHeaders().get("Cookie"));
+        assertEquals(List.of("application/json"), latest.requestHeaders().get("Accept"));
+    }
+
+    private static ResponseRecord record(long startedAt, String body) {
+        return record(startedAt, body, Map.of("Accept", List.of("application/json")));
+    }
+
+    private static ResponseRecord record(long startedAt, String body, Map<String, List<String>> requestHeaders) {
+        return new ResponseRecord(
+                startedAt,
+                "https://example.com",
+                "GET",
+                requestHeaders,
+                Map.of("content-type", List.of("application/json")),
+                List.of(),
+                200,
+                ResponseBody.of(body.getBytes(StandardCharsets.UTF_8)),
+                List.of("application/json"),
+                new byte[0],
+                "1 ms",
+                new ResponseTiming(1, 2, 3, 4, 10, true),
+                body.length(),
+                RequestAttempts.SINGLE,
+                CacheStatus.None
+        );
+    }
+}
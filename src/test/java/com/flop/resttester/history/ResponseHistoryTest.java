@@ -0,0 +1,142 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.history;
+
+import com.flop.resttester.response.CacheStatus;
+import com.flop.resttester.response.RequestAttempts;
+import com.flop.resttester.response.ResponseBody;
+import com.flop.resttester.response.ResponseDisplayModel;
+import com.flop.resttester.response.ResponseFormatter;
+import com.flop.resttester.response.ResponseRecord;
+import com.flop.resttester.response.ResponseTiming;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ResponseHistoryTest {
+    @Test
+    public void shouldKeepTheLastRuns() {
+        ResponseHistoryBudget budget = new ResponseHistoryBudget(Long.MAX_VALUE);
+        ResponseHistory history = new ResponseHistory(budget, 3);
+        assertNull(history.getLatest());
+
+        for (int i = 1; i <= 5; i++) {
+            history.add(record(i, 10));
+        }
+
+        List<ResponseRecord> records = history.getRecords();
+        assertEquals(3, records.size());
+        assertEquals(5, records.get(0).startedAt());
+        assertEquals(3, records.get(2).startedAt());
+        assertEquals(3, budget.getRecordCount());
+    }
+
+    @Test
+    public void shouldReplaceResponsesOfTheSameRun() {
+        ResponseHistoryBudget budget = new ResponseHistoryBudget(Long.MAX_VALUE);
+        ResponseHistory history = new ResponseHistory(budget);
+
+        history.add(record(1, 10));
+        ResponseRecord last = record(1, 20);
+        history.add(last);
+
+        assertEquals(1, history.getRecords().size());
+        assertSame(last, history.getLatest());
+        assertEquals(last.getMemorySize(), budget.getMemorySize());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedRecordsOfAllHistories() {
+        long size = record(0, 1000).getMemorySize();
+        ResponseHistoryBudget budget = new ResponseHistoryBudget(size * 3);
+        ResponseHistory a = new ResponseHistory(budget);
+        ResponseHistory b = new ResponseHistory(budget);
+
+        ResponseRecord a1 = record(1, 1000);
+        a.add(a1);
+        b.add(record(2, 1000));
+        a.add(record(3, 1000));
+
+        // the oldest record of a is used again, so the record of b is evicted first
+        a.touch(a1);
+        b.add(record(4, 1000));
+
+        assertEquals(3, budget.getRecordCount());
+        assertEquals(2, a.getRecords().size());
+        assertEquals(List.of(4L), b.getRecords().stream().map(ResponseRecord::startedAt).toList());
+        assertTrue(budget.getMemorySize() <= size * 3);
+
+        a.clear();
+        assertTrue(a.isEmpty());
+        assertEquals(1, budget.getRecordCount());
+    }
+
+    @Test
+    public void shouldKeepTheNewestRecordAboveTheBudget() {
+        ResponseHistoryBudget budget = new ResponseHistoryBudget(100);
+        ResponseHistory history = new ResponseHistory(budget);
+
+        history.add(record(1, 1000));
+        history.add(record(2, 1000));
+
+        assertEquals(1, budget.getRecordCount());
+        assertEquals(2, history.getLatest().startedAt());
+    }
+
+    @Test
+    public void shouldCacheDisplayModelsUntilTheRecordIsReplaced() {
+        ResponseHistoryBudget budget = new ResponseHistoryBudget(Long.MAX_VALUE);
+        ResponseHistory history = new ResponseHistory(budget);
+
+        ResponseRecord first = record(1, 10);
+        history.add(first);
+        ResponseDisplayModel model = ResponseFormatter.createModel(first, 10);
+        history.setDisplayModel(first, model);
+
+        assertSame(model, history.getDisplayModel(first));
+        assertEquals(first.getMemorySize() + model.getMemorySize(), budget.getMemorySize());
+
+        // records which are not part of the history are not cached
+        ResponseRecord other = record(2, 10);
+        history.setDisplayModel(other, model);
+        assertNull(history.getDisplayModel(other));
+
+        // a new response of the same run invalidates the cached model
+        ResponseRecord last = record(1, 20);
+        history.add(last);
+        assertNull(history.getDisplayModel(first));
+        assertNull(history.getDisplayModel(last));
+        assertEquals(last.getMemorySize(), budget.getMemorySize());
+    }
+
+    private static ResponseRecord record(long startedAt, int bodySize) {
+        return new ResponseRecord(
+                startedAt,
+                "https://example.com",
+                "GET",
+                Map.of(),
+                Map.of("content-type", List.of("application/json")),
+                List.of(),
+                200,
+                ResponseBody.of(new byte[bodySize]),
+                List.of("application/json"),
+                new byte[0],
+                "1 ms",
+                ResponseTiming.EMPTY,
+                bodySize,
+                RequestAttempts.SINGLE,
+                CacheStatus.None
+        );
+    }
+}
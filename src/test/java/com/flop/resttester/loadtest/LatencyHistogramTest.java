@@ -0,0 +1,54 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.loadtest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+    @Test
+    public void shouldMapValuesToMatchingBuckets() {
+        for (long micros = 0; micros < 5_000_000; micros += 7) {
+            int index = LatencyHistogram.getIndex(micros);
+            assertTrue(LatencyHistogram.getUpperBound(index) >= micros);
+
+            if (index > 0) {
+                assertTrue(LatencyHistogram.getUpperBound(index - 1) < micros);
+            }
+        }
+    }
+
+    @Test
+    public void shouldReportPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // 1 ms to 1000 ms
+        for (int i = 1; i <= 1000; i++) {
+            histogram.recordNanos(i * 1_000_000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMinMicros());
+        assertEquals(1_000_000, histogram.getMaxMicros());
+        assertEquals(500_500, histogram.getMeanMicros(), 0.1);
+
+        assertEquals(500_000, histogram.getPercentileMicros(50), 500_000 * 0.016);
+        assertEquals(990_000, histogram.getPercentileMicros(99), 990_000 * 0.016);
+        assertEquals(1_000_000, histogram.getPercentileMicros(100));
+    }
+
+    @Test
+    public void shouldHandleEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getMinMicros());
+        assertEquals(0, histogram.getPercentileMicros(99.9));
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ConnectionWarmerTest {
+    @Test
+    public void shouldWarmUpTheRootOfTheHost() {
+        assertEquals(URI.create("https://example.com/"), ConnectionWarmer.getOriginUri(data("example.com/api/users?id=1", "")));
+        assertEquals(URI.create("http://localhost:8080/"), ConnectionWarmer.getOriginUri(data("/api", "http://localhost:8080")));
+        assertNull(ConnectionWarmer.getOriginUri(data("ftp://example.com/file", "")));
+        assertNull(ConnectionWarmer.getOriginUri(data("{{host}}/api", "")));
+    }
+
+    @Test
+    public void shouldIdentifyConnectionsByOrigin() {
+        assertEquals("https://example.com:443", HttpClientRegistry.getOrigin(URI.create("https://Example.com/a")));
+        assertEquals("http://example.com:80", HttpClientRegistry.getOrigin(URI.create("http://example.com")));
+        assertEquals("http://example.com:8080", HttpClientRegistry.getOrigin(URI.create("http://example.com:8080/b")));
+    }
+
+    private static RequestData data(String url, String baseUrl) {
+        return new RequestData(
+                url, baseUrl, RequestType.GET, null, "", RequestBodyType.JSON, List.of(), List.of(),
+                true, true, -1, true, RetryPolicy.NONE, HostLimit.NONE, null
+        );
+    }
+}
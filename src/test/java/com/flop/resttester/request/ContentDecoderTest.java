@@ -0,0 +1,93 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class ContentDecoderTest {
+    private static final String TEXT = "{\"message\": \"compressed response\"}".repeat(100);
+
+    @Test
+    public void shouldDecodeGzip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(TEXT.getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(TEXT, this.decode(out.toByteArray(), List.of("gzip")));
+    }
+
+    @Test
+    public void shouldDecodeZlibAndRawDeflate() throws IOException {
+        assertEquals(TEXT, this.decode(this.deflate(false), List.of("deflate")));
+        assertEquals(TEXT, this.decode(this.deflate(true), List.of("deflate")));
+    }
+
+    @Test
+    public void shouldKeepUnknownEncodings() throws IOException {
+        byte[] data = TEXT.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(TEXT, this.decode(data, List.of("br")));
+        assertEquals(TEXT, this.decode(data, List.of()));
+        assertEquals(TEXT, this.decode(data, List.of("identity")));
+    }
+
+    @Test
+    public void shouldKeepEmptyBodies() throws IOException {
+        assertEquals("", this.decode(new byte[0], List.of("gzip")));
+        assertEquals("", this.decode(new byte[0], List.of("deflate")));
+        assertEquals("", this.decode(new byte[0], List.of("deflate, gzip")));
+    }
+
+    @Test
+    public void shouldNotReadTheBodyBeforeTheFirstRead() throws IOException {
+        CountingInputStream wire = new CountingInputStream(new ByteArrayInputStream(this.deflate(false)));
+        InputStream stream = ContentDecoder.decode(wire, List.of("deflate"));
+        assertEquals(0, wire.getCount());
+
+        assertEquals(TEXT, new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+        stream.close();
+    }
+
+    @Test
+    public void shouldCountTransferredBytes() throws IOException {
+        byte[] compressed = this.deflate(false);
+        CountingInputStream wire = new CountingInputStream(new ByteArrayInputStream(compressed));
+
+        try (InputStream stream = ContentDecoder.decode(wire, List.of("deflate"))) {
+            assertEquals(TEXT.length(), stream.readAllBytes().length);
+        }
+        assertEquals(compressed.length, wire.getCount());
+    }
+
+    private byte[] deflate(boolean raw) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+            deflater.write(TEXT.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    private String decode(byte[] data, List<String> encoding) throws IOException {
+        try (InputStream stream = ContentDecoder.decode(new ByteArrayInputStream(data), encoding)) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HostLimiterTest {
+    @Test
+    public void shouldLimitRequestRate() throws InterruptedException {
+        HostLimiter limiter = new HostLimiter();
+        HostLimit limit = new HostLimit(20, 2, 0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            limiter.acquire("example.com", limit).close();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        // the burst starts immediately, the remaining 4 requests need a token every 50 ms
+        assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(180));
+        assertTrue(elapsed < TimeUnit.SECONDS.toNanos(2));
+    }
+
+    @Test
+    public void shouldLimitConcurrentRequests() throws Exception {
+        HostLimiter limiter = new HostLimiter();
+        HostLimit limit = new HostLimit(0, 1, 1);
+
+        HostLimiter.Permit first = limiter.acquire("example.com", limit);
+        CompletableFuture<HostLimiter.Permit> second = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire("EXAMPLE.com", limit);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        try {
+            second.get(100, TimeUnit.MILLISECONDS);
+            fail("second request must wait for the first one");
+        } catch (TimeoutException ignore) {
+        }
+
+        // other hosts are not affected
+        limiter.acquire("other.com", limit).close();
+
+        first.close();
+        HostLimiter.Permit secondPermit = second.get(1, TimeUnit.SECONDS);
+        assertTrue(secondPermit.getWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(1, limiter.getActiveCount("example.com"));
+
+        secondPermit.close();
+        secondPermit.close();
+        assertEquals(0, limiter.getActiveCount("example.com"));
+    }
+
+    @Test
+    public void shouldAbortWaitingOnInterrupt() throws Exception {
+        HostLimiter limiter = new HostLimiter();
+        HostLimit limit = new HostLimit(0, 1, 1);
+        HostLimiter.Permit first = limiter.acquire("example.com", limit);
+
+        Thread waiting = Thread.ofVirtual().start(() -> {
+            try {
+                limiter.acquire("example.com", limit);
+                fail("acquire must be interrupted");
+            } catch (InterruptedException ignore) {
+            }
+        });
+        Thread.sleep(50);
+        waiting.interrupt();
+        waiting.join(1000);
+
+        assertFalse(waiting.isAlive());
+        assertEquals(1, limiter.getActiveCount("example.com"));
+        first.close();
+    }
+
+    @Test
+    public void shouldNotWaitWithoutLimits() throws InterruptedException {
+        HostLimiter limiter = new HostLimiter();
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, limiter.acquire("example.com", HostLimit.NONE).getWaitNanos());
+        }
+        assertEquals(0, limiter.getActiveCount("example.com"));
+    }
+}
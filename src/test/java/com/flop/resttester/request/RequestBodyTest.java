@@ -0,0 +1,96 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RequestBodyTest {
+    @Test
+    public void shouldParseFields() {
+        List<RequestBody.Field> fields = RequestBody.parseFields("name=value\n\nempty\r\nquery=a=b");
+
+        assertEquals(List.of(
+                new RequestBody.Field("name", "value"),
+                new RequestBody.Field("empty", ""),
+                new RequestBody.Field("query", "a=b")
+        ), fields);
+    }
+
+    @Test
+    public void shouldEncodeForms() {
+        RequestBody body = RequestBody.ofForm(RequestBody.parseFields("name=John Doe\nmail=john@test.com&co"));
+
+        assertEquals("application/x-www-form-urlencoded", body.contentType());
+        assertEquals("name=John+Doe&mail=john%40test.com%26co", RequestBodyTest.read(body.publisher()));
+    }
+
+    @Test
+    public void shouldStreamMultipartFiles() throws IOException {
+        Path file = Files.createTempFile("rest-tester-upload", ".txt");
+        try {
+            Files.writeString(file, "file content");
+            RequestBody body = RequestBody.ofMultipart(RequestBody.parseFields("name=value\nupload=@" + file));
+
+            String boundary = body.contentType().substring(body.contentType().indexOf("boundary=") + 9);
+            String content = RequestBodyTest.read(body.publisher());
+
+            assertEquals(content.length(), body.publisher().contentLength());
+            assertTrue(content.startsWith("--" + boundary + "\r\nContent-Disposition: form-data; name=\"name\"\r\n\r\nvalue\r\n"));
+            assertTrue(content.contains("name=\"upload\"; filename=\"" + file.getFileName() + "\"\r\n"));
+            assertTrue(content.contains("\r\n\r\nfile content\r\n"));
+            assertTrue(content.endsWith("--" + boundary + "--\r\n"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static String read(HttpRequest.BodyPublisher publisher) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        publisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                out.writeBytes(bytes);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        done.join();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -7,11 +7,18 @@
 
 package com.flop.resttester.request;
 
+import com.flop.resttester.components.keyvaluelist.KeyValuePair;
 import org.junit.Test;
 
+import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class RequestThreadTest {
     @Test
@@ -35,4 +42,95 @@ public class RequestThreadTest {
         assertEquals("https://www.test.com/", RequestThread.encodeUrl("https://www.test.com/"));
         assertEquals("https://www.test.com/?filter=%22some%20value%22", RequestThread.encodeUrl("https://www.test.com/?filter=\"some value\""));
     }
+
+    @Test
+    public void shouldKeepQueryValuesContainingSeparators() throws URISyntaxException {
+        // values containing '=' must not be cut off
+        assertEquals("https://test.com?token=abc%3D%3D&q=a%3Db", RequestThread.encodeUrl("https://test.com?token=abc==&q=a=b"));
+
+        // keys and params without value
+        assertEquals("https://test.com?flag&my%20key=1", RequestThread.encodeUrl("https://test.com?flag&my key=1"));
+
+        // urls inside of query values
+        assertEquals("https://test.com?redirect=http%3A%2F%2Fother.com%2Fa%3Fb", RequestThread.encodeUrl("https://test.com?redirect=http://other.com/a?b"));
+    }
+
+    @Test
+    public void shouldSeparateFragments() throws URISyntaxException {
+        assertEquals("https://test.com/path#section", RequestThread.encodeUrl("https://test.com/path#section"));
+        assertEquals("https://test.com/path?a=1#section", RequestThread.encodeUrl("https://test.com/path?a=1#section"));
+    }
+
+    @Test
+    public void shouldEncodeUnicode() throws URISyntaxException {
+        assertEquals("https://test.com/gr%C3%BC%C3%9Fe?emoji=%F0%9F%98%80", RequestThread.encodeUrl("https://test.com/grüße?emoji=😀"));
+        assertEquals("http://localhost:8080/a/b", RequestThread.encodeUrl("http://localhost:8080/a/b"));
+    }
+
+    @Test
+    public void shouldAppendQueryParams() {
+        List<KeyValuePair> params = List.of(
+                new KeyValuePair("filter", "a&b=c", true),
+                new KeyValuePair("", "ignored", true),
+                new KeyValuePair("page", "2", true)
+        );
+
+        assertEquals("https://test.com/users?filter=a%26b%3Dc&page=2", UrlTemplate.compile("https://test.com/users", params).render());
+        assertEquals("https://test.com/users?sort=name&filter=a%26b%3Dc&page=2", UrlTemplate.compile("https://test.com/users?sort=name", params).render());
+    }
+
+    @Test
+    public void shouldRenderVariableSlots() {
+        UrlTemplate template = UrlTemplate.compile("{{host}}/users/{{id}}?q={{query}}");
+        assertTrue(template.hasVariables());
+
+        Map<String, String> variables = Map.of("host", "http://localhost:8080", "id", "a b", "query", "x=1&y");
+        assertEquals("http://localhost:8080/users/a%20b?q=x%3D1%26y", template.render(variables::get));
+        // the default scheme is only added if the variable has none
+        assertEquals("https://localhost/users/1?q=", template.render(Map.of("host", "localhost", "id", "1", "query", "")::get));
+        assertEquals("http://localhost:8080", UrlTemplate.compile("{{host}}").render(variables::get));
+
+        template = UrlTemplate.compile("http://localhost/users/{{id}}?q={{query}}");
+        assertEquals("http://localhost/users/42?q=x%3D1%26y", template.render(Map.of("id", "42", "query", "x=1&y")::get));
+
+        // unknown variables are kept as encoded text
+        assertEquals("http://localhost/users/%7B%7Bid%7D%7D?q=%7B%7Bquery%7D%7D", template.render());
+        assertFalse(UrlTemplate.compile("http://localhost/users").hasVariables());
+    }
+
+    @Test
+    public void shouldReuseRenderBuffer() {
+        UrlTemplate template = UrlTemplate.compile("http://localhost/users/{{id}}");
+        StringBuilder buffer = new StringBuilder();
+
+        template.render(buffer, Map.of("id", "1")::get);
+        assertEquals("http://localhost/users/1", buffer.toString());
+
+        template.render(buffer, Map.of("id", "22")::get);
+        assertEquals("http://localhost/users/22", buffer.toString());
+    }
+
+    @Test
+    public void shouldSendTheLastEventIdOnReconnection() {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("https://test.com/events"))
+                .header("Accept", "text/event-stream")
+                .header("Last-Event-ID", "1")
+                .build();
+
+        HttpRequest reconnect = RequestThread.createReconnectRequest(request, "42");
+        assertEquals(List.of("42"), reconnect.headers().allValues("Last-Event-ID"));
+        assertEquals(List.of("text/event-stream"), reconnect.headers().allValues("Accept"));
+
+        assertFalse(RequestThread.createReconnectRequest(request, null).headers().firstValue("Last-Event-ID").isPresent());
+    }
+
+    @Test
+    public void shouldOnlyReconnectLostGetStreams() {
+        assertTrue(RequestThread.shouldReconnect("GET", true, 0));
+
+        // the server closed the stream cleanly
+        assertFalse(RequestThread.shouldReconnect("GET", false, 0));
+        assertFalse(RequestThread.shouldReconnect("POST", true, 0));
+        assertFalse(RequestThread.shouldReconnect("GET", true, RequestThread.MAX_RECONNECTS));
+    }
 }
@@ -0,0 +1,62 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import org.junit.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryPolicyTest {
+    @Test
+    public void shouldOnlyRetryServerErrorsOfIdempotentRequests() {
+        assertTrue(RetryPolicy.isRetryable(RequestType.GET, 503));
+        assertTrue(RetryPolicy.isRetryable(RequestType.PUT, 500));
+        assertFalse(RetryPolicy.isRetryable(RequestType.POST, 503));
+        assertFalse(RetryPolicy.isRetryable(RequestType.GET, 404));
+
+        assertTrue(RetryPolicy.isRetryable(RequestType.POST, 429));
+    }
+
+    @Test
+    public void shouldBoundJitteredBackoff() {
+        RetryPolicy policy = new RetryPolicy(5, 100, 0);
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(policy.getBackoffMillis(0, null) <= 100);
+            assertTrue(policy.getBackoffMillis(3, null) <= 800);
+            assertTrue(policy.getBackoffMillis(30, null) <= RetryPolicy.MAX_BACKOFF_MILLIS);
+        }
+
+        // the server delay is a lower bound
+        assertTrue(policy.getBackoffMillis(0, "2") >= 2000);
+        assertEquals(RetryPolicy.MAX_RETRY_AFTER_MILLIS, policy.getBackoffMillis(0, "3600"));
+    }
+
+    @Test
+    public void shouldParseRetryAfter() {
+        assertEquals(0, RetryPolicy.parseRetryAfter(null));
+        assertEquals(0, RetryPolicy.parseRetryAfter("invalid"));
+        assertEquals(5000, RetryPolicy.parseRetryAfter(" 5 "));
+
+        String date = ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(30).format(DateTimeFormatter.RFC_1123_DATE_TIME);
+        long delay = RetryPolicy.parseRetryAfter(date);
+        assertTrue(delay > 25_000 && delay <= 30_000);
+    }
+
+    @Test
+    public void shouldConvertFromAndToJson() {
+        RetryPolicy policy = new RetryPolicy(3, 250, 800);
+        assertEquals(policy, RetryPolicy.createFromJson(policy.getAsJson()));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.request;
+
+import com.flop.resttester.components.keyvaluelist.KeyValuePair;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Compares parsing the url for every send with rendering a compiled template into a reused buffer.
+ * Not a unit test, run the main method manually.
+ */
+public class UrlTemplateBenchmark {
+    private static final String URL = "https://api.test.com/v1/users/{{userId}}/orders?status=open&filter=created>2024-01-01&token=abc==";
+    private static final List<KeyValuePair> PARAMS = List.of(
+            new KeyValuePair("page", "{{page}}", true),
+            new KeyValuePair("query", "name with spaces & symbols", true)
+    );
+    private static final int ITERATIONS = 2_000_000;
+
+    public static void main(String[] args) {
+        Function<String, String> variables = Map.of("userId", "4711", "page", "3")::get;
+
+        // warm up both variants before measuring
+        for (int run = 0; run < 3; run++) {
+            UrlTemplateBenchmark.measure("compile per send", () -> UrlTemplate.compile(URL, PARAMS).render(variables).length());
+
+            UrlTemplate template = UrlTemplate.compile(URL, PARAMS);
+            StringBuilder buffer = new StringBuilder(256);
+            UrlTemplateBenchmark.measure("compiled template", () -> {
+                template.render(buffer, variables);
+                return buffer.length();
+            });
+        }
+    }
+
+    private static void measure(String name, Operation operation) {
+        long checksum = 0;
+        long start = System.nanoTime();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            checksum += operation.run();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000d;
+        System.out.printf("%-18s %,12.0f urls/s (checksum %d)%n", name, ITERATIONS / seconds, checksum);
+    }
+
+    private interface Operation {
+        int run();
+    }
+}
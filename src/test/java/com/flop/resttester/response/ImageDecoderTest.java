@@ -0,0 +1,61 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ImageDecoderTest {
+    @Test
+    public void shouldReadInfoFromHeader() throws IOException {
+        ImageDecoder.ImageInfo info = ImageDecoder.readInfo(png(400, 200));
+
+        assertNotNull(info);
+        assertEquals(400, info.width());
+        assertEquals(200, info.height());
+        assertEquals("PNG, 400 x 200 px", info.getText());
+
+        assertNull(ImageDecoder.readInfo(ResponseBody.of("no image".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void shouldSubsampleToTheShownSize() throws IOException {
+        BufferedImage image = ImageDecoder.decode(png(400, 200), 100, 100);
+
+        assertNotNull(image);
+        assertEquals(100, image.getWidth());
+        assertEquals(50, image.getHeight());
+
+        BufferedImage full = ImageDecoder.decode(png(400, 200), 1000, 1000);
+        assertNotNull(full);
+        assertEquals(400, full.getWidth());
+    }
+
+    @Test
+    public void shouldNotSubsampleBelowTheShownSize() {
+        assertEquals(1, ImageDecoder.getSubsampling(400, 200, 0, 0));
+        assertEquals(1, ImageDecoder.getSubsampling(400, 200, 300, 300));
+        assertEquals(2, ImageDecoder.getSubsampling(400, 200, 150, 150));
+        assertEquals(3, ImageDecoder.getSubsampling(1000, 100, 300, 300));
+    }
+
+    private static ResponseBody png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return ResponseBody.of(out.toByteArray());
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JsonFormatterTest {
+    @Test
+    public void shouldIndentJson() {
+        JsonFormatter.Result result = format("{\"a\":[1,2.50,{\"b\":null}],\"c\":\"<x>\",\"d\":true}", 1000);
+
+        assertTrue(result.formatted());
+        assertFalse(result.truncated());
+        assertEquals("""
+                {
+                  "a": [
+                    1,
+                    2.50,
+                    {
+                      "b": null
+                    }
+                  ],
+                  "c": "<x>",
+                  "d": true
+                }""", result.text());
+    }
+
+    @Test
+    public void shouldKeepMalformedBodies() {
+        JsonFormatter.Result unclosed = format("{\"a\": [1, 2", 1000);
+        assertFalse(unclosed.formatted());
+        assertEquals("{\"a\": [1, 2", unclosed.text());
+
+        JsonFormatter.Result trailing = format("{} {}", 1000);
+        assertFalse(trailing.formatted());
+        assertEquals("{} {}", trailing.text());
+
+        assertEquals("", format("  ", 1000).text());
+    }
+
+    @Test
+    public void shouldStopAtTheLimit() {
+        JsonFormatter.Result result = format("[" + "1,".repeat(1000) + "1]", 20);
+
+        assertTrue(result.formatted());
+        assertTrue(result.truncated());
+        assertEquals(20, result.text().length());
+        assertTrue(result.text().startsWith("[\n  1,\n  1,"));
+    }
+
+    private static JsonFormatter.Result format(String json, int limit) {
+        return JsonFormatter.format(ResponseBody.of(json.getBytes(StandardCharsets.UTF_8)), limit);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class ResponseBodySinkTest {
+    @Test
+    public void shouldKeepSmallBodiesInMemory() throws IOException {
+        ResponseBodySink sink = new ResponseBodySink(16);
+        sink.write("small body".getBytes(StandardCharsets.UTF_8));
+        sink.close();
+
+        ResponseBody body = sink.toBody();
+        assertFalse(body.isFileBacked());
+        assertEquals(10, body.size());
+        assertEquals("small body", body.getText());
+        assertEquals("body", body.getText(6, 100));
+    }
+
+    @Test
+    public void shouldSpillLargeBodiesToFile() throws IOException {
+        ResponseBodySink sink = new ResponseBodySink(8);
+        sink.write("0123456".getBytes(StandardCharsets.UTF_8));
+        sink.write("789abcdef".getBytes(StandardCharsets.UTF_8));
+        sink.close();
+
+        ResponseBody body = sink.toBody();
+        assertTrue(body.isFileBacked());
+        assertEquals(16, body.size());
+        assertEquals("0123456789abcdef", body.getText());
+        assertEquals("89ab", body.getText(8, 4));
+
+        try (InputStream stream = body.openStream()) {
+            assertEquals("0123456789abcdef", new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void shouldDeleteTheFileOfDiscardedBodies() throws IOException {
+        ResponseBodySink sink = new ResponseBodySink(8);
+        sink.write("0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+
+        FileResponseBody body = (FileResponseBody) sink.toBody();
+        assertTrue(Files.exists(body.path()));
+
+        sink.discard();
+        assertFalse(Files.exists(body.path()));
+    }
+
+    @Test
+    public void shouldNeverSpillWithNegativeThreshold() throws IOException {
+        ResponseBodySink sink = new ResponseBodySink(-1);
+        sink.write(new byte[1024]);
+
+        assertFalse(sink.toBody().isFileBacked());
+    }
+}
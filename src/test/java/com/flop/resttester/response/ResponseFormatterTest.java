@@ -0,0 +1,92 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResponseFormatterTest {
+    @Test
+    public void shouldFormatJsonResponses() {
+        ResponseDisplayModel model = ResponseFormatter.createModel(record("application/json; charset=utf-8", "{\"a\":1}", ""), 100);
+
+        assertEquals(ResponseDisplayModel.Kind.Json, model.kind());
+        assertEquals("application/json", model.type());
+        assertEquals("{\n  \"a\": 1\n}", model.bodyText());
+        assertTrue(model.headersText().contains("  Request Method: GET"));
+        assertTrue(model.headersText().contains("  content-type: application/json"));
+        assertEquals("7 bytes", model.sizeText());
+    }
+
+    @Test
+    public void shouldAppendErrors() {
+        ResponseDisplayModel model = ResponseFormatter.createModel(record("image/png", "no image", "Connection reset"), 100);
+
+        assertEquals(ResponseDisplayModel.Kind.Image, model.kind());
+        assertNull(model.imageInfo());
+        assertEquals("Connection reset", model.bodyText());
+        assertTrue(model.headersText().endsWith("\nConnection reset"));
+    }
+
+    @Test
+    public void shouldNotFormatLargeBodies() {
+        String body = "[" + "1,".repeat((int) ResponseFormatter.LARGE_BODY_THRESHOLD / 2) + "1]";
+        ResponseDisplayModel model = ResponseFormatter.createModel(record("application/json", body, ""), 100);
+
+        assertEquals(ResponseDisplayModel.Kind.Json, model.kind());
+        assertTrue(model.large());
+        assertEquals("", model.bodyText());
+    }
+
+    @Test
+    public void shouldKeepTheLastEventsOfEventStreams() {
+        String body = "data: 1\n\nevent: update\nid: 7\ndata: 2\ndata: 3\n\n: comment\ndata: 4\n\n";
+        ResponseDisplayModel model = ResponseFormatter.createModel(record("text/event-stream", body, ""), 2);
+
+        assertEquals(ResponseDisplayModel.Kind.EventStream, model.kind());
+        assertEquals("", model.bodyText());
+        assertEquals(2, model.events().size());
+
+        SseEvent update = model.events().getFirst();
+        assertEquals("update", update.type());
+        assertEquals("7", update.id());
+        assertEquals("2\n3", update.data());
+
+        SseEvent last = model.events().getLast();
+        assertEquals(SseEvent.DEFAULT_TYPE, last.type());
+        assertEquals("7", last.id());
+        assertEquals("4", last.data());
+    }
+
+    private static ResponseRecord record(String contentType, String body, String error) {
+        return new ResponseRecord(
+                0,
+                "https://example.com",
+                "GET",
+                Map.of("Accept", List.of("*/*")),
+                Map.of("content-type", List.of(contentType)),
+                List.of(),
+                200,
+                ResponseBody.of(body.getBytes(StandardCharsets.UTF_8)),
+                List.of(contentType),
+                error.getBytes(StandardCharsets.UTF_8),
+                "1 ms",
+                ResponseTiming.EMPTY,
+                -1,
+                RequestAttempts.SINGLE,
+                CacheStatus.None
+        );
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class SseEventBufferTest {
+    @Test
+    public void shouldDropTheOldestEvents() {
+        SseEventBuffer buffer = new SseEventBuffer(3);
+
+        for (int i = 0; i < 5; i++) {
+            buffer.add(new SseEvent(i, i % 2 == 0 ? "even" : "odd", null, String.valueOf(i), 10));
+        }
+
+        assertEquals(3, buffer.size());
+        assertEquals(5, buffer.getTotalEvents());
+        assertEquals(50, buffer.getTotalBytes());
+        assertEquals(2, buffer.getFirstIndex());
+        assertEquals("2", buffer.get(2).data());
+        assertEquals("4", buffer.get(4).data());
+        assertEquals(List.of("2", "3", "4"), buffer.getEvents().stream().map(SseEvent::data).toList());
+        assertEquals(Set.of("even", "odd"), buffer.getTypes());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectDroppedEvents() {
+        SseEventBuffer buffer = new SseEventBuffer(2);
+
+        for (int i = 0; i < 3; i++) {
+            buffer.add(new SseEvent(i, SseEvent.DEFAULT_TYPE, null, "", 1));
+        }
+        buffer.get(0);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.response;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SseEventParserTest {
+    @Test
+    public void shouldParseFieldsOfTheSpecification() {
+        SseEventParser parser = new SseEventParser();
+        List<SseEvent> events = SseEventParserTest.feed(parser,
+                "\uFEFF: comment\n" +
+                        "event: update\n" +
+                        "data: first\n" +
+                        "data:second\n" +
+                        "id: 1\n" +
+                        "retry: 1500\n" +
+                        "unknown: field\n" +
+                        "\n" +
+                        "id\n" +
+                        "\n" +
+                        "data\n" +
+                        "\n"
+        );
+
+        assertEquals(2, events.size());
+        assertEquals("update", events.get(0).type());
+        assertEquals("first\nsecond", events.get(0).data());
+        assertEquals("1", events.get(0).id());
+
+        // an empty id resets the last event id, an empty data field dispatches an empty event
+        assertEquals(SseEvent.DEFAULT_TYPE, events.get(1).type());
+        assertEquals("", events.get(1).data());
+        assertEquals("", events.get(1).id());
+        assertEquals(1500, parser.getRetryMillis());
+    }
+
+    @Test
+    public void shouldSplitLinesAtAllTerminators() {
+        SseEventParser parser = new SseEventParser();
+        List<SseEvent> events = new ArrayList<>();
+        byte[] bytes = "data: a\r\ndata: b\rdata: c\n\r\ndata: ü\r\r".getBytes(StandardCharsets.UTF_8);
+
+        // byte by byte, so CRLF and multibyte characters are split between reads
+        for (byte b : bytes) {
+            parser.feed(new byte[]{b}, 0, 1, 0, events::add);
+        }
+
+        assertEquals(2, events.size());
+        assertEquals("a\nb\nc", events.get(0).data());
+        assertEquals("ü", events.get(1).data());
+    }
+
+    @Test
+    public void shouldKeepTheLastEventIdOnReset() {
+        SseEventParser parser = new SseEventParser();
+        SseEventParserTest.feed(parser, "id: 7\ndata: 1\n\nretry: x\nid: a\u0000b\ndata: incomplete");
+        parser.reset();
+
+        List<SseEvent> events = SseEventParserTest.feed(parser, "data: 2\n\n");
+
+        assertEquals(1, events.size());
+        assertEquals("2", events.getFirst().data());
+        assertEquals("7", parser.getLastEventId());
+        assertEquals(SseEventParser.DEFAULT_RETRY_MILLIS, parser.getRetryMillis());
+        assertNull(new SseEventParser().getLastEventId());
+    }
+
+    @Test
+    public void shouldDropTheIdOfAnIncompleteEvent() {
+        SseEventParser parser = new SseEventParser();
+        SseEventParserTest.feed(parser, "id: 7\ndata: 1\n\nid: 8\ndata: x");
+        assertEquals("7", parser.getLastEventId());
+
+        parser.reset();
+        List<SseEvent> events = SseEventParserTest.feed(parser, "id: 8\ndata: x\n\n");
+
+        assertEquals(1, events.size());
+        assertEquals("8", events.getFirst().id());
+        assertEquals("8", parser.getLastEventId());
+    }
+
+    private static List<SseEvent> feed(SseEventParser parser, String text) {
+        List<SseEvent> events = new ArrayList<>();
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        parser.feed(bytes, 0, bytes.length, 0, events::add);
+        return events;
+    }
+}
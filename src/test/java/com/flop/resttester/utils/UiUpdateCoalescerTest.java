@@ -0,0 +1,72 @@
+/*
+ * Rest Tester
+ * Copyright (C) Florian Plesker <florian dot plesker at web dot de>
+ *
+ * This file is licensed under LGPLv3
+ */
+
+package com.flop.resttester.utils;
+
+import org.junit.Test;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UiUpdateCoalescerTest {
+    @Test
+    public void shouldRunOnlyTheLatestUpdate() throws Exception {
+        UiUpdateCoalescer coalescer = new UiUpdateCoalescer(10);
+        List<Integer> values = new ArrayList<>();
+        Object owner = new Object();
+
+        // the first update runs immediately, all following ones are merged into the next frame
+        for (int i = 0; i < 1000; i++) {
+            int value = i;
+            coalescer.post(owner, "value", () -> values.add(value));
+        }
+        UiUpdateCoalescerTest.awaitFlush(coalescer);
+
+        assertTrue(values.size() <= 2);
+        assertEquals(999, (int) values.getLast());
+    }
+
+    @Test
+    public void shouldRunUpdatesInTheOrderOfTheirLastPost() throws Exception {
+        UiUpdateCoalescer coalescer = new UiUpdateCoalescer(10);
+        List<String> names = new ArrayList<>();
+        Object owner = new Object();
+
+        // blocks the event dispatch thread, so all updates are flushed together
+        CountDownLatch blocked = new CountDownLatch(1);
+        SwingUtilities.invokeLater(() -> {
+            try {
+                blocked.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        coalescer.post(owner, "response", () -> names.add("response"));
+        coalescer.post(owner, "chunks", () -> names.add("chunks"));
+        coalescer.post(new Object(), "chunks", () -> names.add("other"));
+        coalescer.post(owner, "response", () -> names.add("final response"));
+        blocked.countDown();
+        UiUpdateCoalescerTest.awaitFlush(coalescer);
+
+        assertEquals(List.of("chunks", "other", "final response"), names);
+    }
+
+    private static void awaitFlush(UiUpdateCoalescer coalescer) throws Exception {
+        CountDownLatch flushed = new CountDownLatch(1);
+        coalescer.post(new Object(), "marker", flushed::countDown);
+        assertTrue(flushed.await(5, TimeUnit.SECONDS));
+        SwingUtilities.invokeAndWait(() -> {
+        });
+    }
+}